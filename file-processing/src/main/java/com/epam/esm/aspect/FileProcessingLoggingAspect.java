@@ -1,6 +1,6 @@
 package com.epam.esm.aspect;
 
-import java.io.File;
+import com.epam.esm.processor.FileIngestion;
 import java.io.IOException;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -16,25 +16,31 @@ public class FileProcessingLoggingAspect {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FileProcessingLoggingAspect.class);
 
-  @Pointcut("execution(private void com.epam.esm.processor.FileProcessor.processFile(java.io.File))")
-  public void processFilePointcut() {
+  @Pointcut("execution(public void com.epam.esm.processor.FileFinalizer.complete(com.epam.esm.processor.FileIngestion))")
+  public void completeFilePointcut() {
   }
 
-  @Around("processFilePointcut()")
+  @Around("completeFilePointcut()")
   public Object logFileProcessing(ProceedingJoinPoint joinPoint) throws Throwable {
-    File file = (File) joinPoint.getArgs()[0];
-    long time = System.currentTimeMillis();
+    FileIngestion ingestion = (FileIngestion) joinPoint.getArgs()[0];
     try {
       Object object = joinPoint.proceed();
-      long resultTime = System.currentTimeMillis() - time;
-      LOGGER.info("Processing of file {} took {} milliseconds and completed correctly", file.getAbsolutePath(),
-          resultTime);
+      long resultTime = System.currentTimeMillis() - ingestion.getStartTime();
+      if (ingestion.isFailed()) {
+        LOGGER.error("Processing of file {} took {} milliseconds and completed with an error, {} certificates are "
+            + "inserted, {} duplicates are skipped", ingestion.getFile().getAbsolutePath(), resultTime,
+            ingestion.getInsertedCount(), ingestion.getSkippedCount());
+      } else {
+        LOGGER.info("Processing of file {} took {} milliseconds and completed correctly, {} certificates are "
+            + "inserted, {} duplicates are skipped", ingestion.getFile().getAbsolutePath(), resultTime,
+            ingestion.getInsertedCount(), ingestion.getSkippedCount());
+      }
       return object;
     } catch (IOException e) {
-      long resultTime = System.currentTimeMillis() - time;
-      LOGGER.error("Processing of file {} took {} milliseconds and completed with an error", file.getAbsolutePath(),
-          resultTime);
+      long resultTime = System.currentTimeMillis() - ingestion.getStartTime();
+      LOGGER.error("Processing of file {} took {} milliseconds and completed with an error",
+          ingestion.getFile().getAbsolutePath(), resultTime);
       throw e;
     }
   }
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.epam.esm.config;
 
 import java.io.File;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,9 +25,4 @@ public class FileProcessingConfig {
   public File errorFolder() {
     return new File(rootFolderPath, errorFolderName);
   }
-
-  @Bean
-  public AtomicBoolean hasFolderProcessorFinishedScanning() {
-    return new AtomicBoolean();
-  }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.epam.esm.dto;
+
+
+
+public class StageStatisticsDto {
+
+  private String name;
+  private Integer threadCount;
+  private Integer queueSize;
+  private Integer queueCapacity;
+  private Long processedCount;
+
+  public StageStatisticsDto() {
+  }
+
+  public StageStatisticsDto(String name, Integer threadCount, Integer queueSize, Integer queueCapacity,
+      Long processedCount) {
+    this.name = name;
+    this.threadCount = threadCount;
+    this.queueSize = queueSize;
+    this.queueCapacity = queueCapacity;
+    this.processedCount = processedCount;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Integer getThreadCount() {
+    return threadCount;
+  }
+
+  public void setThreadCount(Integer threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  public Integer getQueueSize() {
+    return queueSize;
+  }
+
+  public void setQueueSize(Integer queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public Long getProcessedCount() {
+    return processedCount;
+  }
+
+  public void setProcessedCount(Long processedCount) {
+    this.processedCount = processedCount;
+  }
+}
\ No newline at end of file
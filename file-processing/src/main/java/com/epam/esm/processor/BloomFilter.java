@@ -0,0 +1,72 @@
+package com.epam.esm.processor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The type Bloom filter. A set of fingerprints answering whether a fingerprint may be contained: a negative answer is
+ * always correct, a positive answer is wrong with the configured probability while the number of added fingerprints
+ * does not exceed the expected one. Fingerprints are uniformly distributed hashes, so the bit positions are derived
+ * from their first two longs by double hashing without hashing them again. Bits are set atomically, the filter is
+ * safe for concurrent use without locks.
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  /**
+   * Instantiates a new Bloom filter.
+   *
+   * @param expectedCount     the expected number of fingerprints
+   * @param falsePositiveRate the probability of a false positive answer
+   */
+  public BloomFilter(long expectedCount, double falsePositiveRate) {
+    double bitsPerFingerprint = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    long optimalBitCount = (long) Math.ceil(expectedCount * bitsPerFingerprint);
+    int wordCount = (int) Math.max(1, (optimalBitCount + Long.SIZE - 1) / Long.SIZE);
+    this.bits = new AtomicLongArray(wordCount);
+    this.bitCount = (long) wordCount * Long.SIZE;
+    this.hashCount = (int) Math.max(1, Math.round((double) bitCount / Math.max(1, expectedCount) * Math.log(2)));
+  }
+
+  /**
+   * Add the fingerprint.
+   *
+   * @param fingerprint the fingerprint of at least 16 bytes
+   */
+  public void add(byte[] fingerprint) {
+    ByteBuffer buffer = ByteBuffer.wrap(fingerprint);
+    long hash1 = buffer.getLong();
+    long hash2 = buffer.getLong();
+    for (int i = 0; i < hashCount; i++) {
+      long index = Math.floorMod(hash1 + i * hash2, bitCount);
+      long mask = 1L << index;
+      int wordIndex = (int) (index / Long.SIZE);
+      long word = bits.get(wordIndex);
+      while ((word & mask) == 0 && !bits.compareAndSet(wordIndex, word, word | mask)) {
+        word = bits.get(wordIndex);
+      }
+    }
+  }
+
+  /**
+   * Check if the fingerprint may be contained.
+   *
+   * @param fingerprint the fingerprint of at least 16 bytes
+   * @return false if the fingerprint was never added
+   */
+  public boolean mightContain(byte[] fingerprint) {
+    ByteBuffer buffer = ByteBuffer.wrap(fingerprint);
+    long hash1 = buffer.getLong();
+    long hash2 = buffer.getLong();
+    for (int i = 0; i < hashCount; i++) {
+      long index = Math.floorMod(hash1 + i * hash2, bitCount);
+      if ((bits.get((int) (index / Long.SIZE)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.model.GiftCertificate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The type Certificate batch. Consecutive certificates of a file passed between the stages of the ingestion pipeline.
+ * A deduplicated batch carries the fingerprints of its certificates, which are saved together with them.
+ */
+public class CertificateBatch {
+
+  private final FileIngestion ingestion;
+  private final List<GiftCertificate> certificates;
+  private final List<byte[]> fingerprints;
+  private final int sequence;
+  private final long endRecordCount;
+  private final long endByteOffset;
+
+  /**
+   * Instantiates a new Certificate batch without fingerprints.
+   *
+   * @param ingestion      the ingestion of the file
+   * @param certificates   the certificates
+   * @param sequence       the number of the batch in the file
+   * @param endRecordCount the number of certificates of the file up to the end of the batch
+   * @param endByteOffset  the byte offset of the end of the batch in the file
+   */
+  public CertificateBatch(FileIngestion ingestion, List<GiftCertificate> certificates, int sequence,
+      long endRecordCount, long endByteOffset) {
+    this(ingestion, certificates, Collections.emptyList(), sequence, endRecordCount, endByteOffset);
+  }
+
+  /**
+   * Instantiates a new Certificate batch.
+   *
+   * @param ingestion      the ingestion of the file
+   * @param certificates   the certificates
+   * @param fingerprints   the fingerprints of the certificates
+   * @param sequence       the number of the batch in the file
+   * @param endRecordCount the number of certificates of the file up to the end of the batch
+   * @param endByteOffset  the byte offset of the end of the batch in the file
+   */
+  public CertificateBatch(FileIngestion ingestion, List<GiftCertificate> certificates, List<byte[]> fingerprints,
+      int sequence, long endRecordCount, long endByteOffset) {
+    this.ingestion = ingestion;
+    this.certificates = certificates;
+    this.fingerprints = fingerprints;
+    this.sequence = sequence;
+    this.endRecordCount = endRecordCount;
+    this.endByteOffset = endByteOffset;
+  }
+
+  public FileIngestion getIngestion() {
+    return ingestion;
+  }
+
+  public List<GiftCertificate> getCertificates() {
+    return certificates;
+  }
+
+  public List<byte[]> getFingerprints() {
+    return fingerprints;
+  }
+
+  public int getSequence() {
+    return sequence;
+  }
+
+  public long getEndRecordCount() {
+    return endRecordCount;
+  }
+
+  public long getEndByteOffset() {
+    return endByteOffset;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.epam.esm.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Error quarantine. Moves files with invalid content to the error folder. A file keeps its name, a file whose
+ * name is already taken gets the name prefixed by the next number, for example (2)file.json. The next number of every
+ * name is kept in memory and seeded once from the error folder, so moving a file neither lists the folder nor takes a
+ * lock. The target name is reserved by creating an empty file before the move, so the names stay unique even if files
+ * are moved by other processes.
+ */
+@Component
+public class ErrorQuarantine {
+
+  private static final Pattern NUMBERED_NAME = Pattern.compile("\\((\\d{1,9})\\)(.+)");
+  private final File errorFolder;
+  private final Map<String, AtomicInteger> nextNumbers = new ConcurrentHashMap<>();
+
+  public ErrorQuarantine(File errorFolder) {
+    this.errorFolder = errorFolder;
+  }
+
+  /**
+   * Loads the next numbers of the names of files already in the error folder.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public void load() {
+    String[] names = errorFolder.list();
+    if (names != null) {
+      for (String name : names) {
+        Matcher matcher = NUMBERED_NAME.matcher(name);
+        if (matcher.matches()) {
+          int nextNumber = Integer.parseInt(matcher.group(1)) + 1;
+          getNextNumber(matcher.group(2)).accumulateAndGet(nextNumber, Math::max);
+        } else {
+          getNextNumber(name).accumulateAndGet(1, Math::max);
+        }
+      }
+    }
+  }
+
+  /**
+   * Move the file to the error folder.
+   *
+   * @param file the file
+   * @return the path of the moved file
+   * @throws IOException if the file can not be moved
+   */
+  public Path quarantine(File file) throws IOException {
+    String name = file.getName();
+    AtomicInteger nextNumber = getNextNumber(name);
+    while (true) {
+      int number = nextNumber.getAndIncrement();
+      Path target = errorFolder.toPath().resolve(number == 0 ? name : "(" + number + ")" + name);
+      try {
+        Files.createFile(target);
+      } catch (FileAlreadyExistsException e) {
+        continue;
+      }
+      try {
+        return Files.move(file.toPath(), target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.deleteIfExists(target);
+        throw e;
+      }
+    }
+  }
+
+  private AtomicInteger getNextNumber(String name) {
+    return nextNumbers.computeIfAbsent(name, n -> new AtomicInteger());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.epam.esm.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type File finalizer. Completes the ingestion of a file after all its steps: the fingerprint of the inserted file
+ * is saved and the file is deleted, the duplicate of an ingested file is deleted, the file with invalid content is
+ * moved to the error folder and the failed file is left to be processed again from its checkpoint. The lease of the
+ * file is released in any case.
+ */
+@Component
+public class FileFinalizer {
+
+  private final FileLeaseManager fileLeaseManager;
+  private final ErrorQuarantine errorQuarantine;
+  private final FingerprintRegistry fingerprintRegistry;
+
+  public FileFinalizer(FileLeaseManager fileLeaseManager, ErrorQuarantine errorQuarantine,
+      FingerprintRegistry fingerprintRegistry) {
+    this.fileLeaseManager = fileLeaseManager;
+    this.errorQuarantine = errorQuarantine;
+    this.fingerprintRegistry = fingerprintRegistry;
+  }
+
+  /**
+   * Complete the ingestion of the file.
+   *
+   * @param ingestion the ingestion of the file
+   * @throws IOException if the file can not be moved to the error folder
+   */
+  public void complete(FileIngestion ingestion) throws IOException {
+    File file = ingestion.getFile();
+    if (ingestion.isFailed() && !ingestion.isInvalid()) {
+      fileLeaseManager.releaseForRetry(file);
+      return;
+    }
+    try {
+      if (ingestion.isInvalid()) {
+        errorQuarantine.quarantine(file);
+      } else {
+        if (!ingestion.isDuplicate()) {
+          fingerprintRegistry.save(
+              Collections.singletonList(FingerprintRegistry.fingerprintFile(ingestion.getContentHash())));
+        }
+        file.delete();
+      }
+    } finally {
+      fileLeaseManager.release(file);
+    }
+  }
+}
\ No newline at end of file
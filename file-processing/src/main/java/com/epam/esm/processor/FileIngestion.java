@@ -0,0 +1,160 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.model.FileCheckpoint;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type File ingestion. The state of one file passing through the ingestion pipeline. Parsing and every batch of the
+ * file are steps, the file is finalized when the last started step is completed. A file with invalid content is moved
+ * to the error folder, a file failed for another reason stays in place to be processed again, a duplicate of an
+ * ingested file is deleted without being parsed. Batches are committed in the order of the file, one at a time, so the
+ * checkpoint saved with every batch covers all certificates before it and the file can be resumed from it.
+ */
+public class FileIngestion {
+
+  private final File file;
+  private final long startTime = System.currentTimeMillis();
+  private final AtomicInteger pendingStepCount = new AtomicInteger(1);
+  private final AtomicLong insertedCount = new AtomicLong();
+  private final AtomicLong skippedCount = new AtomicLong();
+  private volatile boolean isInvalid;
+  private volatile boolean isFailed;
+  private volatile boolean isDuplicate;
+  private volatile FileCheckpoint checkpoint;
+  private volatile byte[] contentHash;
+  private final Map<Integer, CertificateBatch> persistedBatches = new HashMap<>();
+  private int batchCount;
+  private int nextCommittedSequence;
+  private boolean isCommitting;
+
+  /**
+   * Instantiates a new File ingestion, its parsing is the first started step.
+   *
+   * @param file the file
+   */
+  public FileIngestion(File file) {
+    this.file = file;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getInsertedCount() {
+    return insertedCount.get();
+  }
+
+  public void addInsertedCount(int count) {
+    insertedCount.addAndGet(count);
+  }
+
+  public long getSkippedCount() {
+    return skippedCount.get();
+  }
+
+  public void addSkippedCount(int count) {
+    skippedCount.addAndGet(count);
+  }
+
+  public boolean isInvalid() {
+    return isInvalid;
+  }
+
+  public boolean isFailed() {
+    return isFailed || isInvalid;
+  }
+
+  public void markInvalid() {
+    isInvalid = true;
+  }
+
+  public void markFailed() {
+    isFailed = true;
+  }
+
+  public boolean isDuplicate() {
+    return isDuplicate;
+  }
+
+  public void markDuplicate() {
+    isDuplicate = true;
+  }
+
+  /**
+   * Start a step.
+   */
+  public void startStep() {
+    pendingStepCount.incrementAndGet();
+  }
+
+  /**
+   * Complete a step.
+   *
+   * @return true if it was the last started step
+   */
+  public boolean completeStep() {
+    return pendingStepCount.decrementAndGet() == 0;
+  }
+
+  public FileCheckpoint getCheckpoint() {
+    return checkpoint;
+  }
+
+  public void setCheckpoint(FileCheckpoint checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  public byte[] getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(byte[] contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * Gets the sequence of the next parsed batch, called by the parsing thread only.
+   *
+   * @return the sequence of the batch
+   */
+  public int nextBatchSequence() {
+    return batchCount++;
+  }
+
+  /**
+   * Offer the batch for commit.
+   *
+   * @param batch the batch
+   * @return the batch to be committed by the calling thread or null if batches are committed by another thread or
+   *     the next batch in the file order is not offered yet
+   */
+  public synchronized CertificateBatch offerBatch(CertificateBatch batch) {
+    persistedBatches.put(batch.getSequence(), batch);
+    return isCommitting ? null : takeNextBatch();
+  }
+
+  /**
+   * Complete the commit of the batch taken by the calling thread.
+   *
+   * @return the next batch to be committed by the calling thread or null if it is not offered yet
+   */
+  public synchronized CertificateBatch completeBatch() {
+    nextCommittedSequence++;
+    isCommitting = false;
+    return takeNextBatch();
+  }
+
+  private CertificateBatch takeNextBatch() {
+    CertificateBatch batch = persistedBatches.remove(nextCommittedSequence);
+    isCommitting = batch != null;
+    return batch;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.mapper.FileLeaseMapper;
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.FileLease;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type File lease manager. Lets several application instances process one folder: a file is processed by the
+ * instance holding its lease. Leases are keyed by the SHA-256 hash of the file path relative to the root folder, so
+ * instances mounting the folder at different paths share them. Files are claimed by batches with one insert and one
+ * select per batch, files already leased by this instance are not claimed again. Leases are renewed by a heartbeat,
+ * a lease of a stopped instance expires and is taken over by the next claim of the file or deleted by the heartbeat
+ * of another instance. Expiry dates are computed by the database, so the clocks of instances do not matter. The
+ * checkpoint of a partially ingested file is stored with its lease and is kept for the checkpoint retention period
+ * after the lease expires, so the instance taking the lease over resumes the file. Only the leases of files this
+ * instance is processing are renewed.
+ */
+@Component
+public class FileLeaseManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileLeaseManager.class);
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int HEARTBEATS_PER_LEASE = 3;
+  private final FileLeaseMapper fileLeaseMapper;
+  private final Path rootFolder;
+  private final String owner;
+  private final long leaseDuration;
+  private final long checkpointRetention;
+  private final Set<String> leasedPaths = ConcurrentHashMap.newKeySet();
+  private final Object renewalLock = new Object();
+  private ScheduledExecutorService executor;
+
+  public FileLeaseManager(FileLeaseMapper fileLeaseMapper, @Value("${folder-path}") String rootFolderPath,
+      @Value("${file-lease-owner:}") String owner, @Value("${file-lease-duration:30}") long leaseDuration,
+      @Value("${file-checkpoint-retention:604800}") long checkpointRetention) {
+    this.fileLeaseMapper = fileLeaseMapper;
+    this.rootFolder = Paths.get(rootFolderPath).toAbsolutePath().normalize();
+    this.owner = owner.isEmpty() ? ManagementFactory.getRuntimeMXBean().getName() : owner;
+    this.leaseDuration = leaseDuration;
+    this.checkpointRetention = checkpointRetention;
+  }
+
+  /**
+   * Starts the heartbeat renewing the leases of this instance.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public synchronized void start() {
+    if (executor == null) {
+      long heartbeatDelay = TimeUnit.SECONDS.toMillis(leaseDuration) / HEARTBEATS_PER_LEASE;
+      executor = Executors.newSingleThreadScheduledExecutor();
+      executor.scheduleWithFixedDelay(this::renew, heartbeatDelay, heartbeatDelay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops the heartbeat, the leases held expire.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Claim the files, returns the files whose leases are acquired by this call.
+   *
+   * @param files the files
+   * @return the claimed files
+   */
+  public List<File> claim(List<File> files) {
+    Map<String, File> candidates = new LinkedHashMap<>();
+    files.forEach(f -> candidates.putIfAbsent(toLeasePath(f), f));
+    candidates.keySet().removeAll(leasedPaths);
+    if (candidates.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<FileLease> leases = candidates.keySet().stream().map(p -> new FileLease(hash(p), p))
+        .collect(Collectors.toList());
+    try {
+      fileLeaseMapper.insertOrTakeOverExpired(leases, owner, leaseDuration);
+      Set<String> ownedPaths = new HashSet<>(fileLeaseMapper.selectOwnedPaths(leases, owner));
+      return candidates.entrySet().stream().filter(e -> ownedPaths.contains(e.getKey()) && leasedPaths.add(e.getKey()))
+          .map(Map.Entry::getValue).collect(Collectors.toList());
+    } catch (DataAccessException e) {
+      LOGGER.error("Error claiming {} files", candidates.size(), e);
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Find the checkpoint of the leased file.
+   *
+   * @param file the file
+   * @return the checkpoint or empty optional if the file was not partially ingested
+   */
+  public Optional<FileCheckpoint> findCheckpoint(File file) {
+    return fileLeaseMapper.selectCheckpoint(hash(toLeasePath(file)), owner);
+  }
+
+  /**
+   * Save the checkpoint of the leased file.
+   *
+   * @param file       the file
+   * @param checkpoint the checkpoint
+   * @return false if the lease was taken over by another instance
+   */
+  public boolean saveCheckpoint(File file, FileCheckpoint checkpoint) {
+    return fileLeaseMapper.updateCheckpoint(hash(toLeasePath(file)), owner, checkpoint) > 0;
+  }
+
+  /**
+   * Release the lease of the completed file, its checkpoint is deleted.
+   *
+   * @param file the file
+   */
+  public void release(File file) {
+    String path = toLeasePath(file);
+    try {
+      fileLeaseMapper.delete(hash(path), owner);
+    } finally {
+      leasedPaths.remove(path);
+    }
+  }
+
+  /**
+   * Release the lease of the file to be processed again, its checkpoint is kept.
+   *
+   * @param file the file
+   */
+  public void releaseForRetry(File file) {
+    String path = toLeasePath(file);
+    // the path is removed before the lease is expired, so a heartbeat running concurrently does not renew it again
+    synchronized (renewalLock) {
+      leasedPaths.remove(path);
+      fileLeaseMapper.expire(hash(path), owner);
+    }
+  }
+
+  /**
+   * Renew the leases of the files being processed by this instance and delete expired leases.
+   */
+  void renew() {
+    try {
+      synchronized (renewalLock) {
+        List<byte[]> pathHashes = leasedPaths.stream().map(this::hash).collect(Collectors.toList());
+        if (!pathHashes.isEmpty()) {
+          fileLeaseMapper.renew(pathHashes, owner, leaseDuration);
+        }
+      }
+      int expiredCount = fileLeaseMapper.deleteExpired(checkpointRetention);
+      if (expiredCount > 0) {
+        LOGGER.info("{} expired file leases are deleted", expiredCount);
+      }
+    } catch (DataAccessException e) {
+      LOGGER.error("Error renewing file leases", e);
+    }
+  }
+
+  private String toLeasePath(File file) {
+    return rootFolder.relativize(file.toPath().toAbsolutePath().normalize()).toString()
+        .replace(File.separatorChar, '/');
+  }
+
+  private byte[] hash(String path) {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM).digest(path.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
\ No newline at end of file
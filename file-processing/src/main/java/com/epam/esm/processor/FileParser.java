@@ -0,0 +1,157 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.GiftCertificate;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type File parser. Reads certificates of a file by a streaming parser and passes them by batches of bounded size,
+ * so the memory used does not depend on the file size. Parsing is stopped as soon as the file is failed by a later
+ * stage. A file with a checkpoint is read from the byte offset of the checkpoint if the content hash of the file is
+ * not changed, so resuming a file takes time proportional to the remaining part of it. The content hash is computed by
+ * a separate streaming pass before parsing, which only reads the file, so an already ingested file is recognized
+ * without being parsed.
+ */
+@Component
+public class FileParser {
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int HASH_BUFFER_SIZE = 64 * 1024;
+  private static final byte[] ARRAY_START = {'['};
+  private final int batchSize;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public FileParser(@Value("${file-batch-size:1000}") int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Compute the SHA-256 hash of the file content.
+   *
+   * @param file the file
+   * @return the content hash
+   * @throws IOException if the file can not be read
+   */
+  public byte[] hashContent(File file) throws IOException {
+    try (InputStream input = Files.newInputStream(file.toPath())) {
+      MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      byte[] buffer = new byte[HASH_BUFFER_SIZE];
+      int count;
+      while ((count = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, count);
+      }
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Parse the file of the ingestion, every passed batch is a started step of the ingestion. The content hash of the
+   * ingestion has to be computed before.
+   *
+   * @param ingestion the ingestion of the file
+   * @param batches   the handler of parsed batches
+   * @throws IOException          if the file can not be read or parsed
+   * @throws InterruptedException if interrupted while passing a batch
+   */
+  public void parse(FileIngestion ingestion, ProcessingStage.Handler<CertificateBatch> batches)
+      throws IOException, InterruptedException {
+    Path path = ingestion.getFile().toPath();
+    FileCheckpoint checkpoint = ingestion.getCheckpoint();
+    boolean isResumed = checkpoint != null && Arrays.equals(checkpoint.getContentHash(), ingestion.getContentHash());
+    long recordCount = isResumed ? checkpoint.getRecordCount() : 0;
+    long baseOffset = 0;
+    InputStream input = new BufferedInputStream(Files.newInputStream(path));
+    try {
+      if (isResumed) {
+        skipFully(input, checkpoint.getByteOffset());
+        long separatorOffset = checkpoint.getByteOffset() + skipWhitespace(input);
+        int separator = input.read();
+        if (separator == ']') {
+          return;
+        }
+        if (separator != ',') {
+          throw new JsonParseException(null, "Checkpoint is not followed by next certificate");
+        }
+        // the rest of the file is read as an array after the separator
+        baseOffset = separatorOffset;
+        input = new SequenceInputStream(new ByteArrayInputStream(ARRAY_START), input);
+      }
+      parse(ingestion, input, recordCount, baseOffset, batches);
+    } finally {
+      input.close();
+    }
+  }
+
+  private void parse(FileIngestion ingestion, InputStream input, long recordCount, long baseOffset,
+      ProcessingStage.Handler<CertificateBatch> batches) throws IOException, InterruptedException {
+    try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new JsonParseException(parser, "Array of certificates is expected");
+      }
+      List<GiftCertificate> certificates = new ArrayList<>(batchSize);
+      long recordEndOffset = baseOffset;
+      while (!ingestion.isFailed() && parser.nextToken() != JsonToken.END_ARRAY) {
+        certificates.add(parser.readValueAs(GiftCertificate.class));
+        recordCount++;
+        recordEndOffset = baseOffset + parser.getCurrentLocation().getByteOffset();
+        if (certificates.size() == batchSize) {
+          passBatch(ingestion, certificates, recordCount, recordEndOffset, batches);
+          certificates = new ArrayList<>(batchSize);
+        }
+      }
+      passBatch(ingestion, certificates, recordCount, recordEndOffset, batches);
+    }
+  }
+
+  private void passBatch(FileIngestion ingestion, List<GiftCertificate> certificates, long recordCount,
+      long byteOffset, ProcessingStage.Handler<CertificateBatch> batches) throws InterruptedException {
+    if (!certificates.isEmpty() && !ingestion.isFailed()) {
+      ingestion.startStep();
+      batches.handle(new CertificateBatch(ingestion, certificates, ingestion.nextBatchSequence(), recordCount,
+          byteOffset));
+    }
+  }
+
+  private void skipFully(InputStream input, long count) throws IOException {
+    long skipped = 0;
+    while (skipped < count) {
+      long skippedNow = input.skip(count - skipped);
+      if (skippedNow <= 0) {
+        throw new EOFException("File is shorter than checkpoint");
+      }
+      skipped += skippedNow;
+    }
+  }
+
+  private int skipWhitespace(InputStream input) throws IOException {
+    int count = 0;
+    input.mark(1);
+    while (Character.isWhitespace(input.read())) {
+      count++;
+      input.mark(1);
+    }
+    input.reset();
+    return count;
+  }
+}
@@ -0,0 +1,247 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.mapper.FingerprintMapper;
+import com.epam.esm.model.GiftCertificate;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The type Fingerprint registry. The persisted set of fingerprints of ingested files and certificates, used to skip
+ * files and certificates dropped again before any insert. A fingerprint is the first 16 bytes of a SHA-256 hash: of
+ * the whole content for a file and of the normalized name, description, price and duration for a certificate. The
+ * set is stored in the database and mirrored by an in-memory Bloom filter, so only the fingerprints the filter may
+ * contain are looked up in the database and a new file costs no query. The filter only saves the work of duplicates
+ * found early; whether a fingerprint is new is decided by its insert, a plain insert fails on a fingerprint saved by
+ * any instance, so the caller inserts only the certificates whose fingerprints are created by its own transaction.
+ * Fingerprints are added to the filter when they are saved, before their transaction is committed, a rolled back
+ * fingerprint only costs a lookup. The fingerprints saved by other instances are added by a periodic refresh, which
+ * re-reads the fingerprints created since the start of the previous refresh minus the lag. Until the filter is loaded
+ * every fingerprint is looked up.
+ */
+@Component
+public class FingerprintRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FingerprintRegistry.class);
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int FINGERPRINT_LENGTH = 16;
+  private static final char FIELD_SEPARATOR = '\u0000';
+  private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+  private final FingerprintMapper fingerprintMapper;
+  private final BatchExecutor batchExecutor;
+  private final TransactionTemplate nestedTransactionTemplate;
+  private final BloomFilter bloomFilter;
+  private final long refreshDelay;
+  private final long refreshLag;
+  private ScheduledExecutorService executor;
+  private volatile boolean ready;
+  private volatile LocalDateTime refreshedUntil;
+
+  public FingerprintRegistry(FingerprintMapper fingerprintMapper, BatchExecutor batchExecutor,
+      PlatformTransactionManager transactionManager,
+      @Value("${fingerprint-filter-capacity:1000000}") long filterCapacity,
+      @Value("${fingerprint-filter-false-positive-rate:0.01}") double falsePositiveRate,
+      @Value("${fingerprint-filter-refresh-delay:10000}") long refreshDelay,
+      @Value("${fingerprint-filter-refresh-lag:60}") long refreshLag) {
+    this.fingerprintMapper = fingerprintMapper;
+    this.batchExecutor = batchExecutor;
+    this.nestedTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.nestedTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    this.bloomFilter = new BloomFilter(filterCapacity, falsePositiveRate);
+    this.refreshDelay = refreshDelay;
+    this.refreshLag = refreshLag;
+  }
+
+  /**
+   * Loads the filter and starts refreshing it.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public synchronized void start() {
+    if (executor == null) {
+      load();
+      executor = Executors.newSingleThreadScheduledExecutor();
+      executor.scheduleWithFixedDelay(this::refresh, refreshDelay, refreshDelay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops refreshing the filter.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads all persisted fingerprints to the Bloom filter.
+   */
+  public synchronized void load() {
+    if (ready) {
+      return;
+    }
+    long[] count = {0};
+    try {
+      LocalDateTime loadDate = fingerprintMapper.selectCurrentDate();
+      fingerprintMapper.selectAll(context -> {
+        bloomFilter.add(context.getResultObject());
+        count[0]++;
+      });
+      refreshedUntil = loadDate;
+      ready = true;
+      LOGGER.info("Fingerprint filter is loaded with {} fingerprints", count[0]);
+    } catch (DataAccessException e) {
+      LOGGER.error("Error loading fingerprint filter, every fingerprint will be looked up in the database", e);
+    }
+  }
+
+  /**
+   * Refresh the filter with the fingerprints created since the previous refresh, loads the filter if it is not
+   * loaded. Any failure is logged and the fingerprints are read again on the next refresh, an exception never leaves
+   * the method because it would cancel the scheduled refreshes.
+   */
+  public void refresh() {
+    if (!ready) {
+      load();
+      return;
+    }
+    try {
+      LocalDateTime refreshDate = fingerprintMapper.selectCurrentDate();
+      fingerprintMapper.selectCreatedSince(refreshedUntil.minusSeconds(refreshLag),
+          context -> bloomFilter.add(context.getResultObject()));
+      refreshedUntil = refreshDate;
+    } catch (RuntimeException e) {
+      LOGGER.error("Error refreshing fingerprint filter, the fingerprints are read again on the next refresh", e);
+    }
+  }
+
+  /**
+   * Compute the fingerprint of the file from the SHA-256 hash of its content.
+   *
+   * @param contentHash the content hash
+   * @return the fingerprint
+   */
+  public static byte[] fingerprintFile(byte[] contentHash) {
+    return Arrays.copyOf(contentHash, FINGERPRINT_LENGTH);
+  }
+
+  /**
+   * Compute the fingerprint of the certificate, names and descriptions differing only in case or whitespaces and
+   * prices differing only in scale have the same fingerprint.
+   *
+   * @param certificate the certificate
+   * @return the fingerprint
+   */
+  public static byte[] fingerprintCertificate(GiftCertificate certificate) {
+    BigDecimal price = certificate.getPrice();
+    String normalizedCertificate = normalize(certificate.getName()) + FIELD_SEPARATOR
+        + normalize(certificate.getDescription()) + FIELD_SEPARATOR
+        + (price == null ? "" : price.stripTrailingZeros().toPlainString()) + FIELD_SEPARATOR
+        + certificate.getDuration();
+    try {
+      byte[] hash = MessageDigest.getInstance(HASH_ALGORITHM)
+          .digest(normalizedCertificate.getBytes(StandardCharsets.UTF_8));
+      return Arrays.copyOf(hash, FINGERPRINT_LENGTH);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Check if the fingerprint is saved.
+   *
+   * @param fingerprint the fingerprint
+   * @return true if the fingerprint is saved
+   */
+  public boolean contains(byte[] fingerprint) {
+    return !findSaved(List.of(fingerprint)).isEmpty();
+  }
+
+  /**
+   * Find the saved fingerprints among the given ones, only the fingerprints the filter may contain are looked up.
+   *
+   * @param fingerprints the fingerprints
+   * @return the set of saved fingerprints wrapped to byte buffers
+   */
+  public Set<ByteBuffer> findSaved(Collection<byte[]> fingerprints) {
+    List<byte[]> candidates = fingerprints.stream().filter(f -> !ready || bloomFilter.mightContain(f))
+        .collect(Collectors.toList());
+    if (candidates.isEmpty()) {
+      return new HashSet<>();
+    }
+    return fingerprintMapper.selectExisting(candidates).stream().map(ByteBuffer::wrap)
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  /**
+   * Save the fingerprints in the current transaction or in a new one if there is no transaction. The fingerprints are
+   * inserted by one batch under a savepoint; if any of them is saved already the batch is rolled back to the savepoint
+   * and the fingerprints are inserted one by one, a fingerprint is created only if its insert adds a row. The insert of
+   * a fingerprint saved by a transaction not committed yet waits for the end of that transaction.
+   *
+   * @param fingerprints the fingerprints
+   * @return the set of fingerprints created by this call wrapped to byte buffers
+   */
+  public Set<ByteBuffer> save(List<byte[]> fingerprints) {
+    Set<ByteBuffer> createdFingerprints = new HashSet<>();
+    if (fingerprints.isEmpty()) {
+      return createdFingerprints;
+    }
+    try {
+      nestedTransactionTemplate.execute(status -> {
+        batchExecutor.execute(FingerprintMapper.class, "insert", fingerprints, FingerprintMapper::insert);
+        return null;
+      });
+      fingerprints.forEach(f -> createdFingerprints.add(ByteBuffer.wrap(f)));
+    } catch (DuplicateKeyException e) {
+      for (byte[] fingerprint : fingerprints) {
+        if (insert(fingerprint)) {
+          createdFingerprints.add(ByteBuffer.wrap(fingerprint));
+        }
+      }
+    }
+    fingerprints.forEach(bloomFilter::add);
+    return createdFingerprints;
+  }
+
+  // a failed insert is rolled back alone, the transaction goes on
+  private boolean insert(byte[] fingerprint) {
+    try {
+      return fingerprintMapper.insert(fingerprint) == 1;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : WHITESPACES.matcher(value.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+  }
+}
\ No newline at end of file
@@ -1,50 +1,40 @@
 package com.epam.esm.processor;
 
-import com.epam.esm.mapper.FileMapper;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FolderProcessor implements Runnable {
 
-  private final int threadCount;
   private final String rootFolderPath;
   private final File errorFolder;
   private final LinkedBlockingQueue<File> files;
-  private final ApplicationContext context;
-  private final FileMapper fileMapper;
-  private final AtomicBoolean hasFolderProcessorFinishedScanning;
+  private final FileLeaseManager fileLeaseManager;
+  private final int claimBatchSize;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FolderProcessor.class);
 
   public FolderProcessor(
-      @Value("${processing-threads-count}") int threadCount,
       @Value("${folder-path}") String rootFolderPath,
       File errorFolder,
       LinkedBlockingQueue<File> files,
-      ApplicationContext context,
-      FileMapper fileMapper,
-      AtomicBoolean hasFolderProcessorFinishedScanning) {
-    this.threadCount = threadCount;
+      FileLeaseManager fileLeaseManager,
+      @Value("${file-claim-batch-size:100}") int claimBatchSize) {
     this.rootFolderPath = rootFolderPath;
     this.errorFolder = errorFolder;
     this.files = files;
-    this.context = context;
-    this.fileMapper = fileMapper;
-    this.hasFolderProcessorFinishedScanning = hasFolderProcessorFinishedScanning;
+    this.fileLeaseManager = fileLeaseManager;
+    this.claimBatchSize = claimBatchSize;
   }
 
   @Override
@@ -52,14 +42,9 @@ public class FolderProcessor implements Runnable {
     File rootFolder = new File(rootFolderPath);
     try {
       createErrorFolder();
-      hasFolderProcessorFinishedScanning.set(false);
-      loadFiles(rootFolder, true);
-      if (!files.isEmpty()) {
-        ExecutorService executor = runThreadPool();
-        loadFiles(rootFolder, false);
-        hasFolderProcessorFinishedScanning.set(true);
-        waitForFileProcessing(executor);
-      }
+      List<File> candidates = new ArrayList<>(claimBatchSize);
+      loadFiles(rootFolder, candidates);
+      claimFiles(candidates);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       LOGGER.warn("Scan thread was interrupted");
@@ -67,6 +52,27 @@ public class FolderProcessor implements Runnable {
   }
 
 
+  /**
+   * Process the passed files, files leased by another processor or deleted meanwhile are skipped.
+   *
+   * @param candidates the files to process
+   */
+  public void process(Collection<File> candidates) {
+    try {
+      createErrorFolder();
+      List<File> batch = new ArrayList<>(claimBatchSize);
+      for (File file : candidates) {
+        if (file.isFile()) {
+          addCandidate(file, batch);
+        }
+      }
+      claimFiles(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("Processing thread was interrupted");
+    }
+  }
+
   private void createErrorFolder() {
     if (!errorFolder.exists()) {
       try {
@@ -77,39 +83,32 @@ public class FolderProcessor implements Runnable {
     }
   }
 
-  private void loadFiles(File folder, boolean isInitialLoad) throws InterruptedException {
+  private void loadFiles(File folder, List<File> candidates) throws InterruptedException {
     File[] files = folder.listFiles();
     for (File file : files) {
-      if (this.files.size() == threadCount * 2 && isInitialLoad) {
-        return;
-      }
       if (!file.isDirectory()) {
-        try {
-          fileMapper.insert(file.getAbsolutePath());
-          if (file.exists()) {
-            this.files.put(file);
-          } else {
-            fileMapper.deleteByPath(file.getAbsolutePath());
-          }
-        } catch (DuplicateKeyException e) {
-          LOGGER.info("File {} already in processing", file.getAbsolutePath());
-        }
+        addCandidate(file, candidates);
       } else if (file.isDirectory() && !file.getName().equals(errorFolder.getName())) {
-        loadFiles(file, isInitialLoad);
+        loadFiles(file, candidates);
       }
     }
   }
 
-  private ExecutorService runThreadPool() {
-    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
-    for (int i = 0; i < threadCount; i++) {
-      executor.execute(context.getBean(FileProcessor.class));
+  private void addCandidate(File file, List<File> candidates) throws InterruptedException {
+    candidates.add(file);
+    if (candidates.size() == claimBatchSize) {
+      claimFiles(candidates);
+      candidates.clear();
     }
-    return executor;
   }
 
-  private void waitForFileProcessing(ExecutorService executor) throws InterruptedException {
-    executor.shutdown();
-    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+  private void claimFiles(List<File> candidates) throws InterruptedException {
+    for (File file : fileLeaseManager.claim(candidates)) {
+      if (file.exists()) {
+        files.put(file);
+      } else {
+        fileLeaseManager.release(file);
+      }
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.epam.esm.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Folder watcher. Processes files of the folder tree when they are created or modified instead of scanning
+ * the tree by schedule. Every folder of the tree except the error folder is registered in the watch service, new
+ * folders are registered as soon as they are created. Events following each other within the quiet period are
+ * coalesced, so a file written by several modifications is processed once. The whole tree is scanned on start, after
+ * the event queue overflows and every reconciliation delay, so files of missed events are processed too.
+ */
+@Component
+public class FolderWatcher implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FolderWatcher.class);
+  private static final long QUIET_PERIOD_MILLIS = 50;
+  private static final long MAX_COALESCING_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private final Path rootFolder;
+  private final Path errorFolder;
+  private final long reconciliationDelayNanos;
+  private final FolderProcessor folderProcessor;
+  private final Map<WatchKey, Path> watchedFolders = new HashMap<>();
+
+  public FolderWatcher(@Value("${folder-path}") String rootFolderPath, File errorFolder,
+      @Value("${file-reconciliation-delay:60}") double reconciliationDelay, FolderProcessor folderProcessor) {
+    this.rootFolder = Paths.get(rootFolderPath).toAbsolutePath();
+    this.errorFolder = errorFolder.toPath().toAbsolutePath();
+    this.reconciliationDelayNanos = (long) (reconciliationDelay * TimeUnit.SECONDS.toNanos(1));
+    this.folderProcessor = folderProcessor;
+  }
+
+  @Override
+  public void run() {
+    try (WatchService watchService = rootFolder.getFileSystem().newWatchService()) {
+      register(watchService, rootFolder, new LinkedHashSet<>());
+      processSafely(folderProcessor::run);
+      long nextReconciliation = System.nanoTime() + reconciliationDelayNanos;
+      while (!Thread.currentThread().isInterrupted()) {
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        boolean isOverflowed = false;
+        WatchKey key = watchService.poll(Math.max(0, nextReconciliation - System.nanoTime()), TimeUnit.NANOSECONDS);
+        long coalescingEnd = System.nanoTime() + MAX_COALESCING_NANOS;
+        while (key != null) {
+          isOverflowed |= collectChanges(watchService, key, changedFiles);
+          key = System.nanoTime() - coalescingEnd < 0
+              ? watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS) : null;
+        }
+        if (isOverflowed || System.nanoTime() - nextReconciliation >= 0) {
+          LOGGER.info(isOverflowed ? "Watch events are lost, folder is rescanned" : "Folder is reconciled by scan");
+          if (watchedFolders.isEmpty()) {
+            register(watchService, rootFolder, new LinkedHashSet<>());
+          }
+          processSafely(folderProcessor::run);
+          nextReconciliation = System.nanoTime() + reconciliationDelayNanos;
+        } else if (!changedFiles.isEmpty()) {
+          processSafely(() -> folderProcessor.process(toFiles(changedFiles)));
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      LOGGER.warn("Watch service of folder {} is closed", rootFolder);
+    } catch (IOException e) {
+      LOGGER.error("Error watching folder {}", rootFolder, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("Watch thread was interrupted");
+    }
+  }
+
+  // a failure of one processing run is logged, files it missed are processed by the next event or reconciliation
+  private void processSafely(Runnable processing) {
+    try {
+      processing.run();
+    } catch (RuntimeException e) {
+      LOGGER.error("Error processing files of folder {}, watching is continued", rootFolder, e);
+    }
+  }
+
+  private boolean collectChanges(WatchService watchService, WatchKey key, Set<Path> changedFiles) {
+    Path folder = watchedFolders.get(key);
+    boolean isOverflowed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        isOverflowed = true;
+      } else if (folder != null) {
+        try {
+          Path path = folder.resolve((Path) event.context());
+          if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            changedFiles.add(path);
+          } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+            register(watchService, path, changedFiles);
+          }
+        } catch (ClosedWatchServiceException e) {
+          throw e;
+        } catch (RuntimeException e) {
+          LOGGER.warn("Event {} of {} in folder {} is skipped", event.kind(), event.context(), folder, e);
+        }
+      }
+    }
+    if (!key.reset()) {
+      watchedFolders.remove(key);
+    }
+    return isOverflowed;
+  }
+
+  // registers the folder with all subfolders and collects their files, which may be created before registration; a
+  // folder which can not be registered, e.g. deleted or not accessible, is skipped, its files are still collected
+  private void register(WatchService watchService, Path folder, Collection<Path> files) {
+    try {
+      Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+          if (dir.equals(errorFolder)) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          try {
+            watchedFolders.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY), dir);
+          } catch (IOException e) {
+            LOGGER.warn("Folder {} can not be watched", dir, e);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          files.add(file);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+          LOGGER.warn("File {} can not be watched", file, e);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      LOGGER.warn("Folder {} can not be watched", folder, e);
+    }
+  }
+
+  private Collection<File> toFiles(Set<Path> paths) {
+    Collection<File> files = new LinkedHashSet<>();
+    paths.forEach(p -> files.add(p.toFile()));
+    return files;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.dto.StageStatisticsDto;
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.GiftCertificate;
+import com.epam.esm.validation.CertificateValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The type Ingestion pipeline. Processes the files claimed by scans in stages: files are parsed to batches of
+ * certificates, batches are validated, deduplicated, persisted and committed one by one, and files are finalized after
+ * their last batch. A file with the fingerprint of an ingested file is not parsed, certificates with the fingerprints
+ * of ingested certificates are removed from their batches before the inserts. The transaction of a batch saves the
+ * fingerprints of its certificates first and inserts only the certificates whose fingerprints it created, so a
+ * certificate missed by the earlier lookups, saved meanwhile by another batch or instance, is still skipped. Every
+ * stage has its own workers and a bounded queue, so parsing and inserts of different batches overlap and every stage
+ * can be sized to the cores or to the database capacity independently. Batches of different files are persisted in
+ * parallel, batches of one file are committed in the file order together with the checkpoint of the file; when a file
+ * is failed its remaining batches are skipped, the batches committed before stay inserted.
+ */
+@Component
+public class IngestionPipeline {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IngestionPipeline.class);
+  private static final File FILE_POISON_PILL = new File("");
+  private static final CertificateBatch BATCH_POISON_PILL =
+      new CertificateBatch(null, Collections.emptyList(), 0, 0, 0);
+  private static final FileIngestion INGESTION_POISON_PILL = new FileIngestion(FILE_POISON_PILL);
+  private final FileParser fileParser;
+  private final FileFinalizer fileFinalizer;
+  private final FileLeaseManager fileLeaseManager;
+  private final FingerprintRegistry fingerprintRegistry;
+  private final BatchExecutor batchExecutor;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ProcessingStage<File> parseStage;
+  private final ProcessingStage<CertificateBatch> validateStage;
+  private final ProcessingStage<CertificateBatch> deduplicateStage;
+  private final ProcessingStage<CertificateBatch> persistStage;
+  private final ProcessingStage<FileIngestion> finalizeStage;
+  private final List<ProcessingStage<?>> stages;
+  private final List<Integer> initialThreadCounts;
+  private boolean isStarted;
+
+  public IngestionPipeline(LinkedBlockingQueue<File> filesQueue, FileParser fileParser, FileFinalizer fileFinalizer,
+      FileLeaseManager fileLeaseManager, FingerprintRegistry fingerprintRegistry, BatchExecutor batchExecutor,
+      PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+      @Value("${processing-threads-count}") int parseThreadCount,
+      @Value("${validation-threads-count:2}") int validateThreadCount,
+      @Value("${deduplication-threads-count:2}") int deduplicateThreadCount,
+      @Value("${persistence-threads-count:4}") int persistThreadCount,
+      @Value("${finalization-threads-count:1}") int finalizeThreadCount,
+      @Value("${stage-queue-capacity:16}") int queueCapacity) {
+    this.fileParser = fileParser;
+    this.fileFinalizer = fileFinalizer;
+    this.fileLeaseManager = fileLeaseManager;
+    this.fingerprintRegistry = fingerprintRegistry;
+    this.batchExecutor = batchExecutor;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.parseStage = new ProcessingStage<>("parse", filesQueue, FILE_POISON_PILL, this::parse);
+    this.validateStage = new ProcessingStage<>("validate", new LinkedBlockingQueue<>(queueCapacity),
+        BATCH_POISON_PILL, this::validate);
+    this.deduplicateStage = new ProcessingStage<>("deduplicate", new LinkedBlockingQueue<>(queueCapacity),
+        BATCH_POISON_PILL, this::deduplicate);
+    this.persistStage = new ProcessingStage<>("persist", new LinkedBlockingQueue<>(queueCapacity),
+        BATCH_POISON_PILL, this::persist);
+    this.finalizeStage = new ProcessingStage<>("finalize", new LinkedBlockingQueue<>(queueCapacity),
+        INGESTION_POISON_PILL, this::complete);
+    this.stages = Arrays.asList(parseStage, validateStage, deduplicateStage, persistStage, finalizeStage);
+    this.initialThreadCounts = Arrays.asList(parseThreadCount, validateThreadCount, deduplicateThreadCount,
+        persistThreadCount, finalizeThreadCount);
+  }
+
+  /**
+   * Start the configured number of workers of every stage, does nothing if the pipeline is already started.
+   */
+  public synchronized void start() {
+    if (!isStarted) {
+      isStarted = true;
+      for (int i = 0; i < stages.size(); i++) {
+        stages.get(i).resize(initialThreadCounts.get(i));
+      }
+    }
+  }
+
+  /**
+   * Change the number of workers of the stage, before the pipeline is started the new number replaces the configured
+   * one.
+   *
+   * @param stageName      the stage name, one of parse, validate, deduplicate, persist, finalize
+   * @param newThreadCount the new number of workers
+   * @return the statistics of the resized stage or empty optional if there is no stage with the name
+   */
+  public synchronized Optional<StageStatisticsDto> resize(String stageName, int newThreadCount) {
+    for (int i = 0; i < stages.size(); i++) {
+      ProcessingStage<?> stage = stages.get(i);
+      if (stage.getName().equals(stageName)) {
+        if (isStarted) {
+          stage.resize(newThreadCount);
+        } else {
+          initialThreadCounts.set(i, newThreadCount);
+        }
+        return Optional.of(stage.getStatistics());
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Find statistics, returns the number of workers, queue depth and number of handled items of every stage.
+   *
+   * @return the list of stage statistics
+   */
+  public List<StageStatisticsDto> findStatistics() {
+    return stages.stream().map(ProcessingStage::getStatistics).collect(Collectors.toList());
+  }
+
+  /**
+   * Stop the stages one after another after the queued items are handled, so every stage handles the whole output of
+   * the stages before it.
+   */
+  @PreDestroy
+  public void shutdown() {
+    stages.forEach(ProcessingStage::shutdown);
+  }
+
+  private void parse(File file) throws InterruptedException {
+    FileIngestion ingestion = new FileIngestion(file);
+    try {
+      ingestion.setContentHash(fileParser.hashContent(file));
+      if (fingerprintRegistry.contains(FingerprintRegistry.fingerprintFile(ingestion.getContentHash()))) {
+        LOGGER.info("File {} is already ingested, it is skipped", file.getAbsolutePath());
+        ingestion.markDuplicate();
+      } else {
+        fileLeaseManager.findCheckpoint(file).ifPresent(c -> {
+          LOGGER.info("File {} is resumed after {} certificates", file.getAbsolutePath(), c.getRecordCount());
+          ingestion.setCheckpoint(c);
+        });
+        fileParser.parse(ingestion, validateStage::submit);
+      }
+    } catch (JsonProcessingException e) {
+      LOGGER.warn("File {} can not be parsed", file.getAbsolutePath(), e);
+      ingestion.markInvalid();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.error("Error reading file {}", file.getAbsolutePath(), e);
+      ingestion.markFailed();
+    }
+    completeStep(ingestion);
+  }
+
+  // every batch is passed to the persist stage, which skips batches of failed files, to keep the file order of commits
+  private void validate(CertificateBatch batch) throws InterruptedException {
+    FileIngestion ingestion = batch.getIngestion();
+    if (!ingestion.isFailed()
+        && !batch.getCertificates().stream().allMatch(CertificateValidator::isValidCertificate)) {
+      LOGGER.warn("File {} contains invalid certificate", ingestion.getFile().getAbsolutePath());
+      ingestion.markInvalid();
+    }
+    deduplicateStage.submit(batch);
+  }
+
+  private void deduplicate(CertificateBatch batch) throws InterruptedException {
+    FileIngestion ingestion = batch.getIngestion();
+    if (!ingestion.isFailed()) {
+      try {
+        batch = removeDuplicates(batch, batch.getCertificates().stream()
+            .map(FingerprintRegistry::fingerprintCertificate).collect(Collectors.toList()));
+      } catch (RuntimeException e) {
+        LOGGER.error("Error deduplicating certificates of file {}", ingestion.getFile().getAbsolutePath(), e);
+        ingestion.markFailed();
+      }
+    }
+    persistStage.submit(batch);
+  }
+
+  // an emptied batch is still persisted to save its checkpoint
+  private CertificateBatch removeDuplicates(CertificateBatch batch, List<byte[]> fingerprints) {
+    FileIngestion ingestion = batch.getIngestion();
+    List<GiftCertificate> certificates = batch.getCertificates();
+    Set<ByteBuffer> seenFingerprints = fingerprintRegistry.findSaved(fingerprints);
+    List<GiftCertificate> newCertificates = new ArrayList<>(certificates.size());
+    List<byte[]> newFingerprints = new ArrayList<>(certificates.size());
+    for (int i = 0; i < certificates.size(); i++) {
+      if (seenFingerprints.add(ByteBuffer.wrap(fingerprints.get(i)))) {
+        newCertificates.add(certificates.get(i));
+        newFingerprints.add(fingerprints.get(i));
+      }
+    }
+    int skippedCount = certificates.size() - newCertificates.size();
+    if (skippedCount > 0) {
+      LOGGER.debug("{} already ingested certificates of file {} are skipped", skippedCount,
+          ingestion.getFile().getAbsolutePath());
+      ingestion.addSkippedCount(skippedCount);
+    }
+    return new CertificateBatch(ingestion, newCertificates, newFingerprints, batch.getSequence(),
+        batch.getEndRecordCount(), batch.getEndByteOffset());
+  }
+
+  private void persist(CertificateBatch batch) throws InterruptedException {
+    FileIngestion ingestion = batch.getIngestion();
+    CertificateBatch nextBatch = ingestion.offerBatch(batch);
+    while (nextBatch != null) {
+      commit(nextBatch);
+      completeStep(ingestion);
+      nextBatch = ingestion.completeBatch();
+    }
+  }
+
+  // certificates saved since the batch was deduplicated, mostly by earlier batches of the same file, fail to create
+  // their fingerprints and are skipped
+  private void commit(CertificateBatch batch) {
+    FileIngestion ingestion = batch.getIngestion();
+    if (ingestion.isFailed()) {
+      return;
+    }
+    FileCheckpoint checkpoint = new FileCheckpoint(batch.getEndRecordCount(), batch.getEndByteOffset(),
+        ingestion.getContentHash());
+    try {
+      List<GiftCertificate> certificates = new ArrayList<>(batch.getCertificates().size());
+      boolean isCommitted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        certificates.clear();
+        Set<ByteBuffer> createdFingerprints = fingerprintRegistry.save(batch.getFingerprints());
+        for (int i = 0; i < batch.getCertificates().size(); i++) {
+          if (createdFingerprints.remove(ByteBuffer.wrap(batch.getFingerprints().get(i)))) {
+            certificates.add(batch.getCertificates().get(i));
+          }
+        }
+        batchExecutor.execute(GiftCertificateMapper.class, "insert", certificates, GiftCertificateMapper::insert);
+        if (!fileLeaseManager.saveCheckpoint(ingestion.getFile(), checkpoint)) {
+          status.setRollbackOnly();
+          return false;
+        }
+        return true;
+      }));
+      if (isCommitted) {
+        int skippedCount = batch.getCertificates().size() - certificates.size();
+        if (skippedCount > 0) {
+          LOGGER.debug("{} certificates of file {} saved meanwhile are skipped", skippedCount,
+              ingestion.getFile().getAbsolutePath());
+          ingestion.addSkippedCount(skippedCount);
+        }
+        ingestion.addInsertedCount(certificates.size());
+        if (!certificates.isEmpty()) {
+          eventPublisher.publishEvent(new CertificatesInsertedEvent(certificates));
+        }
+      } else {
+        LOGGER.warn("Lease of file {} is taken over, its processing is stopped",
+            ingestion.getFile().getAbsolutePath());
+        ingestion.markFailed();
+      }
+    } catch (DataIntegrityViolationException e) {
+      LOGGER.warn("Certificates of file {} can not be inserted", ingestion.getFile().getAbsolutePath(), e);
+      ingestion.markInvalid();
+    } catch (RuntimeException e) {
+      LOGGER.error("Error inserting certificates of file {}", ingestion.getFile().getAbsolutePath(), e);
+      ingestion.markFailed();
+    }
+  }
+
+  private void complete(FileIngestion ingestion) {
+    try {
+      fileFinalizer.complete(ingestion);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.error("Error finalizing file {}", ingestion.getFile().getAbsolutePath(), e);
+    }
+  }
+
+  private void completeStep(FileIngestion ingestion) throws InterruptedException {
+    if (ingestion.completeStep()) {
+      finalizeStage.submit(ingestion);
+    }
+  }
+}
\ No newline at end of file
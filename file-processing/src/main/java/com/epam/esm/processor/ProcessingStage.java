@@ -0,0 +1,146 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.dto.StageStatisticsDto;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Processing stage. A stage of the ingestion pipeline: a bounded queue and a number of workers taking items
+ * from it. Producers putting items to a full queue wait, so a slow stage slows down the stages before it instead of
+ * buffering their output. The number of workers can be changed at runtime: new workers are started or one poison pill
+ * per removed worker is put to the queue, a worker taking the pill finishes after the items queued before it.
+ *
+ * @param <T> the type of the item
+ */
+public class ProcessingStage<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingStage.class);
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+  private final String name;
+  private final BlockingQueue<T> queue;
+  private final T poisonPill;
+  private final Handler<T> handler;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final AtomicLong processedCount = new AtomicLong();
+  private int threadCount;
+
+  /**
+   * Instantiates a new Processing stage.
+   *
+   * @param name       the stage name
+   * @param queue      the bounded queue of items
+   * @param poisonPill the item stopping a worker
+   * @param handler    the handler of one item
+   */
+  public ProcessingStage(String name, BlockingQueue<T> queue, T poisonPill, Handler<T> handler) {
+    this.name = name;
+    this.queue = queue;
+    this.poisonPill = poisonPill;
+    this.handler = handler;
+  }
+
+  /**
+   * Put the item to the queue, waits while the queue is full.
+   *
+   * @param item the item
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void submit(T item) throws InterruptedException {
+    queue.put(item);
+  }
+
+  /**
+   * Change the number of workers.
+   *
+   * @param newThreadCount the new number of workers
+   */
+  public synchronized void resize(int newThreadCount) {
+    if (newThreadCount < 0 || executor.isShutdown()) {
+      return;
+    }
+    try {
+      for (; threadCount < newThreadCount; threadCount++) {
+        executor.execute(this::work);
+      }
+      for (; threadCount > newThreadCount; threadCount--) {
+        queue.put(poisonPill);
+      }
+      LOGGER.info("Number of {} workers is {}", name, threadCount);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("Resizing of {} workers was interrupted", name);
+    }
+  }
+
+  /**
+   * Stop all workers after the queued items are handled.
+   */
+  public synchronized void shutdown() {
+    resize(0);
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.warn("{} workers are not finished in {} seconds and are interrupted", name, SHUTDOWN_TIMEOUT_SECONDS);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the stage statistics.
+   *
+   * @return the stage statistics
+   */
+  public synchronized StageStatisticsDto getStatistics() {
+    int queueSize = queue.size();
+    return new StageStatisticsDto(name, threadCount, queueSize, queueSize + queue.remainingCapacity(),
+        processedCount.get());
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private void work() {
+    try {
+      T item = queue.take();
+      while (item != poisonPill) {
+        try {
+          handler.handle(item);
+        } catch (RuntimeException e) {
+          LOGGER.error("Error handling item in {} stage", name, e);
+        }
+        processedCount.incrementAndGet();
+        item = queue.take();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("{} worker was interrupted", name);
+    }
+  }
+
+  /**
+   * The interface Handler. Interface defines handling of one item of the stage.
+   *
+   * @param <T> the type of the item
+   */
+  @FunctionalInterface
+  public interface Handler<T> {
+
+    /**
+     * Handle the item.
+     *
+     * @param item the item
+     * @throws InterruptedException if interrupted while passing the result to the next stage
+     */
+    void handle(T item) throws InterruptedException;
+  }
+}
\ No newline at end of file
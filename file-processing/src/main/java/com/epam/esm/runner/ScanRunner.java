@@ -1,9 +1,12 @@
 package com.epam.esm.runner;
 
 import com.epam.esm.processor.FolderProcessor;
+import com.epam.esm.processor.FolderWatcher;
+import com.epam.esm.processor.IngestionPipeline;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
@@ -12,18 +15,36 @@ import org.springframework.stereotype.Component;
 @Component
 public class ScanRunner {
 
+  private static final String WATCH_SCAN_MODE = "watch";
   private final double scanDelay;
+  private final String scanMode;
   private final FolderProcessor folderProcessor;
+  private final FolderWatcher folderWatcher;
+  private final IngestionPipeline ingestionPipeline;
+  private final ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1);
 
-  public ScanRunner(@Value("${file-scan-delay}") double scanDelay, FolderProcessor folderProcessor) {
+  public ScanRunner(@Value("${file-scan-delay}") double scanDelay, @Value("${file-scan-mode:poll}") String scanMode,
+      FolderProcessor folderProcessor, FolderWatcher folderWatcher, IngestionPipeline ingestionPipeline) {
     this.scanDelay = scanDelay;
+    this.scanMode = scanMode;
     this.folderProcessor = folderProcessor;
+    this.folderWatcher = folderWatcher;
+    this.ingestionPipeline = ingestionPipeline;
   }
 
   @EventListener
   public void startScheduledScanRunner(ContextRefreshedEvent event) {
+    ingestionPipeline.start();
+    if (WATCH_SCAN_MODE.equals(scanMode)) {
+      scheduledExecutorService.execute(folderWatcher);
+      return;
+    }
     long convertedScanDelay = (long) (scanDelay * 1000);
-    ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1);
     scheduledExecutorService.scheduleWithFixedDelay(folderProcessor, 0, convertedScanDelay, TimeUnit.MILLISECONDS);
   }
-}
\ No newline at end of file
+
+  @PreDestroy
+  public void stopScanRunner() {
+    scheduledExecutorService.shutdownNow();
+  }
+}
@@ -0,0 +1,23 @@
+package com.epam.esm.validation;
+
+import com.epam.esm.model.GiftCertificate;
+import java.math.BigDecimal;
+
+public class CertificateValidator {
+
+  private static final int MAX_CERTIFICATE_NAME_LENGTH = 30;
+  private static final int MAX_CERTIFICATE_DESCRIPTION_LENGTH = 1000;
+  private static final BigDecimal MAX_CERTIFICATE_PRICE = new BigDecimal("99999.99");
+
+  private CertificateValidator() {
+
+  }
+
+  public static boolean isValidCertificate(GiftCertificate certificate) {
+    return certificate != null && certificate.getName() != null
+        && certificate.getName().length() <= MAX_CERTIFICATE_NAME_LENGTH && certificate.getDescription() != null
+        && certificate.getDescription().length() <= MAX_CERTIFICATE_DESCRIPTION_LENGTH
+        && certificate.getPrice() != null && certificate.getPrice().abs().compareTo(MAX_CERTIFICATE_PRICE) <= 0
+        && certificate.getDuration() != null;
+  }
+}
\ No newline at end of file
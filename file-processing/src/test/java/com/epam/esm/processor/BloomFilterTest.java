@@ -0,0 +1,40 @@
+package com.epam.esm.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+  private static final int EXPECTED_COUNT = 10000;
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private List<byte[]> createFingerprints(Random random, int count) {
+    List<byte[]> fingerprints = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] fingerprint = new byte[32];
+      random.nextBytes(fingerprint);
+      fingerprints.add(fingerprint);
+    }
+    return fingerprints;
+  }
+
+  @Test
+  public void mightContainTestAddedFingerprintsAreFound() {
+    BloomFilter filter = new BloomFilter(EXPECTED_COUNT, FALSE_POSITIVE_RATE);
+    List<byte[]> fingerprints = createFingerprints(new Random(1), EXPECTED_COUNT);
+    fingerprints.forEach(filter::add);
+    Assert.assertTrue(fingerprints.stream().allMatch(filter::mightContain));
+  }
+
+  @Test
+  public void mightContainTestFalsePositiveRateIsNearConfiguredOne() {
+    BloomFilter filter = new BloomFilter(EXPECTED_COUNT, FALSE_POSITIVE_RATE);
+    Random random = new Random(2);
+    createFingerprints(random, EXPECTED_COUNT).forEach(filter::add);
+    long falsePositiveCount = createFingerprints(random, EXPECTED_COUNT).stream().filter(filter::mightContain).count();
+    Assert.assertTrue(falsePositiveCount < EXPECTED_COUNT * FALSE_POSITIVE_RATE * 2);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.epam.esm.processor;
+
+import java.io.File;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileIngestionTest {
+
+  private FileIngestion ingestion;
+
+  @Before
+  public void setUp() {
+    ingestion = new FileIngestion(new File("certificates.json"));
+  }
+
+  private CertificateBatch createBatch() {
+    int sequence = ingestion.nextBatchSequence();
+    return new CertificateBatch(ingestion, Collections.emptyList(), sequence, sequence + 1, sequence + 1);
+  }
+
+  @Test
+  public void offerBatchTestBatchOfferedBeforePreviousOneIsNotCommitted() {
+    CertificateBatch first = createBatch();
+    CertificateBatch second = createBatch();
+    Assert.assertNull(ingestion.offerBatch(second));
+    Assert.assertSame(first, ingestion.offerBatch(first));
+    Assert.assertSame(second, ingestion.completeBatch());
+    Assert.assertNull(ingestion.completeBatch());
+  }
+
+  @Test
+  public void offerBatchTestBatchOfferedDuringCommitIsCommittedByCommittingThread() {
+    CertificateBatch first = createBatch();
+    CertificateBatch second = createBatch();
+    Assert.assertSame(first, ingestion.offerBatch(first));
+    Assert.assertNull(ingestion.offerBatch(second));
+    Assert.assertSame(second, ingestion.completeBatch());
+    Assert.assertNull(ingestion.completeBatch());
+  }
+
+  @Test
+  public void offerBatchTestNextBatchOfferedAfterCommitIsCommitted() {
+    CertificateBatch first = createBatch();
+    CertificateBatch second = createBatch();
+    Assert.assertSame(first, ingestion.offerBatch(first));
+    Assert.assertNull(ingestion.completeBatch());
+    Assert.assertSame(second, ingestion.offerBatch(second));
+  }
+
+  @Test
+  public void completeStepTestLastStartedStepCompletesIngestion() {
+    ingestion.startStep();
+    Assert.assertFalse(ingestion.completeStep());
+    Assert.assertTrue(ingestion.completeStep());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.epam.esm.processor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.mapper.FileLeaseMapper;
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.FileLease;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FileLeaseManagerTest {
+
+  private static final String ROOT_FOLDER = "files";
+  private static final String OWNER = "instance";
+  private static final long LEASE_DURATION = 30;
+  private static final long CHECKPOINT_RETENTION = 600;
+  @Mock
+  private FileLeaseMapper fileLeaseMapper;
+  private FileLeaseManager leaseManager;
+
+  @Before
+  public void setUp() {
+    leaseManager = new FileLeaseManager(fileLeaseMapper, ROOT_FOLDER, OWNER, LEASE_DURATION, CHECKPOINT_RETENTION);
+  }
+
+  private File createFile(String name) {
+    return new File(ROOT_FOLDER, name);
+  }
+
+  @Test
+  public void renewTestOnlyLeasesOfProcessedFilesAreRenewed() {
+    when(fileLeaseMapper.selectOwnedPaths(any(), eq(OWNER))).thenReturn(Arrays.asList("a.json", "b.json"));
+    leaseManager.claim(Arrays.asList(createFile("a.json"), createFile("b.json")));
+    leaseManager.releaseForRetry(createFile("a.json"));
+    leaseManager.renew();
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<byte[]>> pathHashes = ArgumentCaptor.forClass(List.class);
+    verify(fileLeaseMapper).renew(pathHashes.capture(), eq(OWNER), eq(LEASE_DURATION));
+    Assert.assertEquals(1, pathHashes.getValue().size());
+    verify(fileLeaseMapper).deleteExpired(CHECKPOINT_RETENTION);
+  }
+
+  @Test
+  public void renewTestNothingIsRenewedWithoutLeases() {
+    when(fileLeaseMapper.selectOwnedPaths(any(), eq(OWNER))).thenReturn(Collections.singletonList("a.json"));
+    leaseManager.claim(Collections.singletonList(createFile("a.json")));
+    leaseManager.release(createFile("a.json"));
+    leaseManager.renew();
+    verify(fileLeaseMapper, never()).renew(any(), anyString(), anyLong());
+    verify(fileLeaseMapper).deleteExpired(CHECKPOINT_RETENTION);
+  }
+
+  @Test
+  public void claimTestValidLeaseOfAnotherInstanceIsNotClaimed() {
+    InMemoryFileLeaseMapper leases = new InMemoryFileLeaseMapper();
+    FileLeaseManager otherLeaseManager = createLeaseManager(leases, "other");
+    List<File> files = Collections.singletonList(createFile("a.json"));
+    Assert.assertEquals(files, createLeaseManager(leases, OWNER).claim(files));
+    Assert.assertTrue(otherLeaseManager.claim(files).isEmpty());
+  }
+
+  @Test
+  public void claimTestExpiredLeaseIsTakenOverWithCheckpoint() {
+    InMemoryFileLeaseMapper leases = new InMemoryFileLeaseMapper();
+    leaseManager = createLeaseManager(leases, OWNER);
+    FileLeaseManager otherLeaseManager = createLeaseManager(leases, "other");
+    File file = createFile("a.json");
+    FileCheckpoint checkpoint = new FileCheckpoint(10L, 500L, new byte[32]);
+    leaseManager.claim(Collections.singletonList(file));
+    Assert.assertTrue(leaseManager.saveCheckpoint(file, checkpoint));
+    leases.advance(LEASE_DURATION + 1);
+    Assert.assertEquals(Collections.singletonList(file), otherLeaseManager.claim(Collections.singletonList(file)));
+    Assert.assertEquals(Optional.of(checkpoint), otherLeaseManager.findCheckpoint(file));
+    Assert.assertFalse(leaseManager.saveCheckpoint(file, checkpoint));
+  }
+
+  @Test
+  public void claimTestLeaseReleasedForRetryIsTakenOver() {
+    InMemoryFileLeaseMapper leases = new InMemoryFileLeaseMapper();
+    leaseManager = createLeaseManager(leases, OWNER);
+    File file = createFile("a.json");
+    leaseManager.claim(Collections.singletonList(file));
+    leaseManager.releaseForRetry(file);
+    leases.advance(1);
+    Assert.assertEquals(Collections.singletonList(file),
+        createLeaseManager(leases, "other").claim(Collections.singletonList(file)));
+  }
+
+  @Test
+  public void renewTestRenewedLeaseIsNotTakenOver() {
+    InMemoryFileLeaseMapper leases = new InMemoryFileLeaseMapper();
+    leaseManager = createLeaseManager(leases, OWNER);
+    File file = createFile("a.json");
+    leaseManager.claim(Collections.singletonList(file));
+    leases.advance(LEASE_DURATION - 1);
+    leaseManager.renew();
+    leases.advance(LEASE_DURATION - 1);
+    Assert.assertTrue(createLeaseManager(leases, "other").claim(Collections.singletonList(file)).isEmpty());
+  }
+
+  @Test
+  public void renewTestExpiredCheckpointIsKeptForRetentionPeriod() {
+    InMemoryFileLeaseMapper leases = new InMemoryFileLeaseMapper();
+    leaseManager = createLeaseManager(leases, OWNER);
+    FileLeaseManager otherLeaseManager = createLeaseManager(leases, "other");
+    leaseManager.claim(Arrays.asList(createFile("a.json"), createFile("b.json")));
+    leaseManager.saveCheckpoint(createFile("a.json"), new FileCheckpoint(10L, 500L, new byte[32]));
+    leases.advance(LEASE_DURATION + 1);
+    otherLeaseManager.renew();
+    Assert.assertEquals(1, leases.size());
+    leases.advance(CHECKPOINT_RETENTION);
+    otherLeaseManager.renew();
+    Assert.assertEquals(0, leases.size());
+  }
+
+  private FileLeaseManager createLeaseManager(FileLeaseMapper mapper, String owner) {
+    return new FileLeaseManager(mapper, ROOT_FOLDER, owner, LEASE_DURATION, CHECKPOINT_RETENTION);
+  }
+
+  /**
+   * The file lease mapper keeping leases in memory with a clock advanced by the test, instead of the clock of the
+   * database.
+   */
+  private static class InMemoryFileLeaseMapper implements FileLeaseMapper {
+
+    private final Map<ByteBuffer, Lease> leases = new HashMap<>();
+    private long now;
+
+    void advance(long seconds) {
+      now += TimeUnit.SECONDS.toMillis(seconds);
+    }
+
+    int size() {
+      return leases.size();
+    }
+
+    private Optional<Lease> findOwned(byte[] pathHash, String owner) {
+      return Optional.ofNullable(leases.get(ByteBuffer.wrap(pathHash))).filter(l -> l.owner.equals(owner));
+    }
+
+    @Override
+    public void insertOrTakeOverExpired(List<FileLease> fileLeases, String owner, long duration) {
+      fileLeases.forEach(f -> {
+        Lease lease = leases.computeIfAbsent(ByteBuffer.wrap(f.getPathHash()), h -> new Lease(f.getPath()));
+        if (lease.owner == null || lease.expiryDate < now) {
+          lease.owner = owner;
+          lease.expiryDate = now + TimeUnit.SECONDS.toMillis(duration);
+        }
+      });
+    }
+
+    @Override
+    public List<String> selectOwnedPaths(List<FileLease> fileLeases, String owner) {
+      return fileLeases.stream().map(f -> findOwned(f.getPathHash(), owner)).flatMap(Optional::stream)
+          .map(l -> l.path).collect(Collectors.toList());
+    }
+
+    @Override
+    public int renew(List<byte[]> pathHashes, String owner, long duration) {
+      List<Lease> ownedLeases = pathHashes.stream().map(h -> findOwned(h, owner)).flatMap(Optional::stream)
+          .collect(Collectors.toList());
+      ownedLeases.forEach(l -> l.expiryDate = now + TimeUnit.SECONDS.toMillis(duration));
+      return ownedLeases.size();
+    }
+
+    @Override
+    public Optional<FileCheckpoint> selectCheckpoint(byte[] pathHash, String owner) {
+      return findOwned(pathHash, owner).map(l -> l.checkpoint);
+    }
+
+    @Override
+    public int updateCheckpoint(byte[] pathHash, String owner, FileCheckpoint checkpoint) {
+      Optional<Lease> lease = findOwned(pathHash, owner);
+      lease.ifPresent(l -> l.checkpoint = checkpoint);
+      return lease.isPresent() ? 1 : 0;
+    }
+
+    @Override
+    public void expire(byte[] pathHash, String owner) {
+      findOwned(pathHash, owner).ifPresent(l -> l.expiryDate = now);
+    }
+
+    @Override
+    public void delete(byte[] pathHash, String owner) {
+      findOwned(pathHash, owner).ifPresent(l -> leases.remove(ByteBuffer.wrap(pathHash)));
+    }
+
+    @Override
+    public int deleteExpired(long checkpointRetention) {
+      int size = leases.size();
+      leases.values().removeIf(l -> l.expiryDate < now
+          && (l.checkpoint == null || l.expiryDate < now - TimeUnit.SECONDS.toMillis(checkpointRetention)));
+      return size - leases.size();
+    }
+
+    private static class Lease {
+
+      private final String path;
+      private String owner;
+      private long expiryDate;
+      private FileCheckpoint checkpoint;
+
+      Lease(String path) {
+        this.path = path;
+      }
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.epam.esm.processor;
+
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.GiftCertificate;
+import com.fasterxml.jackson.core.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileParserTest {
+
+  private static final String CONTENT = "[\n"
+      + "  {\"name\": \"first\", \"description\": \"description\", \"price\": 1, \"duration\": 1},\n"
+      + "  {\"name\": \"second\", \"description\": \"description\", \"price\": 2, \"duration\": 2},\n"
+      + "  {\"name\": \"third\", \"description\": \"description\", \"price\": 3, \"duration\": 3}\n"
+      + "]\n";
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private FileParser fileParser;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    fileParser = new FileParser(2);
+    file = temporaryFolder.newFile("certificates.json");
+    Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private List<CertificateBatch> parse(FileCheckpoint checkpoint) throws IOException, InterruptedException {
+    FileIngestion ingestion = new FileIngestion(file);
+    ingestion.setContentHash(fileParser.hashContent(file));
+    ingestion.setCheckpoint(checkpoint);
+    List<CertificateBatch> batches = new ArrayList<>();
+    fileParser.parse(ingestion, batches::add);
+    return batches;
+  }
+
+  private List<String> collectNames(List<CertificateBatch> batches) {
+    return batches.stream().flatMap(b -> b.getCertificates().stream()).map(GiftCertificate::getName)
+        .collect(Collectors.toList());
+  }
+
+  private FileCheckpoint createCheckpoint(CertificateBatch batch) throws IOException {
+    return new FileCheckpoint(batch.getEndRecordCount(), batch.getEndByteOffset(), fileParser.hashContent(file));
+  }
+
+  @Test
+  public void parseTestCertificatesArePassedByBatchesInFileOrder() throws Exception {
+    List<CertificateBatch> batches = parse(null);
+    Assert.assertEquals(List.of("first", "second", "third"), collectNames(batches));
+    Assert.assertEquals(2, batches.size());
+    Assert.assertEquals(0, batches.get(0).getSequence());
+    Assert.assertEquals(2, batches.get(0).getEndRecordCount());
+    Assert.assertEquals(1, batches.get(1).getSequence());
+    Assert.assertEquals(3, batches.get(1).getEndRecordCount());
+  }
+
+  @Test
+  public void parseTestFileIsResumedFromCheckpointInsideArray() throws Exception {
+    List<CertificateBatch> batches = parse(null);
+    List<CertificateBatch> resumedBatches = parse(createCheckpoint(batches.get(0)));
+    Assert.assertEquals(List.of("third"), collectNames(resumedBatches));
+    Assert.assertEquals(3, resumedBatches.get(0).getEndRecordCount());
+    Assert.assertEquals(batches.get(1).getEndByteOffset(), resumedBatches.get(0).getEndByteOffset());
+  }
+
+  @Test
+  public void parseTestFileResumedFromCheckpointBeforeArrayEndHasNoBatches() throws Exception {
+    List<CertificateBatch> batches = parse(null);
+    Assert.assertTrue(parse(createCheckpoint(batches.get(1))).isEmpty());
+  }
+
+  @Test
+  public void parseTestCheckpointOfChangedFileIsIgnored() throws Exception {
+    FileCheckpoint checkpoint = createCheckpoint(parse(null).get(0));
+    checkpoint.setContentHash(new byte[32]);
+    Assert.assertEquals(List.of("first", "second", "third"), collectNames(parse(checkpoint)));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void parseTestCheckpointNotFollowedBySeparatorThrowsException() throws Exception {
+    parse(new FileCheckpoint(1L, 3L, fileParser.hashContent(file)));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.epam.esm.processor;
+
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.mapper.FingerprintMapper;
+import com.epam.esm.model.GiftCertificate;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class FingerprintRegistryTest {
+
+  private static final String DATABASE_URL = "jdbc:h2:mem:fingerprints;MODE=MySQL;DB_CLOSE_DELAY=-1";
+  private DriverManagerDataSource dataSource;
+  private DataSourceTransactionManager transactionManager;
+  private FingerprintMapper fingerprintMapper;
+  private BatchExecutor batchExecutor;
+  private JdbcTemplate jdbcTemplate;
+
+  @Before
+  public void setUp() throws Exception {
+    dataSource = new DriverManagerDataSource(DATABASE_URL);
+    try (Connection connection = dataSource.getConnection()) {
+      ScriptUtils.executeSqlScript(connection, new ClassPathResource("h2-schema.sql"));
+    }
+    Configuration configuration = new Configuration(
+        new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+    configuration.addMapper(FingerprintMapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    fingerprintMapper = mock(FingerprintMapper.class,
+        delegatesTo(new SqlSessionTemplate(sqlSessionFactory).getMapper(FingerprintMapper.class)));
+    batchExecutor = new BatchExecutor(sqlSessionFactory, transactionManager, 50, 5000, 200);
+    // H2 rejects the fetch size MySQL streams results with, so the fingerprints are loaded by plain queries
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    doAnswer(invocation -> {
+      handleFingerprints(invocation.getArgument(0), "SELECT fingerprint FROM ingestion_fingerprint");
+      return null;
+    }).when(fingerprintMapper).selectAll(any());
+    doAnswer(invocation -> {
+      handleFingerprints(invocation.getArgument(1), "SELECT fingerprint FROM ingestion_fingerprint"
+          + " WHERE created_date >= ?", (Object) invocation.getArgument(0));
+      return null;
+    }).when(fingerprintMapper).selectCreatedSince(any(), any());
+  }
+
+  private void handleFingerprints(ResultHandler<byte[]> resultHandler, String sql, Object... args) {
+    DefaultResultContext<byte[]> resultContext = new DefaultResultContext<>();
+    jdbcTemplate.queryForList(sql, byte[].class, args).forEach(f -> {
+      resultContext.nextResultObject(f);
+      resultHandler.handleResult(resultContext);
+    });
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.createStatement().execute("DROP ALL OBJECTS");
+    }
+  }
+
+  private FingerprintRegistry createRegistry() {
+    FingerprintRegistry registry = new FingerprintRegistry(fingerprintMapper, batchExecutor, transactionManager, 1000,
+        0.01, 10000, 60);
+    registry.load();
+    return registry;
+  }
+
+  private GiftCertificate createCertificate(String name, String description, String price) {
+    return new GiftCertificate(null, name, description, new BigDecimal(price), null, null, 1);
+  }
+
+  @Test
+  public void saveTestSavedFingerprintsAreFound() {
+    FingerprintRegistry registry = createRegistry();
+    byte[] saved = FingerprintRegistry.fingerprintCertificate(createCertificate("name", "description", "1"));
+    byte[] other = FingerprintRegistry.fingerprintCertificate(createCertificate("other", "description", "1"));
+    registry.save(Collections.singletonList(saved));
+    Assert.assertEquals(Collections.singleton(ByteBuffer.wrap(saved)), registry.findSaved(Arrays.asList(saved, other)));
+    Assert.assertTrue(registry.contains(saved));
+  }
+
+  @Test
+  public void saveTestFingerprintSavedTwiceIsNotCreatedAgain() {
+    FingerprintRegistry registry = createRegistry();
+    byte[] fingerprint = FingerprintRegistry.fingerprintFile(new byte[32]);
+    Assert.assertEquals(Collections.singleton(ByteBuffer.wrap(fingerprint)),
+        registry.save(Collections.singletonList(fingerprint)));
+    Assert.assertTrue(registry.save(Arrays.asList(fingerprint, fingerprint)).isEmpty());
+    Assert.assertTrue(registry.contains(fingerprint));
+  }
+
+  @Test
+  public void saveTestOnlyNewFingerprintsAreCreatedInTransaction() {
+    FingerprintRegistry registry = createRegistry();
+    byte[] saved = FingerprintRegistry.fingerprintCertificate(createCertificate("name", "description", "1"));
+    byte[] other = FingerprintRegistry.fingerprintCertificate(createCertificate("other", "description", "1"));
+    registry.save(Collections.singletonList(saved));
+    Set<ByteBuffer> createdFingerprints = new TransactionTemplate(transactionManager)
+        .execute(status -> registry.save(Arrays.asList(saved, other, other)));
+    Assert.assertEquals(Collections.singleton(ByteBuffer.wrap(other)), createdFingerprints);
+    Assert.assertEquals(2, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ingestion_fingerprint",
+        Integer.class));
+  }
+
+  @Test
+  public void saveTestFingerprintSavedByOtherInstanceIsNotCreated() {
+    FingerprintRegistry registry = createRegistry();
+    byte[] fingerprint = FingerprintRegistry.fingerprintFile(new byte[32]);
+    jdbcTemplate.update("INSERT INTO ingestion_fingerprint (fingerprint) VALUES (?)", (Object) fingerprint);
+    Assert.assertTrue(registry.save(Collections.singletonList(fingerprint)).isEmpty());
+  }
+
+  @Test
+  public void saveTestRolledBackFingerprintIsNotFound() {
+    FingerprintRegistry registry = createRegistry();
+    byte[] fingerprint = FingerprintRegistry.fingerprintFile(new byte[32]);
+    new TransactionTemplate(transactionManager).execute(status -> {
+      registry.save(Collections.singletonList(fingerprint));
+      status.setRollbackOnly();
+      return null;
+    });
+    Assert.assertFalse(registry.contains(fingerprint));
+  }
+
+  @Test
+  public void findSavedTestFingerprintsUnknownToFilterAreNotLookedUp() {
+    FingerprintRegistry registry = createRegistry();
+    List<byte[]> fingerprints = Collections.singletonList(
+        FingerprintRegistry.fingerprintCertificate(createCertificate("name", "description", "1")));
+    Assert.assertTrue(registry.findSaved(fingerprints).isEmpty());
+    verify(fingerprintMapper, never()).selectExisting(any());
+  }
+
+  @Test
+  public void refreshTestFingerprintsSavedByOtherInstancesAreFound() {
+    FingerprintRegistry registry = createRegistry();
+    byte[] fingerprint = FingerprintRegistry.fingerprintFile(new byte[32]);
+    jdbcTemplate.update("INSERT INTO ingestion_fingerprint (fingerprint) VALUES (?)", (Object) fingerprint);
+    Assert.assertFalse(registry.contains(fingerprint));
+    registry.refresh();
+    Assert.assertTrue(registry.contains(fingerprint));
+  }
+
+  @Test
+  public void loadTestFingerprintsSavedBeforeAreFound() {
+    byte[] fingerprint = FingerprintRegistry.fingerprintCertificate(createCertificate("name", "description", "1"));
+    createRegistry().save(Collections.singletonList(fingerprint));
+    Assert.assertTrue(createRegistry().contains(fingerprint));
+  }
+
+  @Test
+  public void fingerprintCertificateTestCaseWhitespacesAndPriceScaleAreIgnored() {
+    Assert.assertArrayEquals(
+        FingerprintRegistry.fingerprintCertificate(createCertificate("Spa  day", "Relax", "10.50")),
+        FingerprintRegistry.fingerprintCertificate(createCertificate(" spa day ", "RELAX", "10.5")));
+  }
+}
\ No newline at end of file
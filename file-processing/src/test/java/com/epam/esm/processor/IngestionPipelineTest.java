@@ -0,0 +1,164 @@
+package com.epam.esm.processor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.GiftCertificate;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IngestionPipelineTest {
+
+  private static final String CONTENT = "[\n"
+      + "  {\"name\": \"first\", \"description\": \"description\", \"price\": 1, \"duration\": 1},\n"
+      + "  {\"name\": \"second\", \"description\": \"description\", \"price\": 2, \"duration\": 2},\n"
+      + "  {\"name\": \"third\", \"description\": \"description\", \"price\": 3, \"duration\": 3},\n"
+      + "  {\"name\": \"fourth\", \"description\": \"description\", \"price\": 4, \"duration\": 4},\n"
+      + "  {\"name\": \"fifth\", \"description\": \"description\", \"price\": 5, \"duration\": 5}\n"
+      + "]\n";
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  @Mock
+  private FileFinalizer fileFinalizer;
+  @Mock
+  private FileLeaseManager fileLeaseManager;
+  @Mock
+  private FingerprintRegistry fingerprintRegistry;
+  @Mock
+  private BatchExecutor batchExecutor;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  private LinkedBlockingQueue<File> filesQueue;
+  private IngestionPipeline pipeline;
+  private CountDownLatch completedLatch;
+
+  @Before
+  public void setUp() throws Exception {
+    filesQueue = new LinkedBlockingQueue<>();
+    pipeline = new IngestionPipeline(filesQueue, new FileParser(1), fileFinalizer, fileLeaseManager,
+        fingerprintRegistry, batchExecutor, transactionManager, eventPublisher, 1, 2, 2, 4, 1, 16);
+    completedLatch = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      completedLatch.countDown();
+      return null;
+    }).when(fileFinalizer).complete(any());
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    when(fingerprintRegistry.save(any())).thenAnswer(invocation -> {
+      List<byte[]> fingerprints = invocation.getArgument(0);
+      return fingerprints.stream().map(ByteBuffer::wrap).collect(Collectors.toCollection(HashSet::new));
+    });
+  }
+
+  @After
+  public void tearDown() {
+    pipeline.shutdown();
+  }
+
+  private File createFile() throws Exception {
+    File file = temporaryFolder.newFile("certificates.json");
+    Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void startTestBatchesOfFileAreCommittedInFileOrder() throws Exception {
+    // the first batch is held in the deduplicate stage, so the later batches reach the persist stage before it
+    AtomicInteger lookupCount = new AtomicInteger();
+    when(fingerprintRegistry.findSaved(any())).thenAnswer(invocation -> {
+      if (lookupCount.getAndIncrement() == 0) {
+        TimeUnit.MILLISECONDS.sleep(200);
+      }
+      return new HashSet<>();
+    });
+    when(fileLeaseManager.saveCheckpoint(any(), any())).thenReturn(true);
+    File file = createFile();
+    filesQueue.put(file);
+    pipeline.start();
+    Assert.assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+    ArgumentCaptor<FileCheckpoint> checkpointCaptor = ArgumentCaptor.forClass(FileCheckpoint.class);
+    verify(fileLeaseManager, times(5)).saveCheckpoint(eq(file), checkpointCaptor.capture());
+    List<Long> recordCounts = checkpointCaptor.getAllValues().stream().map(FileCheckpoint::getRecordCount)
+        .collect(Collectors.toList());
+    Assert.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), recordCounts);
+    ArgumentCaptor<FileIngestion> ingestionCaptor = ArgumentCaptor.forClass(FileIngestion.class);
+    verify(fileFinalizer).complete(ingestionCaptor.capture());
+    Assert.assertEquals(5, ingestionCaptor.getValue().getInsertedCount());
+  }
+
+  @Test
+  public void startTestRemainingBatchesOfFileAreSkippedAfterLeaseIsTakenOver() throws Exception {
+    when(fingerprintRegistry.findSaved(any())).thenAnswer(invocation -> new HashSet<>());
+    when(fileLeaseManager.saveCheckpoint(any(), any())).thenReturn(true, false);
+    File file = createFile();
+    filesQueue.put(file);
+    pipeline.start();
+    Assert.assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+    verify(fileLeaseManager, times(2)).saveCheckpoint(eq(file), any());
+    ArgumentCaptor<FileIngestion> ingestionCaptor = ArgumentCaptor.forClass(FileIngestion.class);
+    verify(fileFinalizer).complete(ingestionCaptor.capture());
+    Assert.assertTrue(ingestionCaptor.getValue().isFailed());
+    Assert.assertEquals(1, ingestionCaptor.getValue().getInsertedCount());
+  }
+
+  @Test
+  public void startTestCertificatesWithFingerprintsSavedMeanwhileAreNotInserted() throws Exception {
+    // the fingerprint of the second certificate is saved by another instance after the lookup of the batch
+    byte[] savedFingerprint = FingerprintRegistry.fingerprintCertificate(
+        new GiftCertificate(null, "second", "description", BigDecimal.valueOf(2), null, null, 2));
+    when(fingerprintRegistry.findSaved(any())).thenAnswer(invocation -> new HashSet<>());
+    doAnswer(invocation -> {
+      List<byte[]> fingerprints = invocation.getArgument(0);
+      return fingerprints.stream().filter(f -> !Arrays.equals(f, savedFingerprint)).map(ByteBuffer::wrap)
+          .collect(Collectors.toCollection(HashSet::new));
+    }).when(fingerprintRegistry).save(any());
+    when(fileLeaseManager.saveCheckpoint(any(), any())).thenReturn(true);
+    File file = createFile();
+    filesQueue.put(file);
+    pipeline.start();
+    Assert.assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+    ArgumentCaptor<List<GiftCertificate>> certificatesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(batchExecutor, times(5)).execute(eq(GiftCertificateMapper.class), eq("insert"),
+        certificatesCaptor.capture(), any());
+    List<String> names = certificatesCaptor.getAllValues().stream().flatMap(List::stream)
+        .map(GiftCertificate::getName).collect(Collectors.toList());
+    Assert.assertEquals(List.of("first", "third", "fourth", "fifth"), names);
+    ArgumentCaptor<FileIngestion> ingestionCaptor = ArgumentCaptor.forClass(FileIngestion.class);
+    verify(fileFinalizer).complete(ingestionCaptor.capture());
+    Assert.assertEquals(4, ingestionCaptor.getValue().getInsertedCount());
+    Assert.assertEquals(1, ingestionCaptor.getValue().getSkippedCount());
+  }
+}
\ No newline at end of file
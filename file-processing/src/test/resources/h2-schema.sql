@@ -0,0 +1,5 @@
+CREATE TABLE `ingestion_fingerprint` (
+  `fingerprint` binary(16) NOT NULL,
+  `created_date` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`fingerprint`)
+);
\ No newline at end of file
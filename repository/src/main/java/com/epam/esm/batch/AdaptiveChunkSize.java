@@ -0,0 +1,46 @@
+package com.epam.esm.batch;
+
+/**
+ * The type Adaptive chunk size. The number of statements flushed at once for one statement of one caller, adapted
+ * after every flush to keep the latency of one flush close to the target. The size moves halfway to the size which
+ * would have met the target latency, so a single slow or fast flush does not swing it to the bounds.
+ */
+class AdaptiveChunkSize {
+
+  private final int minChunkSize;
+  private final int maxChunkSize;
+  private final long targetLatencyNanos;
+  private volatile int chunkSize;
+
+  /**
+   * Instantiates a new Adaptive chunk size, starting from the min chunk size.
+   *
+   * @param minChunkSize       the min number of statements flushed at once
+   * @param maxChunkSize       the max number of statements flushed at once
+   * @param targetLatencyNanos the target latency of one flush in nanoseconds
+   */
+  AdaptiveChunkSize(int minChunkSize, int maxChunkSize, long targetLatencyNanos) {
+    this.minChunkSize = minChunkSize;
+    this.maxChunkSize = maxChunkSize;
+    this.targetLatencyNanos = targetLatencyNanos;
+    this.chunkSize = minChunkSize;
+  }
+
+  int get() {
+    return chunkSize;
+  }
+
+  /**
+   * Adapt the chunk size to the latency of the flush.
+   *
+   * @param flushedCount the number of flushed statements
+   * @param latencyNanos the latency of the flush in nanoseconds
+   * @return the new chunk size
+   */
+  synchronized int adapt(int flushedCount, long latencyNanos) {
+    long rowLatencyNanos = Math.max(1, latencyNanos / flushedCount);
+    long optimalChunkSize = Math.max(minChunkSize, Math.min(maxChunkSize, targetLatencyNanos / rowLatencyNanos));
+    chunkSize = (int) ((chunkSize + optimalChunkSize) / 2);
+    return chunkSize;
+  }
+}
\ No newline at end of file
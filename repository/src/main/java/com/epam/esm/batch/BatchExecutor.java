@@ -0,0 +1,147 @@
+package com.epam.esm.batch;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.MyBatisExceptionTranslator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The type Batch executor. Executes a single row statement for every item through a MyBatis batch session, so the
+ * statements are sent to the database as JDBC batches instead of one dynamic multi-row statement. With
+ * rewriteBatchedStatements enabled the driver rewrites every batch to multi-row inserts which never exceed
+ * max_allowed_packet. Items are flushed by chunks; the chunk size is adapted after every flush to keep the latency of
+ * one flush close to the target, so slow rows are written by smaller chunks and fast rows by larger ones. Every
+ * mapper statement has its own chunk size, named by the caller, so the rows of one statement do not resize the chunks
+ * of another. Statements are executed in the current transaction or in a new one if there is no transaction, on the
+ * connection of the transaction.
+ */
+@Component
+public class BatchExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchExecutor.class);
+  private final SqlSessionFactory sqlSessionFactory;
+  private final PersistenceExceptionTranslator exceptionTranslator;
+  private final TransactionTemplate transactionTemplate;
+  private final int minChunkSize;
+  private final int maxChunkSize;
+  private final long targetLatencyNanos;
+  private final ConcurrentMap<String, AdaptiveChunkSize> chunkSizes = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new Batch executor.
+   *
+   * @param sqlSessionFactory  the sql session factory
+   * @param transactionManager the transaction manager
+   * @param minChunkSize       the min number of statements flushed at once
+   * @param maxChunkSize       the max number of statements flushed at once
+   * @param targetLatency      the target latency of one flush in milliseconds
+   */
+  @Autowired
+  public BatchExecutor(SqlSessionFactory sqlSessionFactory, PlatformTransactionManager transactionManager,
+      @Value("${batch.chunk.min-size:50}") int minChunkSize, @Value("${batch.chunk.max-size:5000}") int maxChunkSize,
+      @Value("${batch.chunk.target-latency:200}") long targetLatency) {
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.exceptionTranslator = new MyBatisExceptionTranslator(
+        sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(), true);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.minChunkSize = minChunkSize;
+    this.maxChunkSize = maxChunkSize;
+    this.targetLatencyNanos = targetLatency * 1_000_000;
+  }
+
+  /**
+   * Execute the statement for every item.
+   *
+   * @param <M>        the type of the mapper
+   * @param <T>        the type of the item
+   * @param mapperType    the mapper type
+   * @param statementName the name of the mapper method executed by the statement, the chunk size is kept per mapper
+   *                      method
+   * @param items         the items
+   * @param statement     the statement executing the mapper method for one item
+   * @throws IllegalArgumentException if the mapper has no method with the name
+   */
+  public <M, T> void execute(Class<M> mapperType, String statementName, List<T> items, BiConsumer<M, T> statement) {
+    if (items.isEmpty()) {
+      return;
+    }
+    AdaptiveChunkSize chunkSize = findChunkSize(mapperType.getName() + "." + statementName);
+    transactionTemplate.execute(status -> {
+      try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+        M mapper = session.getMapper(mapperType);
+        int from = 0;
+        while (from < items.size()) {
+          int to = Math.min(items.size(), from + chunkSize.get());
+          long startTime = System.nanoTime();
+          items.subList(from, to).forEach(i -> statement.accept(mapper, i));
+          session.flushStatements();
+          adaptChunkSize(chunkSize, to - from, System.nanoTime() - startTime);
+          from = to;
+        }
+      } catch (PersistenceException e) {
+        throw translate(e);
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Execute the statements the consumer calls on the mapper through one batch session flushed once, so every distinct
+   * statement is sent as one JDBC batch and the statements are sent back to back at the flush. The results are in the
+   * order of the first call of every statement; a statement failing at the flush fails the whole call.
+   *
+   * @param <M>        the type of the mapper
+   * @param mapperType the mapper type
+   * @param statements the consumer calling the mapper methods
+   * @return the list of batch results, one per distinct statement
+   */
+  public <M> List<BatchResult> executeOnce(Class<M> mapperType, Consumer<M> statements) {
+    return transactionTemplate.execute(status -> {
+      try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+        statements.accept(session.getMapper(mapperType));
+        return session.flushStatements();
+      } catch (PersistenceException e) {
+        throw translate(e);
+      }
+    });
+  }
+
+  // the key is the id of the mapped statement, so a misspelled name fails instead of sharing a chunk size
+  private AdaptiveChunkSize findChunkSize(String statementId) {
+    return chunkSizes.computeIfAbsent(statementId, id -> {
+      if (!sqlSessionFactory.getConfiguration().hasStatement(id)) {
+        throw new IllegalArgumentException("Unknown mapper statement " + id);
+      }
+      return new AdaptiveChunkSize(minChunkSize, maxChunkSize, targetLatencyNanos);
+    });
+  }
+
+  private void adaptChunkSize(AdaptiveChunkSize chunkSize, int flushedCount, long latencyNanos) {
+    int previousChunkSize = chunkSize.get();
+    int newChunkSize = chunkSize.adapt(flushedCount, latencyNanos);
+    if (newChunkSize != previousChunkSize) {
+      LOGGER.debug("Batch chunk size is changed from {} to {}", previousChunkSize, newChunkSize);
+    }
+  }
+
+  private RuntimeException translate(PersistenceException e) {
+    DataAccessException translatedException = exceptionTranslator.translateExceptionIfPossible(e);
+    return translatedException != null ? translatedException : e;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.epam.esm.event;
+
+import com.epam.esm.model.GiftCertificate;
+import java.util.List;
+
+/**
+ * The type Certificates inserted event. Published when certificates are inserted outside of the certificate
+ * service, so in-memory structures built over certificates can be updated.
+ */
+public class CertificatesInsertedEvent {
+
+  private final List<GiftCertificate> certificates;
+
+  /**
+   * Instantiates a new Certificates inserted event.
+   *
+   * @param certificates the inserted certificates with generated ids
+   */
+  public CertificatesInsertedEvent(List<GiftCertificate> certificates) {
+    this.certificates = certificates;
+  }
+
+  public List<GiftCertificate> getCertificates() {
+    return certificates;
+  }
+}
\ No newline at end of file
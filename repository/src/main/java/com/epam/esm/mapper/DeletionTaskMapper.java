@@ -0,0 +1,74 @@
+package com.epam.esm.mapper;
+
+import com.epam.esm.model.DeletionTask;
+import java.util.List;
+import java.util.Optional;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.session.RowBounds;
+
+@Mapper
+public interface DeletionTaskMapper {
+
+  @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "deletion_task_id")
+  @Insert("INSERT INTO deletion_task (entity_type, entity_id, total_count) VALUES (#{entityType}, #{entityId}, "
+      + "#{totalCount})")
+  void insert(DeletionTask task);
+
+  @Select("SELECT deletion_task_id, entity_type, entity_id, status, total_count, processed_count, create_date, "
+      + "last_update_date FROM deletion_task WHERE deletion_task_id = #{id}")
+  @Results({
+      @Result(property = "id", column = "deletion_task_id"),
+      @Result(property = "entityType", column = "entity_type"),
+      @Result(property = "entityId", column = "entity_id"),
+      @Result(property = "status", column = "status"),
+      @Result(property = "totalCount", column = "total_count"),
+      @Result(property = "processedCount", column = "processed_count"),
+      @Result(property = "createDate", column = "create_date"),
+      @Result(property = "lastUpdateDate", column = "last_update_date"),
+  })
+  Optional<DeletionTask> selectById(Long id);
+
+  @Select("SELECT deletion_task_id, entity_type, entity_id, status, total_count, processed_count, create_date, "
+      + "last_update_date FROM deletion_task ORDER BY deletion_task_id DESC")
+  @Results({
+      @Result(property = "id", column = "deletion_task_id"),
+      @Result(property = "entityType", column = "entity_type"),
+      @Result(property = "entityId", column = "entity_id"),
+      @Result(property = "status", column = "status"),
+      @Result(property = "totalCount", column = "total_count"),
+      @Result(property = "processedCount", column = "processed_count"),
+      @Result(property = "createDate", column = "create_date"),
+      @Result(property = "lastUpdateDate", column = "last_update_date"),
+  })
+  List<DeletionTask> selectAll(RowBounds rowBounds);
+
+  @Select("SELECT deletion_task_id, entity_type, entity_id, status, total_count, processed_count, create_date, "
+      + "last_update_date FROM deletion_task WHERE status = 'PENDING' ORDER BY deletion_task_id")
+  @Results({
+      @Result(property = "id", column = "deletion_task_id"),
+      @Result(property = "entityType", column = "entity_type"),
+      @Result(property = "entityId", column = "entity_id"),
+      @Result(property = "status", column = "status"),
+      @Result(property = "totalCount", column = "total_count"),
+      @Result(property = "processedCount", column = "processed_count"),
+      @Result(property = "createDate", column = "create_date"),
+      @Result(property = "lastUpdateDate", column = "last_update_date"),
+  })
+  List<DeletionTask> selectPending();
+
+  // locks the task, so chunks of one task are never processed concurrently by several workers
+  @Select("SELECT status = 'PENDING' FROM deletion_task WHERE deletion_task_id = #{id} FOR UPDATE")
+  Boolean lockPending(Long id);
+
+  @Update("UPDATE deletion_task SET processed_count = processed_count + #{count} WHERE deletion_task_id = #{id}")
+  void addProcessedCount(Long id, int count);
+
+  @Update("UPDATE deletion_task SET status = 'COMPLETED' WHERE deletion_task_id = #{id}")
+  void complete(Long id);
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.epam.esm.mapper;
+
+import com.epam.esm.model.FileCheckpoint;
+import com.epam.esm.model.FileLease;
+import java.util.List;
+import java.util.Optional;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface FileLeaseMapper {
+
+  // an existing lease is taken over only if it is expired; the expiry date is assigned last, so every condition
+  // checks the expiry date before the update
+  @Insert({
+      "<script>",
+      "INSERT INTO file_lease (path_hash, path, owner, expiry_date, heartbeat_date) VALUES",
+      "      <foreach item='lease' collection='leases' separator=','>",
+      "        (#{lease.pathHash}, #{lease.path}, #{owner}, NOW(3) + INTERVAL #{duration} SECOND, NOW(3))",
+      "      </foreach>",
+      "ON DUPLICATE KEY UPDATE owner = IF(expiry_date &lt; NOW(3), VALUES(owner), owner),",
+      "heartbeat_date = IF(expiry_date &lt; NOW(3), VALUES(heartbeat_date), heartbeat_date),",
+      "expiry_date = IF(expiry_date &lt; NOW(3), VALUES(expiry_date), expiry_date)",
+      "</script>"})
+  void insertOrTakeOverExpired(List<FileLease> leases, String owner, long duration);
+
+  @Select({
+      "<script>",
+      "SELECT path FROM file_lease WHERE owner = #{owner} AND path_hash IN",
+      "      <foreach item='lease' collection='leases' open='(' separator=',' close=')'>",
+      "        #{lease.pathHash}",
+      "      </foreach>",
+      "</script>"})
+  List<String> selectOwnedPaths(List<FileLease> leases, String owner);
+
+  // only the given leases are renewed, a lease expired for retry stays expired until it is claimed again
+  @Update({
+      "<script>",
+      "UPDATE file_lease SET expiry_date = NOW(3) + INTERVAL #{duration} SECOND, heartbeat_date = NOW(3)",
+      "WHERE owner = #{owner} AND path_hash IN",
+      "      <foreach item='pathHash' collection='pathHashes' open='(' separator=',' close=')'>",
+      "        #{pathHash}",
+      "      </foreach>",
+      "</script>"})
+  int renew(List<byte[]> pathHashes, String owner, long duration);
+
+  @Select("SELECT checkpoint_record_count, checkpoint_byte_offset, content_hash FROM file_lease "
+      + "WHERE path_hash = #{pathHash} AND owner = #{owner} AND checkpoint_record_count IS NOT NULL")
+  @Results({
+      @Result(property = "recordCount", column = "checkpoint_record_count"),
+      @Result(property = "byteOffset", column = "checkpoint_byte_offset"),
+      @Result(property = "contentHash", column = "content_hash"),
+  })
+  Optional<FileCheckpoint> selectCheckpoint(byte[] pathHash, String owner);
+
+  @Update("UPDATE file_lease SET checkpoint_record_count = #{checkpoint.recordCount}, "
+      + "checkpoint_byte_offset = #{checkpoint.byteOffset}, content_hash = #{checkpoint.contentHash} "
+      + "WHERE path_hash = #{pathHash} AND owner = #{owner}")
+  int updateCheckpoint(byte[] pathHash, String owner, FileCheckpoint checkpoint);
+
+  @Update("UPDATE file_lease SET expiry_date = NOW(3) WHERE path_hash = #{pathHash} AND owner = #{owner}")
+  void expire(byte[] pathHash, String owner);
+
+  @Delete("DELETE FROM file_lease WHERE path_hash = #{pathHash} AND owner = #{owner}")
+  void delete(byte[] pathHash, String owner);
+
+  // leases with a checkpoint are kept after expiry for the retention period, so the next claim of the file resumes
+  // from the checkpoint; checkpoints of files never claimed again, e.g. deleted ones, are purged after it
+  @Delete("DELETE FROM file_lease WHERE expiry_date < NOW(3) AND (checkpoint_record_count IS NULL "
+      + "OR expiry_date < NOW(3) - INTERVAL #{checkpointRetention} SECOND)")
+  int deleteExpired(long checkpointRetention);
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.epam.esm.mapper;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+@Mapper
+public interface FingerprintMapper {
+
+  @Insert("INSERT INTO ingestion_fingerprint (fingerprint) VALUES (#{fingerprint})")
+  int insert(@Param("fingerprint") byte[] fingerprint);
+
+  @Select({
+      "<script>",
+      "SELECT fingerprint FROM ingestion_fingerprint WHERE fingerprint IN",
+      "      <foreach item='fingerprint' collection='fingerprints' open='(' separator=',' close=')'>",
+      "        #{fingerprint}",
+      "      </foreach>",
+      "</script>"})
+  List<byte[]> selectExisting(@Param("fingerprints") Collection<byte[]> fingerprints);
+
+  @Select("SELECT fingerprint FROM ingestion_fingerprint")
+  @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+  @ResultType(byte[].class)
+  void selectAll(ResultHandler<byte[]> resultHandler);
+
+  @Select("SELECT fingerprint FROM ingestion_fingerprint WHERE created_date >= #{since}")
+  @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+  @ResultType(byte[].class)
+  void selectCreatedSince(@Param("since") LocalDateTime since, ResultHandler<byte[]> resultHandler);
+
+  @Select("SELECT CURRENT_TIMESTAMP")
+  LocalDateTime selectCurrentDate();
+}
\ No newline at end of file
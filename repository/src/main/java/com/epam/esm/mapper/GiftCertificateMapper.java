@@ -1,8 +1,12 @@
 package com.epam.esm.mapper;
 
+import com.epam.esm.model.CountedGiftCertificate;
 import com.epam.esm.model.GiftCertificate;
-import com.epam.esm.model.Tag;
+import com.epam.esm.model.PageCursor;
+import com.epam.esm.model.TagGiftCertificate;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -13,9 +17,12 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 @Mapper
@@ -26,16 +33,6 @@ public interface GiftCertificateMapper {
       "#{price}, #{duration})")
   void insert(GiftCertificate certificate);
 
-  @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "gift_certificate_id")
-  @Insert({
-      "<script>",
-      "INSERT INTO gift_certificate (name, description, price, duration) VALUES",
-      "      <foreach item='item' index='index' collection='certificates' separator=','>",
-      "        (#{item.name}, #{item.description}, #{item.price}, #{item.duration})",
-      "      </foreach>",
-      "</script>"})
-  void insertList(@Param("certificates")List<GiftCertificate> certificates);
-
   @Insert({
       "<script>",
       "INSERT INTO tag_gift_certificate (tag_id, gift_certificate_id) VALUES",
@@ -45,38 +42,93 @@ public interface GiftCertificateMapper {
       "</script>"})
   void insertAssociativeRecords(Set<Long> tagIdList, Long certificateId);
 
+  @Insert("INSERT INTO tag_gift_certificate (tag_id, gift_certificate_id) VALUES (#{tagId}, #{giftCertificateId})")
+  void insertAssociativeRecord(TagGiftCertificate association);
+
+  // the certificate is updated only if it has the expected version, the updated row stays locked until the commit;
+  // the last update date is set by the caller, which then needs no read of it
   @Update({
       "<script>",
       "UPDATE gift_certificate",
-      " <set>",
-      "    <if test='name != null'> name=#{name},</if>",
-      "    <if test='description != null'>description=#{description},</if>",
-      "    <if test='price != null'>price=#{price},</if>",
-      "    <if test='duration != null'>duration=#{duration}</if>",
-      "  </set>",
-      "where gift_certificate_id=#{id}",
+      "<set>",
+      "  <if test='name != null'> name=#{name},</if>",
+      "  <if test='description != null'>description=#{description},</if>",
+      "  <if test='price != null'>price=#{price},</if>",
+      "  <if test='duration != null'>duration=#{duration},</if>",
+      "  <if test='lastUpdateDate != null'>last_update_date=#{lastUpdateDate},</if>",
+      "  version=version + 1",
+      "</set>",
+      "WHERE gift_certificate_id=#{id} AND version=#{version} AND deleted = 0",
       "</script>"})
-  void update(GiftCertificate certificate);
-
-  @Update("UPDATE gift_certificate SET price=#{price} WHERE gift_certificate_id=#{id}")
-  void updatePrice(Long id, BigDecimal price);
+  int update(GiftCertificate certificate);
 
   @Delete({
       "<script>",
-      "DELETE TG FROM tag_gift_certificate TG ",
-      "JOIN tag T ON T.tag_id=TG.tag_id ",
-      "WHERE ",
-      "<foreach item='item' index='index' collection='tags'  open='(' separator=' OR ' close=')'>",
-      "(T.name = #{item.name} AND gift_certificate_id = #{certificateId})",
-      "</foreach>",
+      "DELETE FROM tag_gift_certificate WHERE gift_certificate_id=#{certificateId} AND tag_id IN",
+      "<foreach item='item' collection='tagIds' open='(' separator=',' close=')'>#{item}</foreach>",
+      "</script>"})
+  int deleteAssociativeRecordsByTagIds(@Param("certificateId") Long certificateId,
+      @Param("tagIds") Collection<Long> tagIds);
+
+  // tags marked deleted since they were resolved are not attached
+  @Insert({
+      "<script>",
+      "INSERT INTO tag_gift_certificate (tag_id, gift_certificate_id)",
+      "SELECT tag_id, #{certificateId} FROM tag WHERE deleted = 0 AND tag_id IN",
+      "<foreach item='item' collection='tagIds' open='(' separator=',' close=')'>#{item}</foreach>",
+      "</script>"})
+  int insertActiveAssociativeRecords(@Param("certificateId") Long certificateId,
+      @Param("tagIds") Collection<Long> tagIds);
+
+  @Update({
+      "<script>",
+      "UPDATE gift_certificate SET price=#{price}, version=version + 1 WHERE gift_certificate_id=#{id} AND deleted = 0",
+      "<if test='version != null'>AND version=#{version}</if>",
+      "</script>"})
+  int updatePrice(Long id, BigDecimal price, Long version);
+
+  @Update({
+      "<script>",
+      "UPDATE gift_certificate SET version=version + 1, price=",
+      "<choose>",
+      "  <when test='percent != null'>ROUND(price * (100 + #{percent}) / 100, 2)</when>",
+      "  <otherwise>price + #{amount}</otherwise>",
+      "</choose>",
+      "WHERE gift_certificate_id IN",
+      "<foreach item='item' collection='ids' open='(' separator=',' close=')'>#{item}</foreach>",
+      "<choose>",
+      "  <when test='percent != null'>",
+      "    AND ROUND(price * (100 + #{percent}) / 100, 2) BETWEEN #{minPrice} AND #{maxPrice}",
+      "  </when>",
+      "  <otherwise>AND price + #{amount} BETWEEN #{minPrice} AND #{maxPrice}</otherwise>",
+      "</choose>",
       "</script>"})
-  void deleteAssociativeRecords(List<Tag> tags, Long certificateId);
+  int adjustPrices(@Param("ids") Collection<Long> ids, @Param("amount") BigDecimal amount,
+      @Param("percent") BigDecimal percent, @Param("minPrice") BigDecimal minPrice,
+      @Param("maxPrice") BigDecimal maxPrice);
 
-  @Delete("DELETE FROM gift_certificate WHERE gift_certificate_id = #{certificateId}")
+  @Delete("DELETE FROM gift_certificate WHERE gift_certificate_id = #{certificateId} AND deleted = 0")
   int delete(Long certificateId);
 
-  @Select("SELECT gift_certificate_id, name, description, price, create_date, last_update_date, duration FROM " +
-      "gift_certificate WHERE gift_certificate_id = #{id}")
+  @Update("UPDATE gift_certificate SET deleted = 1, version = version + 1 WHERE gift_certificate_id = #{certificateId} "
+      + "AND deleted = 0")
+  int markDeleted(Long certificateId);
+
+  @Select("SELECT (SELECT COUNT(*) FROM purchase WHERE gift_certificate_id = #{certificateId}) "
+      + "+ (SELECT COUNT(*) FROM tag_gift_certificate WHERE gift_certificate_id = #{certificateId})")
+  int countReferences(Long certificateId);
+
+  @Update("UPDATE purchase SET gift_certificate_id = NULL WHERE gift_certificate_id = #{certificateId} LIMIT #{limit}")
+  int detachPurchases(Long certificateId, int limit);
+
+  @Delete("DELETE FROM tag_gift_certificate WHERE gift_certificate_id = #{certificateId} LIMIT #{limit}")
+  int deleteAssociativeRecords(Long certificateId, int limit);
+
+  @Delete("DELETE FROM gift_certificate WHERE gift_certificate_id = #{certificateId} AND deleted = 1")
+  int deleteMarked(Long certificateId);
+
+  @Select("SELECT gift_certificate_id, name, description, price, create_date, last_update_date, duration, version " +
+      "FROM gift_certificate WHERE gift_certificate_id = #{id} AND deleted = 0")
   @Results({
       @Result(property = "id", column = "gift_certificate_id"),
       @Result(property = "name", column = "name"),
@@ -85,23 +137,72 @@ public interface GiftCertificateMapper {
       @Result(property = "createDate", column = "create_date"),
       @Result(property = "lastUpdateDate", column = "last_update_date"),
       @Result(property = "duration", column = "duration"),
+      @Result(property = "version", column = "version"),
   })
   Optional<GiftCertificate> selectById(Long id);
 
+  @Select("SELECT gift_certificate_id, name, description, price, create_date, last_update_date, duration, version " +
+      "FROM gift_certificate WHERE gift_certificate_id = #{id} AND deleted = 0 FOR UPDATE")
+  @Results({
+      @Result(property = "id", column = "gift_certificate_id"),
+      @Result(property = "name", column = "name"),
+      @Result(property = "description", column = "description"),
+      @Result(property = "price", column = "price"),
+      @Result(property = "createDate", column = "create_date"),
+      @Result(property = "lastUpdateDate", column = "last_update_date"),
+      @Result(property = "duration", column = "duration"),
+      @Result(property = "version", column = "version"),
+  })
+  Optional<GiftCertificate> selectByIdForUpdate(Long id);
+
   @Select({
       "<script>",
-      "SELECT DISTINCT G.gift_certificate_id,G.name,G.description,G.price,G.create_date,G.last_update_date,G.duration",
-      " <if test=\"tags!=null\">",
-      "     , group_concat(T.name order by T.name) as 'tags'",
-      " </if>",
+      "SELECT gift_certificate_id, name, description, price, create_date, last_update_date, duration, version",
+      "FROM gift_certificate WHERE deleted = 0 AND gift_certificate_id IN",
+      "<foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+      "   #{id}",
+      "</foreach>",
+      "</script>"})
+  @Results({
+      @Result(property = "id", column = "gift_certificate_id"),
+      @Result(property = "name", column = "name"),
+      @Result(property = "description", column = "description"),
+      @Result(property = "price", column = "price"),
+      @Result(property = "createDate", column = "create_date"),
+      @Result(property = "lastUpdateDate", column = "last_update_date"),
+      @Result(property = "duration", column = "duration"),
+      @Result(property = "version", column = "version"),
+  })
+  List<GiftCertificate> selectByIds(Collection<Long> ids);
+
+  @Select({
+      "<script>",
+      "SELECT G.gift_certificate_id,G.name,G.description,G.price,G.create_date,G.last_update_date,G.duration,",
+      "G.version",
+      "      <if test=\"countTotal\">",
+      "         ,COUNT(*) OVER() AS total_count",
+      "      </if>",
       "FROM gift_certificate G",
-      " <if test=\"tags!=null\">",
-      "     JOIN tag_gift_certificate TG ON G.gift_certificate_id=TG.gift_certificate_id ",
-      "     JOIN TAG T ON TG.tag_id=T.tag_id",
-      " </if>",
       "<where>",
+      "      G.deleted = 0",
+      "      <if test=\"certificateIds!=null\">",
+      "         AND G.gift_certificate_id IN",
+      "         <foreach item='item' index='index' collection='certificateIds' open='(' separator=',' close=')'>",
+      "             #{item}",
+      "         </foreach>",
+      "      </if>",
+      "      <if test=\"tags!=null\">",
+      "         <bind name='tagCount' value='tags.size()'/>",
+      "         AND G.gift_certificate_id IN (",
+      "             SELECT TG.gift_certificate_id FROM tag_gift_certificate TG JOIN tag T ON TG.tag_id=T.tag_id",
+      "             WHERE T.active_name IN",
+      "             <foreach item='item' index='index' collection='tags' open='(' separator=',' close=')'>",
+      "                 #{item}",
+      "             </foreach>",
+      "             GROUP BY TG.gift_certificate_id HAVING COUNT(DISTINCT TG.tag_id) = #{tagCount})",
+      "      </if>",
       "      <if test=\"parameters.searchValue!=null\">",
-      "         (G.name LIKE CONCAT('%', #{parameters.searchValue},'%')",
+      "         AND (G.name LIKE CONCAT('%', #{parameters.searchValue},'%')",
       "         OR G.description LIKE CONCAT('%', #{parameters.searchValue},'%'))",
       "      </if>",
       "      <if test=\"parameters.minPrice!=null\">",
@@ -110,26 +211,15 @@ public interface GiftCertificateMapper {
       "      <if test=\"parameters.maxPrice!=null\">",
       "         AND G.price &lt;= #{parameters.maxPrice} ",
       "      </if>",
+      "      <if test=\"after!=null\">",
+      "         <bind name='afterOperator' value=\"parameters.sortType == 'desc' ? '&lt;' : '&gt;'\"/>",
+      "         AND G.${parameters.sortField} ${afterOperator}= #{after.sortValue}",
+      "         AND (G.${parameters.sortField} ${afterOperator} #{after.sortValue}",
+      "         OR G.gift_certificate_id ${afterOperator} #{after.id})",
+      "      </if>",
       "</where>",
-      " <if test=\"tags!=null\">",
-      "     group by G.gift_certificate_id ",
-      "     HAVING ",
-      "      <foreach item='item' index='index' collection='tags' open='(' separator=' AND ' close=')'>",
-      "          tags REGEXP CONCAT('^',#{item},'$|^',#{item},',a*|a*,',#{item},',a*|a*,',#{item},'$')",
-      "      </foreach>",
-      " </if>",
-      "<choose>",
-      " <when test=\"parameters.sortField eq 'name' || parameters.sortField eq 'create_date' || parameters.sortField "
-          + "eq 'last_update_date'\">",
-      "     ORDER BY G.${parameters.sortField}",
-      "      <if test=\"parameters.sortType eq 'asc' || parameters.sortType eq 'desc'\">",
-      "          ${parameters.sortType}",
-      "      </if>",
-      " </when>",
-      " <otherwise>",
-      "     ORDER BY G.create_date DESC",
-      " </otherwise>",
-      "</choose>",
+      "ORDER BY G.${parameters.sortField} ${parameters.sortType}, G.gift_certificate_id ${parameters.sortType}",
+      "LIMIT #{offset}, #{limit}",
       "</script>"})
   @Results({
       @Result(property = "id", column = "gift_certificate_id"),
@@ -139,25 +229,65 @@ public interface GiftCertificateMapper {
       @Result(property = "createDate", column = "create_date"),
       @Result(property = "lastUpdateDate", column = "last_update_date"),
       @Result(property = "duration", column = "duration"),
+      @Result(property = "version", column = "version"),
+      @Result(property = "totalCount", column = "total_count"),
   })
-  List<GiftCertificate> selectByCriteria(List<String> tags, Map<String, String> parameters, RowBounds rowBounds);
+  List<CountedGiftCertificate> selectByCriteria(List<String> tags, Collection<Long> certificateIds,
+      Map<String, String> parameters, PageCursor after, int offset, int limit, boolean countTotal);
 
   @Select({
       "<script>",
-      "SELECT COUNT(*) FROM ",
-      "(",
-      "SELECT DISTINCT G.gift_certificate_id,G.name,G.description,G.price,G.create_date,G.last_update_date,G.duration",
-      " <if test=\"tags!=null\">",
-      "     , group_concat(T.name order by T.name) as 'tags'",
-      " </if>",
-      "FROM gift_certificate G",
-      " <if test=\"tags!=null\">",
-      "     JOIN tag_gift_certificate TG ON G.gift_certificate_id=TG.gift_certificate_id ",
-      "     JOIN TAG T ON TG.tag_id=T.tag_id",
-      " </if>",
+      "SELECT COUNT(*) FROM gift_certificate G",
+      "<where>",
+      "      G.deleted = 0",
+      "      <if test=\"certificateIds!=null\">",
+      "         AND G.gift_certificate_id IN",
+      "         <foreach item='item' index='index' collection='certificateIds' open='(' separator=',' close=')'>",
+      "             #{item}",
+      "         </foreach>",
+      "      </if>",
+      "      <if test=\"tags!=null\">",
+      "         <bind name='tagCount' value='tags.size()'/>",
+      "         AND G.gift_certificate_id IN (",
+      "             SELECT TG.gift_certificate_id FROM tag_gift_certificate TG JOIN tag T ON TG.tag_id=T.tag_id",
+      "             WHERE T.active_name IN",
+      "             <foreach item='item' index='index' collection='tags' open='(' separator=',' close=')'>",
+      "                 #{item}",
+      "             </foreach>",
+      "             GROUP BY TG.gift_certificate_id HAVING COUNT(DISTINCT TG.tag_id) = #{tagCount})",
+      "      </if>",
+      "      <if test=\"parameters.searchValue!=null\">",
+      "         AND (G.name LIKE CONCAT('%', #{parameters.searchValue},'%')",
+      "         OR G.description LIKE CONCAT('%', #{parameters.searchValue},'%'))",
+      "      </if>",
+      "      <if test=\"parameters.minPrice!=null\">",
+      "         AND G.price &gt;= #{parameters.minPrice} ",
+      "      </if>",
+      "      <if test=\"parameters.maxPrice!=null\">",
+      "         AND G.price &lt;= #{parameters.maxPrice} ",
+      "      </if>",
+      "</where>",
+      "</script>"})
+  int getCountOfSuitableRecordsOfFindByCriteria(List<String> tags, Collection<Long> certificateIds,
+      Map<String, String> parameters);
+
+  @Select({
+      "<script>",
+      "SELECT G.gift_certificate_id FROM gift_certificate G",
       "<where>",
+      "      G.deleted = 0 AND G.gift_certificate_id &gt; #{afterId}",
+      "      <if test=\"tags!=null\">",
+      "         <bind name='tagCount' value='tags.size()'/>",
+      "         AND G.gift_certificate_id IN (",
+      "             SELECT TG.gift_certificate_id FROM tag_gift_certificate TG JOIN tag T ON TG.tag_id=T.tag_id",
+      "             WHERE T.active_name IN",
+      "             <foreach item='item' index='index' collection='tags' open='(' separator=',' close=')'>",
+      "                 #{item}",
+      "             </foreach>",
+      "             GROUP BY TG.gift_certificate_id HAVING COUNT(DISTINCT TG.tag_id) = #{tagCount})",
+      "      </if>",
       "      <if test=\"parameters.searchValue!=null\">",
-      "         (G.name LIKE CONCAT('%', #{parameters.searchValue},'%')",
+      "         AND (G.name LIKE CONCAT('%', #{parameters.searchValue},'%')",
       "         OR G.description LIKE CONCAT('%', #{parameters.searchValue},'%'))",
       "      </if>",
       "      <if test=\"parameters.minPrice!=null\">",
@@ -167,26 +297,78 @@ public interface GiftCertificateMapper {
       "         AND G.price &lt;= #{parameters.maxPrice} ",
       "      </if>",
       "</where>",
-      " <if test=\"tags!=null\">",
-      "     group by G.gift_certificate_id ",
-      "     HAVING ",
-      "      <foreach item='item' index='index' collection='tags' open='(' separator=' AND ' close=')'>",
-      "          tags REGEXP CONCAT('^',#{item},'$|^',#{item},',a*|a*,',#{item},',a*|a*,',#{item},'$')",
+      "ORDER BY G.gift_certificate_id LIMIT #{limit}",
+      "</script>"})
+  List<Long> selectIdsByCriteria(List<String> tags, Map<String, String> parameters, long afterId, int limit);
+
+  // the ids found by a plain read are locked by primary key and checked against the criteria again, a locking read
+  // by the criteria would lock every index record it scans and the gaps between them
+  @Select({
+      "<script>",
+      "SELECT G.gift_certificate_id FROM gift_certificate G",
+      "<where>",
+      "      G.deleted = 0 AND G.gift_certificate_id IN",
+      "      <foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+      "         #{id}",
       "      </foreach>",
-      " </if>",
-      " <if test=\"parameters.sortField eq 'name' || parameters.sortField eq 'create_date' || parameters.sortField eq 'last_update_date'\">",
-      "     ORDER BY G.${parameters.sortField}",
-      "      <if test=\"parameters.sortType eq 'asc' || parameters.sortType eq 'desc'\">",
-      "          ${parameters.sortType}",
-      "      </if>",
-      " </if>",
-      ") AS subquery",
+      "      <if test=\"tags!=null\">",
+      "         <bind name='tagCount' value='tags.size()'/>",
+      "         AND G.gift_certificate_id IN (",
+      "             SELECT TG.gift_certificate_id FROM tag_gift_certificate TG JOIN tag T ON TG.tag_id=T.tag_id",
+      "             WHERE T.active_name IN",
+      "             <foreach item='item' index='index' collection='tags' open='(' separator=',' close=')'>",
+      "                 #{item}",
+      "             </foreach>",
+      "             GROUP BY TG.gift_certificate_id HAVING COUNT(DISTINCT TG.tag_id) = #{tagCount})",
+      "      </if>",
+      "      <if test=\"parameters.searchValue!=null\">",
+      "         AND (G.name LIKE CONCAT('%', #{parameters.searchValue},'%')",
+      "         OR G.description LIKE CONCAT('%', #{parameters.searchValue},'%'))",
+      "      </if>",
+      "      <if test=\"parameters.minPrice!=null\">",
+      "         AND G.price &gt;= #{parameters.minPrice} ",
+      "      </if>",
+      "      <if test=\"parameters.maxPrice!=null\">",
+      "         AND G.price &lt;= #{parameters.maxPrice} ",
+      "      </if>",
+      "</where>",
+      "ORDER BY G.gift_certificate_id FOR UPDATE",
       "</script>"})
-  int getCountOfSuitableRecordsOfFindByCriteria(List<String> tags, Map<String, String> parameters);
+  List<Long> selectIdsByCriteriaForUpdate(List<String> tags, Map<String, String> parameters, Collection<Long> ids);
+
+  @Select("SELECT gift_certificate_id, name, description FROM gift_certificate WHERE deleted = 0")
+  @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+  @ResultType(GiftCertificate.class)
+  @Results({
+      @Result(property = "id", column = "gift_certificate_id"),
+      @Result(property = "name", column = "name"),
+      @Result(property = "description", column = "description"),
+  })
+  void selectAllTexts(ResultHandler<GiftCertificate> resultHandler);
+
+  @Select("SELECT gift_certificate_id, name, description, version FROM gift_certificate "
+      + "WHERE last_update_date >= #{since} AND deleted = 0")
+  @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+  @ResultType(GiftCertificate.class)
+  @Results({
+      @Result(property = "id", column = "gift_certificate_id"),
+      @Result(property = "name", column = "name"),
+      @Result(property = "description", column = "description"),
+      @Result(property = "version", column = "version"),
+  })
+  void selectTextsChangedSince(@Param("since") LocalDateTime since, ResultHandler<GiftCertificate> resultHandler);
+
+  @Select("SELECT CURRENT_TIMESTAMP")
+  LocalDateTime selectCurrentDate();
+
+  @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() "
+      + "AND TABLE_NAME = 'gift_certificate'")
+  Integer selectEstimatedCount();
 
   @Select("SELECT G.gift_certificate_id, G.name, G.description, G.price, G.create_date, G.last_update_date, "
-      + "G.duration FROM gift_certificate G JOIN purchase p ON g.gift_certificate_id=p.gift_certificate_id "
-      + "JOIN user u ON p.user_id=u.user_id WHERE u.user_id=#{userId}")
+      + "G.duration, G.version FROM gift_certificate G "
+      + "JOIN purchase p ON g.gift_certificate_id=p.gift_certificate_id "
+      + "JOIN user u ON p.user_id=u.user_id WHERE u.user_id=#{userId} AND G.deleted = 0")
   @Results({
       @Result(property = "id", column = "gift_certificate_id"),
       @Result(property = "name", column = "name"),
@@ -195,6 +377,7 @@ public interface GiftCertificateMapper {
       @Result(property = "createDate", column = "create_date"),
       @Result(property = "lastUpdateDate", column = "last_update_date"),
       @Result(property = "duration", column = "duration"),
+      @Result(property = "version", column = "version"),
   })
   List<GiftCertificate> selectByUserId(Long userId, RowBounds rowBounds);
 }
\ No newline at end of file
@@ -16,10 +16,12 @@ public interface PurchaseMapper {
 
   @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "purchase_id")
   @Insert("INSERT INTO purchase(user_id, gift_certificate_id, cost ) VALUES(#{userId},#{giftCertificateId}, (SELECT "
-      + "price FROM gift_certificate WHERE gift_certificate_id=#{giftCertificateId}))")
+      + "price FROM gift_certificate WHERE gift_certificate_id=#{giftCertificateId} AND deleted = 0))")
   void insert(Purchase purchase);
 
-  @Select("SELECT purchase_id, user_id, gift_certificate_id, cost, purchase_date FROM purchase WHERE purchase_id = #{id}")
+  @Select("SELECT P.purchase_id, P.user_id, G.gift_certificate_id, P.cost, P.purchase_date FROM purchase P "
+      + "LEFT JOIN gift_certificate G ON P.gift_certificate_id=G.gift_certificate_id AND G.deleted = 0 "
+      + "WHERE P.purchase_id = #{id}")
   @Results({
       @Result(property = "id", column = "purchase_id"),
       @Result(property = "userId", column = "user_id"),
@@ -29,8 +31,9 @@ public interface PurchaseMapper {
   })
   Optional<Purchase> selectById(Long id);
 
-  @Select("SELECT purchase_id, user_id, gift_certificate_id, cost, purchase_date FROM purchase WHERE user_id = "
-      + "#{userId}")
+  @Select("SELECT P.purchase_id, P.user_id, G.gift_certificate_id, P.cost, P.purchase_date FROM purchase P "
+      + "LEFT JOIN gift_certificate G ON P.gift_certificate_id=G.gift_certificate_id AND G.deleted = 0 "
+      + "WHERE P.user_id = #{userId}")
   @Results({
       @Result(property = "id", column = "purchase_id"),
       @Result(property = "userId", column = "user_id"),
@@ -1,17 +1,24 @@
 package com.epam.esm.mapper;
 
 import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
+import com.epam.esm.model.TagNameMatch;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 
@@ -22,69 +29,150 @@ public interface TagMapper {
   @Insert("INSERT INTO tag(name) VALUES(#{name})")
   void insert(Tag tag);
 
-  @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "tag_id")
   @Insert({
       "<script>",
       "INSERT INTO tag (name) VALUES ",
-      "      <foreach item='item' index='index' collection='tags' separator=','>",
-      "        (#{item.name})",
+      "      <foreach item='name' collection='names' separator=','>",
+      "        (#{name})",
       "      </foreach>",
+      "ON DUPLICATE KEY UPDATE tag_id = tag_id",
       "</script>"})
-  void insertSet(@Param("tags") Set<Tag> tags);
+  int insertMissing(@Param("names") Collection<String> names);
 
-  @Select("SELECT tag_id, name FROM tag WHERE tag_id = #{id}")
+  @Select("SELECT tag_id, name FROM tag WHERE tag_id = #{id} AND deleted = 0")
   @Results({
       @Result(property = "id", column = "tag_id"),
       @Result(property = "name", column = "name"),
   })
   Optional<Tag> selectById(Long id);
 
-  @Select("SELECT tag_id, name FROM tag")
+  @Select("SELECT tag_id, name FROM tag WHERE deleted = 0")
   @Results({
       @Result(property = "id", column = "tag_id"),
       @Result(property = "name", column = "name"),
   })
   List<Tag> selectAll(RowBounds rowBounds);
 
-  @Select({
-      "<script>",
-      "SELECT T.tag_id FROM tag T ",
-      "JOIN tag_gift_certificate TG ON T.tag_id=TG.tag_id ",
-      "WHERE ",
-      "      <foreach item='item' index='index' collection='tagIdSet' open='(' separator=' OR ' close=')'>",
-      "         TG.tag_id = #{item} and TG.gift_certificate_id = #{certificateId}",
-      "      </foreach>",
-      "</script>"})
-  List<Long> selectTagIdListByTagIdSetAndCertificateId(@Param("tagIdSet") Set<Long> tagIdSet, Long certificateId);
-
   @Select("SELECT T.tag_id, T.name FROM tag T JOIN tag_gift_certificate TG ON T.tag_id=TG.tag_id WHERE TG"
-      + ".gift_certificate_id = #{certificateId}")
+      + ".gift_certificate_id = #{certificateId} AND T.deleted = 0")
   @Results({
       @Result(property = "id", column = "tag_id"),
       @Result(property = "name", column = "name"),
   })
   List<Tag> selectByCertificateId(Long certificateId);
 
+  // the tags of the certificate come with no requested name, followed by the tags of the certificate matching every
+  // requested name; names are compared by the column collation, so a name differing from the stored one in case or
+  // accents matches
+  @Select({"<script>",
+      "SELECT NULL AS requested_name, T.tag_id, T.name FROM tag T JOIN tag_gift_certificate TG ON T.tag_id=TG.tag_id",
+      "WHERE TG.gift_certificate_id = #{certificateId} AND T.deleted = 0",
+      "<foreach item='name' collection='names'>",
+      "  UNION ALL SELECT #{name}, T.tag_id, T.name FROM tag T JOIN tag_gift_certificate TG ON T.tag_id=TG.tag_id",
+      "  WHERE TG.gift_certificate_id = #{certificateId} AND T.active_name = #{name}",
+      "</foreach>",
+      "</script>"})
+  @Results({
+      @Result(property = "requestedName", column = "requested_name"),
+      @Result(property = "tagId", column = "tag_id"),
+      @Result(property = "tagName", column = "name"),
+  })
+  List<TagNameMatch> selectByCertificateIdMatchingNames(@Param("certificateId") Long certificateId,
+      @Param("names") Collection<String> names);
+
+  @Select({"<script>",
+      "SELECT TG.gift_certificate_id, T.tag_id, T.name FROM tag_gift_certificate TG JOIN tag T ON TG.tag_id=T.tag_id",
+      "WHERE T.deleted = 0 AND TG.gift_certificate_id IN",
+      "<foreach item='certificateId' collection='certificateIds' open='(' separator=',' close=')'>",
+      "   #{certificateId}",
+      "</foreach>",
+      "</script>"})
+  @Results({
+      @Result(property = "giftCertificateId", column = "gift_certificate_id"),
+      @Result(property = "tagId", column = "tag_id"),
+      @Result(property = "tagName", column = "name"),
+  })
+  List<TagGiftCertificate> selectByCertificateIds(Collection<Long> certificateIds);
+
+  @Select("SELECT TG.gift_certificate_id, T.tag_id, T.name FROM tag_gift_certificate TG "
+      + "JOIN tag T ON TG.tag_id=T.tag_id AND T.deleted = 0 "
+      + "JOIN gift_certificate G ON TG.gift_certificate_id=G.gift_certificate_id AND G.deleted = 0")
+  @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+  @ResultType(TagGiftCertificate.class)
+  @Results({
+      @Result(property = "giftCertificateId", column = "gift_certificate_id"),
+      @Result(property = "tagId", column = "tag_id"),
+      @Result(property = "tagName", column = "name"),
+  })
+  void selectAllAssociations(ResultHandler<TagGiftCertificate> resultHandler);
+
+  // every certificate changed at or after the date is returned, ordered by id; a certificate without active tags or
+  // marked deleted is returned in one row without tag
+  @Select("SELECT G.gift_certificate_id, T.tag_id, T.name FROM gift_certificate G "
+      + "LEFT JOIN tag_gift_certificate TG ON G.gift_certificate_id=TG.gift_certificate_id AND G.deleted = 0 "
+      + "LEFT JOIN tag T ON TG.tag_id=T.tag_id AND T.deleted = 0 "
+      + "WHERE G.last_update_date >= #{since} ORDER BY G.gift_certificate_id")
+  @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+  @ResultType(TagGiftCertificate.class)
+  @Results({
+      @Result(property = "giftCertificateId", column = "gift_certificate_id"),
+      @Result(property = "tagId", column = "tag_id"),
+      @Result(property = "tagName", column = "name"),
+  })
+  void selectAssociationsChangedSince(@Param("since") LocalDateTime since,
+      ResultHandler<TagGiftCertificate> resultHandler);
+
+  @Select("SELECT tag_id FROM tag WHERE deleted = 0")
+  List<Long> selectActiveIds();
+
+  @Select({
+      "<script>",
+      "SELECT tag_id FROM tag WHERE deleted = 0 AND tag_id IN ",
+      "      <foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+      "          #{id}",
+      "      </foreach>",
+      "LOCK IN SHARE MODE",
+      "</script>"})
+  List<Long> selectActiveIdsForShare(@Param("ids") Collection<Long> ids);
+
+  // every requested name is compared by the column collation and returned with the tag it matches, names differing
+  // in case or accents from the stored one included
   @Select({
       "<script>",
-      "SELECT DISTINCT tag_id, name FROM tag WHERE ",
-      "      <foreach item='item' index='index' collection='names' separator=' OR ' >",
-      "          name = #{item} ",
+      "      <foreach item='name' collection='names' separator=' UNION ALL '>",
+      "        (SELECT #{name} AS requested_name, tag_id, name FROM tag WHERE active_name = #{name}",
+      "        LOCK IN SHARE MODE)",
       "      </foreach>",
       "</script>"})
   @Results({
-      @Result(property = "id", column = "tag_id"),
-      @Result(property = "name", column = "name"),
+      @Result(property = "requestedName", column = "requested_name"),
+      @Result(property = "tagId", column = "tag_id"),
+      @Result(property = "tagName", column = "name"),
   })
-  List<Tag> selectByNames(@Param("names") List<String> names);
+  List<TagNameMatch> selectByNamesForShare(@Param("names") Collection<String> names);
 
-  @Delete("DELETE FROM tag WHERE tag_id = #{tagId}")
+  @Delete("DELETE FROM tag WHERE tag_id = #{tagId} AND deleted = 0")
   int deleteById(Long tagId);
 
+  // the unique name key is on active_name, the name of a tag not marked deleted, so a marked tag frees its name for a
+  // new tag at once; tags are looked up by active_name to use the key
+  @Update("UPDATE tag SET deleted = 1 WHERE tag_id = #{tagId} AND deleted = 0")
+  int markDeleted(Long tagId);
+
+  @Select("SELECT COUNT(*) FROM tag_gift_certificate WHERE tag_id = #{tagId}")
+  int countAssociations(Long tagId);
+
+  @Delete("DELETE FROM tag_gift_certificate WHERE tag_id = #{tagId} LIMIT #{limit}")
+  int deleteAssociativeRecords(Long tagId, int limit);
+
+  @Delete("DELETE FROM tag WHERE tag_id = #{tagId} AND deleted = 1")
+  int deleteMarked(Long tagId);
+
   @Select("SELECT t.tag_id, t.name FROM tag T WHERE t.tag_id = ("
       + "       SELECT tg.tag_id FROM purchase p "
-      + "       join gift_certificate g ON p.gift_certificate_id=g.gift_certificate_id "
+      + "       join gift_certificate g ON p.gift_certificate_id=g.gift_certificate_id AND g.deleted = 0 "
       + "       join tag_gift_certificate tg ON g.gift_certificate_id=tg.gift_certificate_id "
+      + "       join tag dt ON tg.tag_id=dt.tag_id AND dt.deleted = 0 "
       + "       WHERE p.user_id = ("
       + "                   SELECT p.user_id FROM purchase p "
       + "                   group by p.user_id "
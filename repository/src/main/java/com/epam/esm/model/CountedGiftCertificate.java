@@ -0,0 +1,56 @@
+package com.epam.esm.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+
+public class CountedGiftCertificate extends GiftCertificate {
+
+  private Integer totalCount;
+
+  public CountedGiftCertificate() {
+  }
+
+  public CountedGiftCertificate(Long id, String name, String description, BigDecimal price, LocalDateTime createDate,
+      LocalDateTime lastUpdateDate, Integer duration, Integer totalCount) {
+    super(id, name, description, price, createDate, lastUpdateDate, duration);
+    this.totalCount = totalCount;
+  }
+
+  public Integer getTotalCount() {
+    return totalCount;
+  }
+
+  public void setTotalCount(Integer totalCount) {
+    this.totalCount = totalCount;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    CountedGiftCertificate that = (CountedGiftCertificate) o;
+    return Objects.equals(totalCount, that.totalCount);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), totalCount);
+  }
+
+  @Override
+  public String toString() {
+    return "CountedGiftCertificate{" +
+        "totalCount=" + totalCount +
+        ", giftCertificate=" + super.toString() +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.epam.esm.model;
+
+public enum DeletionEntityType {
+  TAG, CERTIFICATE
+}
\ No newline at end of file
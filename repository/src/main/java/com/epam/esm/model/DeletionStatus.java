@@ -0,0 +1,5 @@
+package com.epam.esm.model;
+
+public enum DeletionStatus {
+  PENDING, COMPLETED
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.epam.esm.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+
+public class DeletionTask {
+
+  private Long id;
+  private DeletionEntityType entityType;
+  private Long entityId;
+  private DeletionStatus status;
+  private Integer totalCount;
+  private Integer processedCount;
+  private LocalDateTime createDate;
+  private LocalDateTime lastUpdateDate;
+
+  public DeletionTask() {
+  }
+
+  public DeletionTask(DeletionEntityType entityType, Long entityId, Integer totalCount) {
+    this.entityType = entityType;
+    this.entityId = entityId;
+    this.status = DeletionStatus.PENDING;
+    this.totalCount = totalCount;
+    this.processedCount = 0;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public DeletionEntityType getEntityType() {
+    return entityType;
+  }
+
+  public void setEntityType(DeletionEntityType entityType) {
+    this.entityType = entityType;
+  }
+
+  public Long getEntityId() {
+    return entityId;
+  }
+
+  public void setEntityId(Long entityId) {
+    this.entityId = entityId;
+  }
+
+  public DeletionStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(DeletionStatus status) {
+    this.status = status;
+  }
+
+  public Integer getTotalCount() {
+    return totalCount;
+  }
+
+  public void setTotalCount(Integer totalCount) {
+    this.totalCount = totalCount;
+  }
+
+  public Integer getProcessedCount() {
+    return processedCount;
+  }
+
+  public void setProcessedCount(Integer processedCount) {
+    this.processedCount = processedCount;
+  }
+
+  public LocalDateTime getCreateDate() {
+    return createDate;
+  }
+
+  public void setCreateDate(LocalDateTime createDate) {
+    this.createDate = createDate;
+  }
+
+  public LocalDateTime getLastUpdateDate() {
+    return lastUpdateDate;
+  }
+
+  public void setLastUpdateDate(LocalDateTime lastUpdateDate) {
+    this.lastUpdateDate = lastUpdateDate;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DeletionTask that = (DeletionTask) o;
+    return Objects.equals(id, that.id) &&
+        entityType == that.entityType &&
+        Objects.equals(entityId, that.entityId) &&
+        status == that.status &&
+        Objects.equals(totalCount, that.totalCount) &&
+        Objects.equals(processedCount, that.processedCount);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, entityType, entityId, status, totalCount, processedCount);
+  }
+
+  @Override
+  public String toString() {
+    return "DeletionTask{" +
+        "id=" + id +
+        ", entityType=" + entityType +
+        ", entityId=" + entityId +
+        ", status=" + status +
+        ", totalCount=" + totalCount +
+        ", processedCount=" + processedCount +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.epam.esm.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+public class FileCheckpoint {
+
+  private Long recordCount;
+  private Long byteOffset;
+  private byte[] contentHash;
+
+  public FileCheckpoint() {
+  }
+
+  public FileCheckpoint(Long recordCount, Long byteOffset, byte[] contentHash) {
+    this.recordCount = recordCount;
+    this.byteOffset = byteOffset;
+    this.contentHash = contentHash;
+  }
+
+  public Long getRecordCount() {
+    return recordCount;
+  }
+
+  public void setRecordCount(Long recordCount) {
+    this.recordCount = recordCount;
+  }
+
+  public Long getByteOffset() {
+    return byteOffset;
+  }
+
+  public void setByteOffset(Long byteOffset) {
+    this.byteOffset = byteOffset;
+  }
+
+  public byte[] getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(byte[] contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FileCheckpoint that = (FileCheckpoint) o;
+    return Objects.equals(recordCount, that.recordCount) &&
+        Objects.equals(byteOffset, that.byteOffset) &&
+        Arrays.equals(contentHash, that.contentHash);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hash(recordCount, byteOffset) + Arrays.hashCode(contentHash);
+  }
+
+  @Override
+  public String toString() {
+    return "FileCheckpoint{" +
+        "recordCount=" + recordCount +
+        ", byteOffset=" + byteOffset +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.epam.esm.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+public class FileLease {
+
+  private byte[] pathHash;
+  private String path;
+
+  public FileLease() {
+  }
+
+  public FileLease(byte[] pathHash, String path) {
+    this.pathHash = pathHash;
+    this.path = path;
+  }
+
+  public byte[] getPathHash() {
+    return pathHash;
+  }
+
+  public void setPathHash(byte[] pathHash) {
+    this.pathHash = pathHash;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FileLease that = (FileLease) o;
+    return Arrays.equals(pathHash, that.pathHash) &&
+        Objects.equals(path, that.path);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hash(path) + Arrays.hashCode(pathHash);
+  }
+
+  @Override
+  public String toString() {
+    return "FileLease{" +
+        "path='" + path + '\'' +
+        '}';
+  }
+}
\ No newline at end of file
@@ -14,6 +14,7 @@ public class GiftCertificate {
   private LocalDateTime createDate;
   private LocalDateTime lastUpdateDate;
   private Integer duration;
+  private Long version;
 
   public GiftCertificate() {
   }
@@ -92,6 +93,14 @@ public class GiftCertificate {
     this.duration = duration;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -107,12 +116,13 @@ public class GiftCertificate {
         Objects.equals(price, that.price) &&
         Objects.equals(createDate, that.createDate) &&
         Objects.equals(lastUpdateDate, that.lastUpdateDate) &&
-        Objects.equals(duration, that.duration);
+        Objects.equals(duration, that.duration) &&
+        Objects.equals(version, that.version);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, name, description, price, createDate, lastUpdateDate, duration);
+    return Objects.hash(id, name, description, price, createDate, lastUpdateDate, duration, version);
   }
 
   @Override
@@ -125,6 +135,7 @@ public class GiftCertificate {
         ", createDate=" + createDate +
         ", lastUpdateDate=" + lastUpdateDate +
         ", duration=" + duration +
+        ", version=" + version +
         '}';
   }
 }
\ No newline at end of file
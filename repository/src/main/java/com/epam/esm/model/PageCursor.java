@@ -0,0 +1,60 @@
+package com.epam.esm.model;
+
+import java.util.Objects;
+
+
+public class PageCursor {
+
+  private Object sortValue;
+  private Long id;
+
+  public PageCursor() {
+  }
+
+  public PageCursor(Object sortValue, Long id) {
+    this.sortValue = sortValue;
+    this.id = id;
+  }
+
+  public Object getSortValue() {
+    return sortValue;
+  }
+
+  public void setSortValue(Object sortValue) {
+    this.sortValue = sortValue;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PageCursor that = (PageCursor) o;
+    return Objects.equals(sortValue, that.sortValue) &&
+        Objects.equals(id, that.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sortValue, id);
+  }
+
+  @Override
+  public String toString() {
+    return "PageCursor{" +
+        "sortValue=" + sortValue +
+        ", id=" + id +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.epam.esm.model;
+
+import java.util.Objects;
+
+
+public class TagGiftCertificate {
+
+  private Long giftCertificateId;
+  private Long tagId;
+  private String tagName;
+
+  public TagGiftCertificate() {
+  }
+
+  public TagGiftCertificate(Long giftCertificateId, Long tagId, String tagName) {
+    this.giftCertificateId = giftCertificateId;
+    this.tagId = tagId;
+    this.tagName = tagName;
+  }
+
+  public Long getGiftCertificateId() {
+    return giftCertificateId;
+  }
+
+  public void setGiftCertificateId(Long giftCertificateId) {
+    this.giftCertificateId = giftCertificateId;
+  }
+
+  public Long getTagId() {
+    return tagId;
+  }
+
+  public void setTagId(Long tagId) {
+    this.tagId = tagId;
+  }
+
+  public String getTagName() {
+    return tagName;
+  }
+
+  public void setTagName(String tagName) {
+    this.tagName = tagName;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TagGiftCertificate that = (TagGiftCertificate) o;
+    return Objects.equals(giftCertificateId, that.giftCertificateId) &&
+        Objects.equals(tagId, that.tagId) &&
+        Objects.equals(tagName, that.tagName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(giftCertificateId, tagId, tagName);
+  }
+
+  @Override
+  public String toString() {
+    return "TagGiftCertificate{" +
+        "giftCertificateId=" + giftCertificateId +
+        ", tagId=" + tagId +
+        ", tagName='" + tagName + '\'' +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.epam.esm.model;
+
+import java.util.Objects;
+
+
+public class TagNameMatch {
+
+  private String requestedName;
+  private Long tagId;
+  private String tagName;
+
+  public TagNameMatch() {
+  }
+
+  public TagNameMatch(String requestedName, Long tagId, String tagName) {
+    this.requestedName = requestedName;
+    this.tagId = tagId;
+    this.tagName = tagName;
+  }
+
+  public String getRequestedName() {
+    return requestedName;
+  }
+
+  public void setRequestedName(String requestedName) {
+    this.requestedName = requestedName;
+  }
+
+  public Long getTagId() {
+    return tagId;
+  }
+
+  public void setTagId(Long tagId) {
+    this.tagId = tagId;
+  }
+
+  public String getTagName() {
+    return tagName;
+  }
+
+  public void setTagName(String tagName) {
+    this.tagName = tagName;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TagNameMatch that = (TagNameMatch) o;
+    return Objects.equals(requestedName, that.requestedName) &&
+        Objects.equals(tagId, that.tagId) &&
+        Objects.equals(tagName, that.tagName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(requestedName, tagId, tagName);
+  }
+
+  @Override
+  public String toString() {
+    return "TagNameMatch{" +
+        "requestedName='" + requestedName + '\'' +
+        ", tagId=" + tagId +
+        ", tagName='" + tagName + '\'' +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.epam.esm.batch;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveChunkSizeTest {
+
+  private static final int MIN_CHUNK_SIZE = 50;
+  private static final int MAX_CHUNK_SIZE = 5000;
+  private static final long TARGET_LATENCY_NANOS = 200_000_000;
+  private static final long MILLISECOND_NANOS = 1_000_000;
+  private AdaptiveChunkSize chunkSize;
+
+  @Before
+  public void setUp() {
+    chunkSize = new AdaptiveChunkSize(MIN_CHUNK_SIZE, MAX_CHUNK_SIZE, TARGET_LATENCY_NANOS);
+  }
+
+  @Test
+  public void getTestNewChunkSizeIsMinChunkSize() {
+    Assert.assertEquals(MIN_CHUNK_SIZE, chunkSize.get());
+  }
+
+  @Test
+  public void adaptTestChunkSizeMovesHalfwayToSizeMeetingTargetLatency() {
+    Assert.assertEquals(125, chunkSize.adapt(50, 50 * MILLISECOND_NANOS));
+    Assert.assertEquals(125, chunkSize.get());
+  }
+
+  @Test
+  public void adaptTestFastFlushDoesNotExceedMaxChunkSize() {
+    Assert.assertEquals(2525, chunkSize.adapt(50, 0));
+    for (int i = 0; i < 20; i++) {
+      chunkSize.adapt(chunkSize.get(), 0);
+    }
+    Assert.assertTrue(chunkSize.get() <= MAX_CHUNK_SIZE);
+    Assert.assertTrue(chunkSize.get() > MAX_CHUNK_SIZE - 2);
+  }
+
+  @Test
+  public void adaptTestSlowFlushesShrinkChunkSizeToMinChunkSize() {
+    chunkSize.adapt(50, 0);
+    Assert.assertEquals(1287, chunkSize.adapt(100, 10_000 * MILLISECOND_NANOS));
+    for (int i = 0; i < 20; i++) {
+      chunkSize.adapt(chunkSize.get(), 10_000 * MILLISECOND_NANOS);
+    }
+    Assert.assertEquals(MIN_CHUNK_SIZE, chunkSize.get());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.epam.esm.batch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class BatchExecutorTest {
+
+  private static final List<String> ITEMS = Arrays.asList("a", "b", "c", "d");
+  private SqlSession session;
+  private ValueMapper mapper;
+  private BatchExecutor batchExecutor;
+
+  @Before
+  public void setUp() {
+    Configuration configuration = new Configuration(
+        new Environment("test", new JdbcTransactionFactory(), mock(DataSource.class)));
+    configuration.addMapper(ValueMapper.class);
+    SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+    session = mock(SqlSession.class);
+    when(sqlSessionFactory.getConfiguration()).thenReturn(configuration);
+    when(sqlSessionFactory.openSession(ExecutorType.BATCH)).thenReturn(session);
+    mapper = mock(ValueMapper.class);
+    when(session.getMapper(ValueMapper.class)).thenReturn(mapper);
+    // every flush is far below the target latency, so the chunk size grows from 2 to 51 after the first flush
+    batchExecutor = new BatchExecutor(sqlSessionFactory, mock(PlatformTransactionManager.class), 2, 100, 1_000_000);
+  }
+
+  @Test
+  public void executeTestEveryStatementHasItsOwnChunkSize() {
+    batchExecutor.execute(ValueMapper.class, "insert", ITEMS, ValueMapper::insert);
+    verify(session, times(2)).flushStatements();
+    batchExecutor.execute(ValueMapper.class, "insertOther", ITEMS, ValueMapper::insertOther);
+    verify(session, times(4)).flushStatements();
+    batchExecutor.execute(ValueMapper.class, "insert", ITEMS, (m, i) -> m.insert(i));
+    verify(session, times(5)).flushStatements();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void executeTestUnknownStatementNameThrowsException() {
+    batchExecutor.execute(ValueMapper.class, "update", ITEMS, ValueMapper::insert);
+  }
+
+  @Test
+  public void executeTestEmptyItemsAreNotFlushed() {
+    batchExecutor.execute(ValueMapper.class, "insert", Collections.emptyList(), ValueMapper::insert);
+    verify(session, never()).flushStatements();
+    verify(session, never()).getMapper(any());
+  }
+
+  @Test
+  public void executeOnceTestStatementsAreFlushedTogether() {
+    List<BatchResult> results = Arrays.asList(new BatchResult(null, null), new BatchResult(null, null));
+    when(session.flushStatements()).thenReturn(results);
+    Assert.assertSame(results, batchExecutor.executeOnce(ValueMapper.class, m -> {
+      m.insert("a");
+      m.insertOther("b");
+    }));
+    verify(mapper).insert("a");
+    verify(mapper).insertOther("b");
+    verify(session).flushStatements();
+  }
+
+  interface ValueMapper {
+
+    @Insert("INSERT INTO value(value) VALUES(#{value})")
+    void insert(String value);
+
+    @Insert("INSERT INTO other_value(value) VALUES(#{value})")
+    void insertOther(String value);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.epam.esm.cache;
+
+import com.epam.esm.dto.CacheStatisticsDto;
+import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Certificate cache. Size bounded read-through cache of certificates with tags by certificate id. Caffeine
+ * admits and evicts entries by access frequency, so a scan over rarely requested certificates does not evict the
+ * popular ones. Entries are invalidated by id after changes of the certificate are committed. Ids of certificates
+ * which were not found are remembered for a short time, so repeated requests of a missing certificate do not reach the
+ * database; they are forgotten when certificates are created. Cached certificates are mutable, so every caller gets
+ * its own copies.
+ */
+@Component
+public class CertificateCache implements MonitoredCache {
+
+  private static final String CACHE_NAME = "certificate";
+  private final Cache<Long, GiftCertificateWithTagsDto> cache;
+  private final Cache<Long, Boolean> missingIds;
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicLong missingVersion = new AtomicLong();
+  private final boolean enabled;
+
+  /**
+   * Instantiates a new Certificate cache.
+   *
+   * @param enabled       true if the certificates have to be cached
+   * @param maximumSize   the maximum number of cached certificates
+   * @param missingIdsTtl the time to live of remembered missing certificate ids in seconds, 0 disables it
+   */
+  public CertificateCache(@Value("${certificate.cache.enabled:true}") boolean enabled,
+      @Value("${certificate.cache.size:10000}") long maximumSize,
+      @Value("${certificate.cache.missing.ttl:10}") long missingIdsTtl) {
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    this.missingIds = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(missingIdsTtl, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * Get certificate, returns cached certificate or the certificate loaded and cached by the loader.
+   *
+   * @param id     the certificate id
+   * @param loader the certificate loader
+   * @return the certificate with tags
+   */
+  public GiftCertificateWithTagsDto get(Long id, Function<Long, GiftCertificateWithTagsDto> loader) {
+    return enabled ? new GiftCertificateWithTagsDto(cache.get(id, loader)) : loader.apply(id);
+  }
+
+  /**
+   * Get all certificates, returns cached certificates and certificates loaded by the loader in order of the ids.
+   * Certificates not found by the loader are skipped.
+   *
+   * @param ids    the certificate ids
+   * @param loader the loader of certificates by ids
+   * @return the certificates with tags
+   */
+  public List<GiftCertificateWithTagsDto> getAll(List<Long> ids,
+      Function<List<Long>, Map<Long, GiftCertificateWithTagsDto>> loader) {
+    if (!enabled) {
+      return collectInOrder(ids, loader.apply(ids));
+    }
+    long readVersion = version.get();
+    Map<Long, GiftCertificateWithTagsDto> certificates = new HashMap<>(cache.getAllPresent(ids));
+    List<Long> missingIds = ids.stream().filter(id -> !certificates.containsKey(id)).collect(Collectors.toList());
+    if (!missingIds.isEmpty()) {
+      Map<Long, GiftCertificateWithTagsDto> loadedCertificates = loader.apply(missingIds);
+      certificates.putAll(loadedCertificates);
+      if (readVersion == version.get()) {
+        cache.putAll(loadedCertificates);
+        if (readVersion != version.get()) {
+          cache.invalidateAll(loadedCertificates.keySet());
+        }
+      }
+    }
+    return collectInOrder(ids, certificates).stream().map(GiftCertificateWithTagsDto::new)
+        .collect(Collectors.toList());
+  }
+
+  private List<GiftCertificateWithTagsDto> collectInOrder(List<Long> ids,
+      Map<Long, GiftCertificateWithTagsDto> certificates) {
+    return ids.stream().map(certificates::get).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
+  /**
+   * Gets missing ids version, the version has to be read before loading a certificate and passed on saving its id as
+   * missing.
+   *
+   * @return the version
+   */
+  public long getMissingVersion() {
+    return missingVersion.get();
+  }
+
+  /**
+   * Is missing boolean, returns true if the certificate was recently not found.
+   *
+   * @param id the certificate id
+   * @return the boolean
+   */
+  public boolean isMissing(Long id) {
+    return enabled && missingIds.getIfPresent(id) != null;
+  }
+
+  /**
+   * Save missing certificate id unless certificates were created after the version was read.
+   *
+   * @param id          the certificate id
+   * @param readVersion the version read before loading
+   */
+  public void saveMissing(Long id, long readVersion) {
+    if (!enabled || readVersion != missingVersion.get()) {
+      return;
+    }
+    missingIds.put(id, Boolean.TRUE);
+    if (readVersion != missingVersion.get()) {
+      missingIds.invalidate(id);
+    }
+  }
+
+  /**
+   * Invalidate missing certificate ids, called after certificates are created.
+   */
+  public void invalidateMissing() {
+    missingVersion.incrementAndGet();
+    missingIds.invalidateAll();
+  }
+
+  /**
+   * Invalidate missing certificate ids after certificates are inserted from files.
+   */
+  @EventListener(CertificatesInsertedEvent.class)
+  public void onCertificatesInserted() {
+    invalidateMissing();
+  }
+
+  /**
+   * Invalidate cached certificate.
+   *
+   * @param id the certificate id
+   */
+  public void invalidate(Long id) {
+    version.incrementAndGet();
+    cache.invalidate(id);
+  }
+
+  /**
+   * Invalidate cached certificates.
+   *
+   * @param ids the certificate ids
+   */
+  public void invalidateAll(Collection<Long> ids) {
+    version.incrementAndGet();
+    cache.invalidateAll(ids);
+  }
+
+  /**
+   * Invalidate all cached certificates.
+   */
+  public void invalidateAll() {
+    version.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  @Override
+  public CacheStatisticsDto getStatistics() {
+    CacheStats stats = cache.stats();
+    return new CacheStatisticsDto(CACHE_NAME, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+        stats.evictionCount(), stats.hitRate());
+  }
+}
\ No newline at end of file
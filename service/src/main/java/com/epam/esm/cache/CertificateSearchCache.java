@@ -0,0 +1,126 @@
+package com.epam.esm.cache;
+
+import com.epam.esm.dto.CacheStatisticsDto;
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Certificate search cache. Bounded cache of certificate search results keyed by the canonical search
+ * parameters. Entries hold only ids of found certificates, so changed certificate fields are always read fresh and
+ * only entries which set or order of certificates may change are invalidated on writes.
+ */
+@Component
+public class CertificateSearchCache implements MonitoredCache {
+
+  private static final String CACHE_NAME = "certificateSearch";
+  private final Cache<CertificateSearchKey, CertificateSearchResult> cache;
+  private final AtomicLong version = new AtomicLong();
+
+  /**
+   * Instantiates a new Certificate search cache.
+   *
+   * @param maximumSize the maximum number of cached results
+   * @param timeToLive  the time to live of cached result in seconds
+   */
+  public CertificateSearchCache(@Value("${certificate.search.cache.size:1000}") long maximumSize,
+      @Value("${certificate.search.cache.ttl:300}") long timeToLive) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Gets version, the version has to be read before searching and passed on saving the found result.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Find search result, returns cached result or null.
+   *
+   * @param key the search key
+   * @return the search result
+   */
+  public CertificateSearchResult find(CertificateSearchKey key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Save search result unless the cache was invalidated after the version was read.
+   *
+   * @param key         the search key
+   * @param readVersion the version read before searching
+   * @param result      the search result
+   */
+  public void save(CertificateSearchKey key, long readVersion, CertificateSearchResult result) {
+    if (readVersion != version.get()) {
+      return;
+    }
+    cache.put(key, result);
+    if (readVersion != version.get()) {
+      cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Invalidate all results, called after certificates are created or deleted.
+   */
+  public void invalidateAll() {
+    version.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /**
+   * Invalidate results depending on fields of certificates, called after certificates are updated.
+   */
+  public void invalidateOnCertificateUpdate() {
+    invalidateIf(CertificateSearchKey::dependsOnCertificateFields);
+  }
+
+  /**
+   * Invalidate results depending on certificate prices, called after certificate price is updated.
+   */
+  public void invalidateOnPriceUpdate() {
+    invalidateIf(CertificateSearchKey::dependsOnPrice);
+  }
+
+  /**
+   * Invalidate results depending on tags, called after tags are deleted.
+   */
+  public void invalidateOnTagDelete() {
+    invalidateIf(CertificateSearchKey::dependsOnTags);
+  }
+
+  /**
+   * Invalidate all results after certificates are inserted by file processing.
+   */
+  @EventListener(CertificatesInsertedEvent.class)
+  public void onCertificatesInserted() {
+    invalidateAll();
+  }
+
+  private void invalidateIf(Predicate<CertificateSearchKey> isAffected) {
+    version.incrementAndGet();
+    cache.asMap().keySet().removeIf(isAffected);
+  }
+
+  @Override
+  public CacheStatisticsDto getStatistics() {
+    CacheStats stats = cache.stats();
+    return new CacheStatisticsDto(CACHE_NAME, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+        stats.evictionCount(), stats.hitRate());
+  }
+}
\ No newline at end of file
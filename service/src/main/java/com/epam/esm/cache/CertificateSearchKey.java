@@ -0,0 +1,118 @@
+package com.epam.esm.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The type Certificate search key. Canonical form of validated certificate search parameters.
+ */
+public class CertificateSearchKey {
+
+  private static final String SEARCH_VALUE_PARAMETER = "searchValue";
+  private static final String MIN_PRICE_PARAMETER = "minPrice";
+  private static final String MAX_PRICE_PARAMETER = "maxPrice";
+  private static final String SORT_FIELD_PARAMETER = "sortField";
+  private static final String SORT_TYPE_PARAMETER = "sortType";
+  private static final String CREATE_DATE_SORT_FIELD = "create_date";
+  private static final String LAST_UPDATE_DATE_SORT_FIELD = "last_update_date";
+  private final List<String> tagNames;
+  private final String searchValue;
+  private final String minPrice;
+  private final String maxPrice;
+  private final String sortField;
+  private final String sortType;
+  private final String after;
+  private final int offset;
+  private final int limit;
+
+  /**
+   * Instantiates a new Certificate search key.
+   *
+   * @param tagNames   the sorted normalized tag names or null
+   * @param parameters the validated request parameters
+   * @param after      the cursor token or null in page number mode
+   * @param offset     the offset
+   * @param limit      the limit
+   */
+  public CertificateSearchKey(List<String> tagNames, Map<String, String> parameters, String after, int offset,
+      int limit) {
+    this.tagNames = tagNames;
+    this.searchValue = parameters.get(SEARCH_VALUE_PARAMETER);
+    this.minPrice = parameters.get(MIN_PRICE_PARAMETER);
+    this.maxPrice = parameters.get(MAX_PRICE_PARAMETER);
+    this.sortField = parameters.get(SORT_FIELD_PARAMETER);
+    this.sortType = parameters.get(SORT_TYPE_PARAMETER);
+    this.after = after;
+    this.offset = offset;
+    this.limit = limit;
+  }
+
+  /**
+   * Depends on price boolean, returns true if the result may change when a certificate price is changed.
+   *
+   * @return the boolean
+   */
+  public boolean dependsOnPrice() {
+    return minPrice != null || maxPrice != null || LAST_UPDATE_DATE_SORT_FIELD.equals(sortField);
+  }
+
+  /**
+   * Depends on tags boolean, returns true if the result may change when tags are changed.
+   *
+   * @return the boolean
+   */
+  public boolean dependsOnTags() {
+    return tagNames != null;
+  }
+
+  /**
+   * Depends on certificate fields boolean, returns true if the result may change when any certificate field or tag
+   * is changed.
+   *
+   * @return the boolean
+   */
+  public boolean dependsOnCertificateFields() {
+    return dependsOnPrice() || dependsOnTags() || searchValue != null || !CREATE_DATE_SORT_FIELD.equals(sortField);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CertificateSearchKey that = (CertificateSearchKey) o;
+    return offset == that.offset &&
+        limit == that.limit &&
+        Objects.equals(tagNames, that.tagNames) &&
+        Objects.equals(searchValue, that.searchValue) &&
+        Objects.equals(minPrice, that.minPrice) &&
+        Objects.equals(maxPrice, that.maxPrice) &&
+        Objects.equals(sortField, that.sortField) &&
+        Objects.equals(sortType, that.sortType) &&
+        Objects.equals(after, that.after);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(tagNames, searchValue, minPrice, maxPrice, sortField, sortType, after, offset, limit);
+  }
+
+  @Override
+  public String toString() {
+    return "CertificateSearchKey{" +
+        "tagNames=" + tagNames +
+        ", searchValue='" + searchValue + '\'' +
+        ", minPrice='" + minPrice + '\'' +
+        ", maxPrice='" + maxPrice + '\'' +
+        ", sortField='" + sortField + '\'' +
+        ", sortType='" + sortType + '\'' +
+        ", after='" + after + '\'' +
+        ", offset=" + offset +
+        ", limit=" + limit +
+        '}';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.epam.esm.cache;
+
+import java.util.List;
+
+/**
+ * The type Certificate search result. Page of found certificate ids with the page metadata.
+ */
+public class CertificateSearchResult {
+
+  private final List<Long> certificateIds;
+  private final Integer pagesCount;
+  private final Boolean approximate;
+  private final String next;
+
+  /**
+   * Instantiates a new Certificate search result.
+   *
+   * @param certificateIds the ids of found certificates in page order
+   * @param pagesCount     the pages count
+   * @param approximate    the approximate pages count flag
+   * @param next           the next page cursor
+   */
+  public CertificateSearchResult(List<Long> certificateIds, Integer pagesCount, Boolean approximate, String next) {
+    this.certificateIds = certificateIds;
+    this.pagesCount = pagesCount;
+    this.approximate = approximate;
+    this.next = next;
+  }
+
+  public List<Long> getCertificateIds() {
+    return certificateIds;
+  }
+
+  public Integer getPagesCount() {
+    return pagesCount;
+  }
+
+  public Boolean getApproximate() {
+    return approximate;
+  }
+
+  public String getNext() {
+    return next;
+  }
+}
\ No newline at end of file
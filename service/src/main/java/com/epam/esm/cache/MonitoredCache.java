@@ -0,0 +1,16 @@
+package com.epam.esm.cache;
+
+import com.epam.esm.dto.CacheStatisticsDto;
+
+/**
+ * The interface Monitored cache. Caches implementing the interface expose their statistics to administrators.
+ */
+public interface MonitoredCache {
+
+  /**
+   * Gets statistics, returns current statistics of the cache.
+   *
+   * @return the cache statistics
+   */
+  CacheStatisticsDto getStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.epam.esm.cache;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * The type Single flight. Coalesces concurrent loads with equal keys: the first caller runs the loader in its own
+ * thread, callers arriving while the load is in flight wait for the same future and get its result or exception.
+ * Nothing is kept after the load completes, so the next caller starts a new load.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the loaded value
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+
+  /**
+   * Load value, runs the loader or waits for the load with the equal key which is already in flight.
+   *
+   * @param key    the key
+   * @param loader the loader
+   * @return the loaded value
+   */
+  public V load(K key, Function<K, V> loader) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(key, future);
+    if (inFlightLoad != null) {
+      return join(inFlightLoad);
+    }
+    try {
+      V value = loader.apply(key);
+      future.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightLoads.remove(key, future);
+    }
+  }
+
+  /**
+   * Gets the number of loads in flight.
+   *
+   * @return the number of loads
+   */
+  public int getInFlightCount() {
+    return inFlightLoads.size();
+  }
+
+  private V join(CompletableFuture<V> inFlightLoad) {
+    try {
+      return inFlightLoad.join();
+    } catch (CompletionException | CancellationException e) {
+      Throwable cause = e.getCause() == null ? e : e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.epam.esm.count;
+
+import com.epam.esm.event.CertificatesInsertedEvent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Cached certificate count strategy. Exact counts are kept per normalized criteria until the time to live
+ * expires or any certificate is changed.
+ */
+@Component
+@ConditionalOnProperty(
+    value = "certificate.count.strategy",
+    havingValue = "cached")
+public class CachedCertificateCountStrategy implements CertificateCountStrategy {
+
+  private static final int MAX_CACHED_COUNTS = 10000;
+  private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+  private final AtomicLong version = new AtomicLong();
+  private final long timeToLiveNanos;
+
+  /**
+   * Instantiates a new Cached certificate count strategy.
+   *
+   * @param timeToLive the time to live of cached count in seconds
+   */
+  public CachedCertificateCountStrategy(@Value("${certificate.count.cache.ttl:60}") long timeToLive) {
+    this.timeToLiveNanos = TimeUnit.SECONDS.toNanos(timeToLive);
+  }
+
+  @Override
+  public RecordsCount findCount(CountCriteria criteria) {
+    long currentVersion = version.get();
+    criteria.setVersion(currentVersion);
+    CachedCount cachedCount = counts.get(criteria.getKey());
+    if (cachedCount == null || cachedCount.version != currentVersion
+        || System.nanoTime() - cachedCount.createTime >= timeToLiveNanos) {
+      return null;
+    }
+    return new RecordsCount(cachedCount.count, false);
+  }
+
+  @Override
+  public void saveCount(CountCriteria criteria, int recordsCount) {
+    if (criteria.getVersion() != version.get()) {
+      return;
+    }
+    if (counts.size() >= MAX_CACHED_COUNTS) {
+      counts.clear();
+    }
+    counts.put(criteria.getKey(), new CachedCount(recordsCount, criteria.getVersion(), System.nanoTime()));
+  }
+
+  @Override
+  public void invalidate() {
+    version.incrementAndGet();
+    counts.clear();
+  }
+
+  /**
+   * Invalidate counts after certificates are inserted by file processing.
+   */
+  @EventListener(CertificatesInsertedEvent.class)
+  public void onCertificatesInserted() {
+    invalidate();
+  }
+
+  private static class CachedCount {
+
+    private final int count;
+    private final long version;
+    private final long createTime;
+
+    private CachedCount(int count, long version, long createTime) {
+      this.count = count;
+      this.version = version;
+      this.createTime = createTime;
+    }
+  }
+}
\ No newline at end of file
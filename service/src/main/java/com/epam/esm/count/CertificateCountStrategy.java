@@ -0,0 +1,32 @@
+package com.epam.esm.count;
+
+/**
+ * The interface Certificate count strategy. Decides how the total number of certificates matching the search
+ * criteria is obtained for the page-number pagination.
+ */
+public interface CertificateCountStrategy {
+
+  /**
+   * Find count, returns the records count known without counting in the page query, or null if the page query has
+   * to count the records exactly.
+   *
+   * @param criteria the count criteria
+   * @return the records count or null
+   */
+  RecordsCount findCount(CountCriteria criteria);
+
+  /**
+   * Save count counted exactly by the page query.
+   *
+   * @param criteria     the count criteria
+   * @param recordsCount the records count
+   */
+  default void saveCount(CountCriteria criteria, int recordsCount) {
+  }
+
+  /**
+   * Invalidate counts known by the strategy, called after the certificate data is changed.
+   */
+  default void invalidate() {
+  }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.epam.esm.count;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * The type Count criteria. Normalized certificate search criteria the records count depends on.
+ */
+public class CountCriteria {
+
+  private static final String SEARCH_VALUE_PARAMETER = "searchValue";
+  private static final String MIN_PRICE_PARAMETER = "minPrice";
+  private static final String MAX_PRICE_PARAMETER = "maxPrice";
+  private final List<String> tagNames;
+  private final RoaringBitmap taggedCertificateIds;
+  private final String searchValue;
+  private final String minPrice;
+  private final String maxPrice;
+  private long version;
+
+  /**
+   * Instantiates a new Count criteria.
+   *
+   * @param tagNames             the normalized tag names or null
+   * @param taggedCertificateIds the ids of certificates marked with all tags if resolved by the tag index or null
+   * @param parameters           the validated request parameters
+   */
+  public CountCriteria(List<String> tagNames, RoaringBitmap taggedCertificateIds, Map<String, String> parameters) {
+    this.tagNames = tagNames;
+    this.taggedCertificateIds = taggedCertificateIds;
+    this.searchValue = parameters.get(SEARCH_VALUE_PARAMETER);
+    this.minPrice = parameters.get(MIN_PRICE_PARAMETER);
+    this.maxPrice = parameters.get(MAX_PRICE_PARAMETER);
+  }
+
+  /**
+   * Has record filters boolean, returns true if the criteria filter certificates by their own fields.
+   *
+   * @return the boolean
+   */
+  public boolean hasRecordFilters() {
+    return searchValue != null || minPrice != null || maxPrice != null;
+  }
+
+  /**
+   * Gets key, returns the string uniquely identifying the criteria.
+   *
+   * @return the key
+   */
+  public String getKey() {
+    String tags = tagNames == null ? null : tagNames.stream().sorted().collect(Collectors.joining(","));
+    return String.join("\u0000", String.valueOf(tags), String.valueOf(searchValue), String.valueOf(minPrice),
+        String.valueOf(maxPrice));
+  }
+
+  public List<String> getTagNames() {
+    return tagNames;
+  }
+
+  public RoaringBitmap getTaggedCertificateIds() {
+    return taggedCertificateIds;
+  }
+
+  public String getSearchValue() {
+    return searchValue;
+  }
+
+  public String getMinPrice() {
+    return minPrice;
+  }
+
+  public String getMaxPrice() {
+    return maxPrice;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+}
\ No newline at end of file
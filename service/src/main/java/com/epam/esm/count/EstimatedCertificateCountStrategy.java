@@ -0,0 +1,45 @@
+package com.epam.esm.count;
+
+import com.epam.esm.mapper.GiftCertificateMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Estimated certificate count strategy. Counts of criteria without record filters are taken from the tag
+ * index or estimated from the table statistics, other criteria and tables without statistics are counted exactly.
+ */
+@Component
+@ConditionalOnProperty(
+    value = "certificate.count.strategy",
+    havingValue = "estimated")
+public class EstimatedCertificateCountStrategy implements CertificateCountStrategy {
+
+  private final GiftCertificateMapper giftCertificateMapper;
+
+  /**
+   * Instantiates a new Estimated certificate count strategy.
+   *
+   * @param giftCertificateMapper the gift certificate mapper
+   */
+  @Autowired
+  public EstimatedCertificateCountStrategy(GiftCertificateMapper giftCertificateMapper) {
+    this.giftCertificateMapper = giftCertificateMapper;
+  }
+
+  @Override
+  public RecordsCount findCount(CountCriteria criteria) {
+    if (criteria.hasRecordFilters()) {
+      return null;
+    }
+    if (criteria.getTaggedCertificateIds() != null) {
+      return new RecordsCount(criteria.getTaggedCertificateIds().getCardinality(), false);
+    }
+    if (criteria.getTagNames() != null) {
+      return null;
+    }
+    // statistics of a table never analyzed have no rows, the records are counted exactly until they are collected
+    Integer estimatedCount = giftCertificateMapper.selectEstimatedCount();
+    return estimatedCount == null || estimatedCount == 0 ? null : new RecordsCount(estimatedCount, true);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.epam.esm.count;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Exact certificate count strategy. Every page query counts the matching records.
+ */
+@Component
+@ConditionalOnProperty(
+    value = "certificate.count.strategy",
+    havingValue = "exact",
+    matchIfMissing = true)
+public class ExactCertificateCountStrategy implements CertificateCountStrategy {
+
+  @Override
+  public RecordsCount findCount(CountCriteria criteria) {
+    return null;
+  }
+}
\ No newline at end of file
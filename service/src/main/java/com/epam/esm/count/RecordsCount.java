@@ -0,0 +1,29 @@
+package com.epam.esm.count;
+
+/**
+ * The type Records count.
+ */
+public class RecordsCount {
+
+  private final int count;
+  private final boolean approximate;
+
+  /**
+   * Instantiates a new Records count.
+   *
+   * @param count       the count
+   * @param approximate true if the count is estimated
+   */
+  public RecordsCount(int count, boolean approximate) {
+    this.count = count;
+    this.approximate = approximate;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public boolean isApproximate() {
+    return approximate;
+  }
+}
\ No newline at end of file
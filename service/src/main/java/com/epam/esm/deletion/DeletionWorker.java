@@ -0,0 +1,145 @@
+package com.epam.esm.deletion;
+
+import com.epam.esm.mapper.DeletionTaskMapper;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.DeletionEntityType;
+import com.epam.esm.model.DeletionTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The type Deletion worker. Completes deferred deletions in the background. Deleted tags and certificates are hidden
+ * from reads as soon as they are marked, the worker then removes their tag associations and detaches purchases by
+ * small chunks. Every chunk is written in its own short transaction followed by a pause, so concurrent purchases wait
+ * for one chunk at most. The entity row is deleted once no references are left.
+ */
+@Component
+@ConditionalOnProperty(name = "deletion.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class DeletionWorker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeletionWorker.class);
+  private final DeletionTaskMapper deletionTaskMapper;
+  private final TagMapper tagMapper;
+  private final GiftCertificateMapper giftCertificateMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+  private final long chunkPause;
+  private final long delay;
+  private ScheduledExecutorService executor;
+
+  /**
+   * Instantiates a new Deletion worker.
+   *
+   * @param deletionTaskMapper    the deletion task mapper
+   * @param tagMapper             the tag mapper
+   * @param giftCertificateMapper the gift certificate mapper
+   * @param transactionManager    the transaction manager
+   * @param chunkSize             the max number of references removed by one transaction
+   * @param chunkPause            the pause after every chunk in milliseconds
+   * @param delay                 the delay between checks for pending tasks in milliseconds
+   */
+  @Autowired
+  public DeletionWorker(DeletionTaskMapper deletionTaskMapper, TagMapper tagMapper,
+      GiftCertificateMapper giftCertificateMapper, PlatformTransactionManager transactionManager,
+      @Value("${deletion.chunk-size:1000}") int chunkSize, @Value("${deletion.chunk-pause:100}") long chunkPause,
+      @Value("${deletion.worker.delay:5000}") long delay) {
+    this.deletionTaskMapper = deletionTaskMapper;
+    this.tagMapper = tagMapper;
+    this.giftCertificateMapper = giftCertificateMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+    this.chunkPause = chunkPause;
+    this.delay = delay;
+  }
+
+  /**
+   * Starts processing of pending tasks.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public synchronized void start() {
+    if (executor == null) {
+      executor = Executors.newSingleThreadScheduledExecutor();
+      executor.scheduleWithFixedDelay(this::processPendingTasks, 0, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops processing, the interrupted task is continued after restart.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Process all pending tasks. Any failure is logged and the task is continued on the next check, an exception never
+   * leaves the method because it would cancel the scheduled checks.
+   */
+  public void processPendingTasks() {
+    try {
+      for (DeletionTask task : deletionTaskMapper.selectPending()) {
+        process(task);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Error selecting deletion tasks, processing is continued on the next check", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void process(DeletionTask task) throws InterruptedException {
+    LOGGER.info("Deleting {} {} with {} references", task.getEntityType(), task.getEntityId(),
+        task.getTotalCount() - task.getProcessedCount());
+    try {
+      while (Boolean.TRUE.equals(transactionTemplate.execute(status -> processChunk(task)))) {
+        Thread.sleep(chunkPause);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Error deleting {} {}, deletion is continued on the next check", task.getEntityType(),
+          task.getEntityId(), e);
+    }
+  }
+
+  private boolean processChunk(DeletionTask task) {
+    if (!Boolean.TRUE.equals(deletionTaskMapper.lockPending(task.getId()))) {
+      return false;
+    }
+    int removedCount = removeReferences(task);
+    if (removedCount > 0) {
+      deletionTaskMapper.addProcessedCount(task.getId(), removedCount);
+      return true;
+    }
+    if (task.getEntityType() == DeletionEntityType.TAG) {
+      tagMapper.deleteMarked(task.getEntityId());
+    } else {
+      giftCertificateMapper.deleteMarked(task.getEntityId());
+    }
+    deletionTaskMapper.complete(task.getId());
+    LOGGER.info("Deletion of {} {} is completed", task.getEntityType(), task.getEntityId());
+    return false;
+  }
+
+  private int removeReferences(DeletionTask task) {
+    if (task.getEntityType() == DeletionEntityType.TAG) {
+      return tagMapper.deleteAssociativeRecords(task.getEntityId(), chunkSize);
+    }
+    int detachedCount = giftCertificateMapper.detachPurchases(task.getEntityId(), chunkSize);
+    return detachedCount > 0 ? detachedCount
+        : giftCertificateMapper.deleteAssociativeRecords(task.getEntityId(), chunkSize);
+  }
+}
\ No newline at end of file
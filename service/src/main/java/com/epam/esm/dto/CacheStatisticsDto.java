@@ -0,0 +1,74 @@
+package com.epam.esm.dto;
+
+
+
+public class CacheStatisticsDto {
+
+  private String name;
+  private Long size;
+  private Long hitCount;
+  private Long missCount;
+  private Long evictionCount;
+  private Double hitRate;
+
+  public CacheStatisticsDto() {
+  }
+
+  public CacheStatisticsDto(String name, Long size, Long hitCount, Long missCount, Long evictionCount,
+      Double hitRate) {
+    this.name = name;
+    this.size = size;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.hitRate = hitRate;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Long getSize() {
+    return size;
+  }
+
+  public void setSize(Long size) {
+    this.size = size;
+  }
+
+  public Long getHitCount() {
+    return hitCount;
+  }
+
+  public void setHitCount(Long hitCount) {
+    this.hitCount = hitCount;
+  }
+
+  public Long getMissCount() {
+    return missCount;
+  }
+
+  public void setMissCount(Long missCount) {
+    this.missCount = missCount;
+  }
+
+  public Long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public void setEvictionCount(Long evictionCount) {
+    this.evictionCount = evictionCount;
+  }
+
+  public Double getHitRate() {
+    return hitRate;
+  }
+
+  public void setHitRate(Double hitRate) {
+    this.hitRate = hitRate;
+  }
+}
\ No newline at end of file
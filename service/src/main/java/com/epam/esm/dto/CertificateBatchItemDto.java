@@ -0,0 +1,42 @@
+package com.epam.esm.dto;
+
+
+public class CertificateBatchItemDto {
+
+  private Integer index;
+  private Long id;
+  private Integer errorCode;
+
+  public CertificateBatchItemDto() {
+  }
+
+  public CertificateBatchItemDto(Integer index, Long id, Integer errorCode) {
+    this.index = index;
+    this.id = id;
+    this.errorCode = errorCode;
+  }
+
+  public Integer getIndex() {
+    return index;
+  }
+
+  public void setIndex(Integer index) {
+    this.index = index;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Integer getErrorCode() {
+    return errorCode;
+  }
+
+  public void setErrorCode(Integer errorCode) {
+    this.errorCode = errorCode;
+  }
+}
\ No newline at end of file
@@ -9,6 +9,8 @@ public class EntityListDto<T> {
   @JsonProperty("data")
   private List<T> giftCertificatesWithTags;
   private Integer pagesCount;
+  private String next;
+  private Boolean approximate;
 
   public EntityListDto() {
   }
@@ -38,4 +40,20 @@ public class EntityListDto<T> {
   public void setPagesCount(Integer pagesCount) {
     this.pagesCount = pagesCount;
   }
+
+  public String getNext() {
+    return next;
+  }
+
+  public void setNext(String next) {
+    this.next = next;
+  }
+
+  public Boolean getApproximate() {
+    return approximate;
+  }
+
+  public void setApproximate(Boolean approximate) {
+    this.approximate = approximate;
+  }
 }
\ No newline at end of file
@@ -4,9 +4,11 @@ import com.epam.esm.model.GiftCertificate;
 import com.epam.esm.model.Tag;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class GiftCertificateWithTagsDto {
 
@@ -17,6 +19,7 @@ public class GiftCertificateWithTagsDto {
   private LocalDateTime createDate;
   private LocalDateTime lastUpdateDate;
   private Integer duration;
+  private Long version;
   private List<Tag> tags;
 
   public GiftCertificateWithTagsDto() {
@@ -30,12 +33,29 @@ public class GiftCertificateWithTagsDto {
     this.createDate = giftCertificate.getCreateDate();
     this.lastUpdateDate = giftCertificate.getLastUpdateDate();
     this.duration = giftCertificate.getDuration();
+    this.version = giftCertificate.getVersion();
     this.tags = tags;
   }
 
+  public GiftCertificateWithTagsDto(GiftCertificateWithTagsDto certificate) {
+    this.id = certificate.id;
+    this.name = certificate.name;
+    this.description = certificate.description;
+    this.price = certificate.price;
+    this.createDate = certificate.createDate;
+    this.lastUpdateDate = certificate.lastUpdateDate;
+    this.duration = certificate.duration;
+    this.version = certificate.version;
+    this.tags = certificate.tags == null ? null : certificate.tags.stream().map(t -> new Tag(t.getId(), t.getName()))
+        .collect(Collectors.toList());
+  }
+
   @JsonIgnore
   public GiftCertificate getGiftCertificate() {
-    return new GiftCertificate(id, name, description, price, createDate, lastUpdateDate, duration);
+    GiftCertificate giftCertificate = new GiftCertificate(id, name, description, price, createDate, lastUpdateDate,
+        duration);
+    giftCertificate.setVersion(version);
+    return giftCertificate;
   }
 
   public Long getId() {
@@ -96,6 +116,15 @@ public class GiftCertificateWithTagsDto {
     this.duration = duration;
   }
 
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public List<Tag> getTags() {
     return tags;
   }
@@ -0,0 +1,36 @@
+package com.epam.esm.dto;
+
+
+public class PriceAdjustmentResultDto {
+
+  private Integer updatedCount;
+  private Integer errorCode;
+
+  public PriceAdjustmentResultDto() {
+  }
+
+  public PriceAdjustmentResultDto(Integer updatedCount) {
+    this.updatedCount = updatedCount;
+  }
+
+  public PriceAdjustmentResultDto(Integer updatedCount, Integer errorCode) {
+    this.updatedCount = updatedCount;
+    this.errorCode = errorCode;
+  }
+
+  public Integer getUpdatedCount() {
+    return updatedCount;
+  }
+
+  public void setUpdatedCount(Integer updatedCount) {
+    this.updatedCount = updatedCount;
+  }
+
+  public Integer getErrorCode() {
+    return errorCode;
+  }
+
+  public void setErrorCode(Integer errorCode) {
+    this.errorCode = errorCode;
+  }
+}
\ No newline at end of file
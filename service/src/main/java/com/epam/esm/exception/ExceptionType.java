@@ -13,6 +13,8 @@ public enum ExceptionType {
   ACCESS_DENIED("access.denied", 403, 40301),
   RESOURCE_NOT_FOUND("resource.not.found", 404, 40401),
   HANDLER_NOT_FOUND("handler.not.found", 404, 40402),
+  RESOURCE_CONFLICT("resource.conflict", 409, 40901),
+  PRECONDITION_FAILED("precondition.failed", 412, 41201),
   INTERNAL_SERVER_ERROR("internal.server.error", 500, 50001),
   ERROR_CREATING_ENTITY("error.creating.entity", 500, 50002);
 
@@ -0,0 +1,104 @@
+package com.epam.esm.index;
+
+import com.epam.esm.mapper.GiftCertificateMapper;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Certificate index refresher. Applies the certificates and tags written by other instances to the indexes of
+ * this instance, which are otherwise kept current only by the changes of this instance. Every refresh re-reads the
+ * certificates changed since the start of the previous refresh minus the lag, so a change committed up to the lag after
+ * its statement is still seen. The first refresh starts from the date taken before the indexes are built.
+ */
+@Component
+@ConditionalOnProperty(name = "index.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class CertificateIndexRefresher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CertificateIndexRefresher.class);
+  private final GiftCertificateMapper giftCertificateMapper;
+  private final CertificateTagIndex tagIndex;
+  private final CertificateTextIndex textIndex;
+  private final long delay;
+  private final long lag;
+  private ScheduledExecutorService executor;
+  private volatile LocalDateTime refreshedUntil;
+
+  /**
+   * Instantiates a new Certificate index refresher.
+   *
+   * @param giftCertificateMapper the gift certificate mapper
+   * @param tagIndex              the certificate tag index
+   * @param textIndex             the certificate text index
+   * @param delay                 the delay between refreshes in milliseconds
+   * @param lag                   the max time between a change and its commit in seconds
+   */
+  @Autowired
+  public CertificateIndexRefresher(GiftCertificateMapper giftCertificateMapper, CertificateTagIndex tagIndex,
+      CertificateTextIndex textIndex, @Value("${index.refresh.delay:10000}") long delay,
+      @Value("${index.refresh.lag:60}") long lag) {
+    this.giftCertificateMapper = giftCertificateMapper;
+    this.tagIndex = tagIndex;
+    this.textIndex = textIndex;
+    this.delay = delay;
+    this.lag = lag;
+  }
+
+  /**
+   * Takes the date of the first refresh and starts refreshing. Runs before the indexes are built on the same event.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public synchronized void start() {
+    if (executor == null) {
+      try {
+        refreshedUntil = giftCertificateMapper.selectCurrentDate();
+      } catch (RuntimeException e) {
+        LOGGER.error("Error reading database date, indexes are refreshed from the first successful refresh", e);
+      }
+      executor = Executors.newSingleThreadScheduledExecutor();
+      executor.scheduleWithFixedDelay(this::refresh, delay, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops refreshing.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Refresh the indexes with the changes since the previous refresh. Any failure is logged and the changes are
+   * refreshed again on the next refresh, an exception never leaves the method because it would cancel the scheduled
+   * refreshes.
+   */
+  public void refresh() {
+    try {
+      LocalDateTime refreshDate = giftCertificateMapper.selectCurrentDate();
+      if (refreshedUntil != null) {
+        LocalDateTime since = refreshedUntil.minusSeconds(lag);
+        tagIndex.refresh(since);
+        textIndex.refresh(since);
+      }
+      refreshedUntil = refreshDate;
+    } catch (RuntimeException e) {
+      LOGGER.error("Error refreshing certificate indexes, the changes are read again on the next refresh", e);
+    }
+  }
+}
\ No newline at end of file
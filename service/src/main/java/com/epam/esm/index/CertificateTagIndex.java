@@ -0,0 +1,277 @@
+package com.epam.esm.index;
+
+import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
+import com.epam.esm.util.CollationUtil;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Certificate tag index. Inverted index from tag name to the bitmap of ids of certificates marked with the
+ * tag. The index is rebuilt from tag_gift_certificate on startup and kept current by the certificate and tag services
+ * of this instance; the changes of other instances are applied by periodic refreshes. Tag names are compared ignoring
+ * case and accents, the same way the database collation does. Certificate ids of a tag are kept in a compressed
+ * bitmap, so rare tags take space by the number of their certificates and not by the largest id.
+ */
+@Component
+public class CertificateTagIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CertificateTagIndex.class);
+  private static final int REFRESH_SEGMENT_SIZE = 10000;
+  private final TagMapper tagMapper;
+  private final Map<String, RoaringBitmap> certificatesByTagName = new HashMap<>();
+  private final Map<Long, String> tagNamesById = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile boolean ready;
+
+  /**
+   * Instantiates a new Certificate tag index.
+   *
+   * @param tagMapper the tag mapper
+   */
+  @Autowired
+  public CertificateTagIndex(TagMapper tagMapper) {
+    this.tagMapper = tagMapper;
+  }
+
+  /**
+   * Rebuilds the index from all existing tag to certificate associations.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      ready = false;
+      certificatesByTagName.clear();
+      tagNamesById.clear();
+      tagMapper.selectAllAssociations(context -> {
+        Tag tag = new Tag(context.getResultObject().getTagId(), context.getResultObject().getTagName());
+        doAdd(context.getResultObject().getGiftCertificateId(), tag);
+      });
+      certificatesByTagName.values().forEach(RoaringBitmap::runOptimize);
+      ready = true;
+      LOGGER.info("Certificate tag index is built for {} tags", certificatesByTagName.size());
+    } catch (DataAccessException e) {
+      LOGGER.error("Error building certificate tag index, tag filters will be resolved by the database", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Is ready boolean, returns true if the index is built and may be used for searching.
+   *
+   * @return the boolean
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Find certificate ids, returns bitmap of ids of certificates marked with every passed tag.
+   *
+   * @param tagNames the tag names
+   * @return the bitmap of certificate ids
+   */
+  public RoaringBitmap findCertificateIds(Collection<String> tagNames) {
+    lock.readLock().lock();
+    try {
+      List<RoaringBitmap> tagCertificateIds = new ArrayList<>();
+      for (String tagName : tagNames) {
+        RoaringBitmap certificateIds = certificatesByTagName.get(normalize(tagName));
+        if (certificateIds == null) {
+          return new RoaringBitmap();
+        }
+        tagCertificateIds.add(certificateIds);
+      }
+      if (tagCertificateIds.isEmpty()) {
+        return new RoaringBitmap();
+      }
+      tagCertificateIds.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+      RoaringBitmap result = tagCertificateIds.get(0).clone();
+      for (int i = 1; i < tagCertificateIds.size() && !result.isEmpty(); i++) {
+        result.and(tagCertificateIds.get(i));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Find certificate ids by tag id, returns ids of certificates marked with the tag.
+   *
+   * @param tagId the tag id
+   * @return the list of certificate ids
+   */
+  public List<Long> findCertificateIdsByTagId(long tagId) {
+    lock.readLock().lock();
+    try {
+      String tagName = tagNamesById.get(tagId);
+      RoaringBitmap certificateIds = tagName == null ? null : certificatesByTagName.get(tagName);
+      return certificateIds == null ? new ArrayList<>() :
+          Arrays.stream(certificateIds.toArray()).mapToObj(Long::valueOf).collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Add tags to the certificate.
+   *
+   * @param certificateId the certificate id
+   * @param tags          the tags with ids and names
+   */
+  public void addTags(long certificateId, Collection<Tag> tags) {
+    lock.writeLock().lock();
+    try {
+      tags.forEach(t -> doAdd(certificateId, t));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void doAdd(long certificateId, Tag tag) {
+    String tagName = normalize(tag.getName());
+    certificatesByTagName.computeIfAbsent(tagName, n -> new RoaringBitmap()).add(Math.toIntExact(certificateId));
+    if (tag.getId() != null) {
+      tagNamesById.put(tag.getId(), tagName);
+    }
+  }
+
+  /**
+   * Remove tags from the certificate.
+   *
+   * @param certificateId the certificate id
+   * @param tagNames      the tag names
+   */
+  public void removeTags(long certificateId, Collection<String> tagNames) {
+    lock.writeLock().lock();
+    try {
+      for (String tagName : tagNames) {
+        RoaringBitmap certificateIds = certificatesByTagName.get(normalize(tagName));
+        if (certificateIds != null) {
+          certificateIds.remove(Math.toIntExact(certificateId));
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove certificate from its tags.
+   *
+   * @param certificateId the certificate id
+   * @param tagNames      the names of the certificate tags
+   */
+  public void removeCertificate(long certificateId, Collection<String> tagNames) {
+    removeTags(certificateId, tagNames);
+  }
+
+  /**
+   * Remove tag with all its associations.
+   *
+   * @param tagId the tag id
+   */
+  public void removeTag(long tagId) {
+    lock.writeLock().lock();
+    try {
+      doRemoveTag(tagId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void doRemoveTag(long tagId) {
+    String tagName = tagNamesById.remove(tagId);
+    if (tagName != null) {
+      certificatesByTagName.remove(tagName);
+    }
+  }
+
+  /**
+   * Refresh the index with the changes committed by any instance: indexed tags which are no longer active are removed,
+   * then the tags of every certificate changed at or after the date are replaced with its committed associations.
+   * Certificates are replaced by segments of consecutive ids, every segment under a short write lock, so searches are
+   * not blocked for the whole refresh. Does nothing if the index is not built.
+   *
+   * @param since the date of the earliest change to apply
+   */
+  public void refresh(LocalDateTime since) {
+    if (!ready) {
+      return;
+    }
+    Set<Long> indexedTagIds;
+    lock.readLock().lock();
+    try {
+      indexedTagIds = new HashSet<>(tagNamesById.keySet());
+    } finally {
+      lock.readLock().unlock();
+    }
+    // tags indexed before the query are committed, so the ones missing in its result are deleted
+    indexedTagIds.removeAll(tagMapper.selectActiveIds());
+    if (!indexedTagIds.isEmpty()) {
+      lock.writeLock().lock();
+      try {
+        indexedTagIds.forEach(this::doRemoveTag);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    RoaringBitmap changedIds = new RoaringBitmap();
+    List<TagGiftCertificate> associations = new ArrayList<>();
+    tagMapper.selectAssociationsChangedSince(since, context -> {
+      TagGiftCertificate association = context.getResultObject();
+      int certificateId = Math.toIntExact(association.getGiftCertificateId());
+      // the rows are ordered by certificate, so a segment always holds all associations of its certificates
+      if (!changedIds.contains(certificateId) && changedIds.getCardinality() >= REFRESH_SEGMENT_SIZE) {
+        replaceTags(changedIds, associations);
+        changedIds.clear();
+        associations.clear();
+      }
+      changedIds.add(certificateId);
+      if (association.getTagId() != null) {
+        associations.add(association);
+      }
+    });
+    replaceTags(changedIds, associations);
+  }
+
+  private void replaceTags(RoaringBitmap certificateIds, List<TagGiftCertificate> associations) {
+    if (certificateIds.isEmpty()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      certificatesByTagName.values().forEach(c -> c.andNot(certificateIds));
+      associations.forEach(a -> doAdd(a.getGiftCertificateId(), new Tag(a.getTagId(), a.getTagName())));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private String normalize(String tagName) {
+    return CollationUtil.normalize(tagName);
+  }
+}
\ No newline at end of file
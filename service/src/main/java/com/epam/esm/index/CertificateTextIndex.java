@@ -0,0 +1,282 @@
+package com.epam.esm.index;
+
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.model.GiftCertificate;
+import com.epam.esm.util.CollationUtil;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Certificate text index. Trigram inverted index over certificate names and descriptions. A search returns
+ * the bitmap of ids of certificates containing every trigram of the searched value, which is a superset of the
+ * certificates matching the value, so the result has to be verified by the database. Certificate ids of a trigram are
+ * kept in a compressed bitmap, so rare trigrams take space by the number of their certificates and not by the largest
+ * id. A changed or removed certificate is cleared from the trigrams of its previous text only. After-commit changes of
+ * one certificate may arrive out of order, so every change carries the certificate version and a change older than
+ * the applied one is skipped. Certificates changed by other instances are added by periodic refreshes; their previous
+ * trigrams are left in the index, which only widens the verified superset.
+ */
+@Component
+public class CertificateTextIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CertificateTextIndex.class);
+  private static final Pattern LIKE_SPECIAL_CHARACTERS = Pattern.compile("[%_\\\\]");
+  private static final int TRIGRAM_LENGTH = 3;
+  private static final int REFRESH_SEGMENT_SIZE = 10000;
+  private static final long REMOVED_VERSION = Long.MAX_VALUE;
+  private final GiftCertificateMapper giftCertificateMapper;
+  private final Map<Long, RoaringBitmap> certificatesByTrigram = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // versions of the changes applied since the previous refresh and before it, older ones are dropped on every refresh
+  private Map<Long, Long> appliedVersions = new HashMap<>();
+  private Map<Long, Long> previousAppliedVersions = new HashMap<>();
+  private volatile boolean ready;
+
+  /**
+   * Instantiates a new Certificate text index.
+   *
+   * @param giftCertificateMapper the gift certificate mapper
+   */
+  @Autowired
+  public CertificateTextIndex(GiftCertificateMapper giftCertificateMapper) {
+    this.giftCertificateMapper = giftCertificateMapper;
+  }
+
+  /**
+   * Rebuilds the index from names and descriptions of all existing certificates.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      ready = false;
+      certificatesByTrigram.clear();
+      appliedVersions.clear();
+      previousAppliedVersions.clear();
+      giftCertificateMapper.selectAllTexts(context -> doAdd(context.getResultObject()));
+      certificatesByTrigram.values().forEach(RoaringBitmap::runOptimize);
+      ready = true;
+      LOGGER.info("Certificate text index is built for {} trigrams", certificatesByTrigram.size());
+    } catch (DataAccessException e) {
+      LOGGER.error("Error building certificate text index, text search will be resolved by the database", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Find candidate ids, returns bitmap of ids of certificates which name or description may contain the value, or
+   * null if the index can not narrow the search.
+   *
+   * @param searchValue the search value
+   * @return the bitmap of candidate certificate ids or null
+   */
+  public RoaringBitmap findCandidateIds(String searchValue) {
+    String text = normalize(searchValue);
+    if (!ready || text.length() < TRIGRAM_LENGTH || LIKE_SPECIAL_CHARACTERS.matcher(searchValue).find()) {
+      return null;
+    }
+    lock.readLock().lock();
+    try {
+      List<RoaringBitmap> trigramCertificateIds = new ArrayList<>();
+      for (Long trigram : collectTrigrams(text)) {
+        RoaringBitmap certificateIds = certificatesByTrigram.get(trigram);
+        if (certificateIds == null) {
+          return new RoaringBitmap();
+        }
+        trigramCertificateIds.add(certificateIds);
+      }
+      // the rarest trigrams are intersected first, so the result shrinks as early as possible
+      trigramCertificateIds.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+      RoaringBitmap result = trigramCertificateIds.get(0).clone();
+      for (int i = 1; i < trigramCertificateIds.size() && !result.isEmpty(); i++) {
+        result.and(trigramCertificateIds.get(i));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Add certificate name and description to the index, skipped if a later version of the certificate is applied.
+   *
+   * @param certificate the certificate with version
+   */
+  public void addCertificate(GiftCertificate certificate) {
+    lock.writeLock().lock();
+    try {
+      if (applyVersion(certificate.getId(), certificate.getVersion())) {
+        doAdd(certificate);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replace indexed name and description of the certificate, skipped if the same or a later version of the
+   * certificate is applied.
+   *
+   * @param previousCertificate the certificate with the previous name and description
+   * @param certificate         the certificate with the version of the change
+   */
+  public void updateCertificate(GiftCertificate previousCertificate, GiftCertificate certificate) {
+    lock.writeLock().lock();
+    try {
+      if (applyVersion(certificate.getId(), certificate.getVersion())) {
+        doRemove(previousCertificate);
+        doAdd(certificate);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove certificate from the index, later changes of the certificate are skipped.
+   *
+   * @param certificate the certificate with the indexed name and description
+   */
+  public void removeCertificate(GiftCertificate certificate) {
+    lock.writeLock().lock();
+    try {
+      if (applyVersion(certificate.getId(), REMOVED_VERSION)) {
+        doRemove(certificate);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Refresh the index with the certificates changed at or after the date by any instance: the current name and
+   * description of every changed certificate are added unless a later version is applied. Certificates are added by
+   * segments, every segment under a short write lock, so searches are not blocked for the whole refresh. Versions
+   * applied before the previous refresh are dropped, every delayed change has arrived by then. Does nothing if the
+   * index is not built.
+   *
+   * @param since the date of the earliest change to apply
+   */
+  public void refresh(LocalDateTime since) {
+    if (!ready) {
+      return;
+    }
+    List<GiftCertificate> certificates = new ArrayList<>();
+    giftCertificateMapper.selectTextsChangedSince(since, context -> {
+      certificates.add(context.getResultObject());
+      if (certificates.size() == REFRESH_SEGMENT_SIZE) {
+        addChanged(certificates);
+        certificates.clear();
+      }
+    });
+    addChanged(certificates);
+    lock.writeLock().lock();
+    try {
+      previousAppliedVersions = appliedVersions;
+      appliedVersions = new HashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // the added certificates are not remembered as applied, so a delayed change of this instance still replaces their
+  // text; the text is added again by the next refreshes while it is in the refreshed period
+  private void addChanged(List<GiftCertificate> certificates) {
+    lock.writeLock().lock();
+    try {
+      certificates.stream().filter(c -> !isLaterVersionApplied(c.getId(), c.getVersion())).forEach(this::doAdd);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean isLaterVersionApplied(Long certificateId, Long version) {
+    Long appliedVersion = appliedVersions.get(certificateId);
+    if (appliedVersion == null) {
+      appliedVersion = previousAppliedVersions.get(certificateId);
+    }
+    return appliedVersion != null && version != null && appliedVersion >= version;
+  }
+
+  // a change without version is always applied
+  private boolean applyVersion(Long certificateId, Long version) {
+    if (isLaterVersionApplied(certificateId, version)) {
+      return false;
+    }
+    if (version != null) {
+      appliedVersions.put(certificateId, version);
+    }
+    return true;
+  }
+
+  /**
+   * Add certificates inserted by file processing.
+   *
+   * @param event the certificates inserted event
+   */
+  @EventListener
+  public void onCertificatesInserted(CertificatesInsertedEvent event) {
+    lock.writeLock().lock();
+    try {
+      event.getCertificates().stream().filter(c -> c.getId() != null).forEach(this::doAdd);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void doAdd(GiftCertificate certificate) {
+    int certificateId = Math.toIntExact(certificate.getId());
+    collectTrigrams(certificate).forEach(t -> certificatesByTrigram.computeIfAbsent(t, k -> new RoaringBitmap())
+        .add(certificateId));
+  }
+
+  private void doRemove(GiftCertificate certificate) {
+    int certificateId = Math.toIntExact(certificate.getId());
+    for (Long trigram : collectTrigrams(certificate)) {
+      RoaringBitmap certificateIds = certificatesByTrigram.get(trigram);
+      if (certificateIds != null) {
+        certificateIds.remove(certificateId);
+        if (certificateIds.isEmpty()) {
+          certificatesByTrigram.remove(trigram);
+        }
+      }
+    }
+  }
+
+  private Set<Long> collectTrigrams(GiftCertificate certificate) {
+    Set<Long> trigrams = collectTrigrams(normalize(certificate.getName()));
+    trigrams.addAll(collectTrigrams(normalize(certificate.getDescription())));
+    return trigrams;
+  }
+
+  private Set<Long> collectTrigrams(String text) {
+    Set<Long> trigrams = new HashSet<>();
+    for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+      trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+    }
+    return trigrams;
+  }
+
+  private String normalize(String text) {
+    return CollationUtil.normalize(text);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.epam.esm.index;
+
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagNameMatch;
+import com.epam.esm.util.CollationUtil;
+import com.epam.esm.util.TransactionUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * The type Tag dictionary. Dictionary of all tags by name, used to resolve tag names of written certificates to tag
+ * ids without creating or matching them in the database. The dictionary is loaded on startup and kept current by the
+ * tag and certificate services after their changes are committed. Names missing in the dictionary are looked up in
+ * the database, so an incomplete dictionary only costs queries. Ids of found tags are checked by one locking query on
+ * resolving, tags deleted by another instance are evicted and their names are resolved again. The dictionary finds
+ * names ignoring case and accents, the same way the database collation matches them on resolving.
+ */
+@Component
+public class TagDictionary {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TagDictionary.class);
+  private final TagMapper tagMapper;
+  private final Map<String, Tag> tagsByName = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new Tag dictionary.
+   *
+   * @param tagMapper the tag mapper
+   */
+  @Autowired
+  public TagDictionary(TagMapper tagMapper) {
+    this.tagMapper = tagMapper;
+  }
+
+  /**
+   * Loads all existing tags to the dictionary.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public void load() {
+    try {
+      tagMapper.selectAll(RowBounds.DEFAULT).forEach(this::add);
+      LOGGER.info("Tag dictionary is loaded with {} tags", tagsByName.size());
+    } catch (DataAccessException e) {
+      LOGGER.error("Error loading tag dictionary, tag names will be resolved by the database", e);
+    }
+  }
+
+  /**
+   * Find tag by name, returns the tag with id or null if the name is unknown.
+   *
+   * @param name the tag name
+   * @return the tag
+   */
+  public Tag find(String name) {
+    return tagsByName.get(normalize(name));
+  }
+
+  /**
+   * Resolve tag names, returns tags with ids by the given names. Tags found in the dictionary are locked by one query,
+   * so they can not be deleted before the transaction ends; found tags already deleted are evicted and their names are
+   * resolved as unknown. Unknown names are created if missing and matched by one locking query comparing every name by
+   * the column collation, so names differing in case or accents from the stored one resolve to it and concurrent
+   * transactions resolving the same new names never fail on the unique name key. Unknown names are sent in the
+   * collation order, so concurrent transactions lock the name keys in the same order and never deadlock. Has to be
+   * called in a transaction, resolved tags are added to the dictionary after commit.
+   *
+   * @param names the tag names
+   * @return the tags by the given names
+   * @throws ServerException if a name is freed by a concurrently deleted tag before it is matched
+   */
+  public Map<String, Tag> resolve(Collection<String> names) {
+    Map<String, Tag> tags = new HashMap<>();
+    Set<String> unknownNames = new TreeSet<>(CollationUtil.COLLATION_ORDER);
+    for (String name : names) {
+      Tag tag = find(name);
+      if (tag != null) {
+        tags.put(name, tag);
+      } else {
+        unknownNames.add(name);
+      }
+    }
+    if (!tags.isEmpty()) {
+      evictDeleted(tags, unknownNames);
+    }
+    if (!unknownNames.isEmpty()) {
+      tagMapper.insertMissing(unknownNames);
+      List<Tag> resolvedTags = new ArrayList<>();
+      for (TagNameMatch match : tagMapper.selectByNamesForShare(unknownNames)) {
+        Tag tag = new Tag(match.getTagId(), match.getTagName());
+        tags.put(match.getRequestedName(), tag);
+        resolvedTags.add(tag);
+      }
+      if (!tags.keySet().containsAll(unknownNames)) {
+        throw new ServerException(ExceptionType.RESOURCE_CONFLICT);
+      }
+      TransactionUtil.runAfterCommit(() -> addAll(resolvedTags));
+    }
+    return tags;
+  }
+
+  /**
+   * Evict tags by names, the names are resolved by the database next time.
+   *
+   * @param names the tag names
+   */
+  public void evict(Collection<String> names) {
+    names.forEach(n -> tagsByName.remove(normalize(n)));
+  }
+
+  /**
+   * Add tag with id.
+   *
+   * @param tag the tag
+   */
+  public void add(Tag tag) {
+    if (tag.getId() == null) {
+      return;
+    }
+    tagsByName.put(normalize(tag.getName()), new Tag(tag.getId(), tag.getName()));
+  }
+
+  /**
+   * Add tags with ids.
+   *
+   * @param tags the tags
+   */
+  public void addAll(Collection<Tag> tags) {
+    tags.forEach(this::add);
+  }
+
+  /**
+   * Remove tag.
+   *
+   * @param tagId the tag id
+   */
+  public void remove(long tagId) {
+    tagsByName.values().removeIf(t -> t.getId().equals(tagId));
+  }
+
+  // locks the found tags, the names of tags deleted in the database are evicted and moved to the unknown names
+  private void evictDeleted(Map<String, Tag> tags, Set<String> unknownNames) {
+    Set<Long> activeIds = new HashSet<>(tagMapper.selectActiveIdsForShare(
+        tags.values().stream().map(Tag::getId).collect(Collectors.toSet())));
+    tags.entrySet().removeIf(e -> {
+      if (activeIds.contains(e.getValue().getId())) {
+        return false;
+      }
+      tagsByName.remove(normalize(e.getValue().getName()), e.getValue());
+      unknownNames.add(e.getKey());
+      return true;
+    });
+  }
+
+  private String normalize(String tagName) {
+    return CollationUtil.normalize(tagName);
+  }
+}
\ No newline at end of file
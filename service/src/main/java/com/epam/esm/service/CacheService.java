@@ -0,0 +1,17 @@
+package com.epam.esm.service;
+
+import com.epam.esm.dto.CacheStatisticsDto;
+import com.epam.esm.dto.EntityListDto;
+
+/**
+ * The interface Cache service. Interface defines operations with application caches.
+ */
+public interface CacheService {
+
+  /**
+   * Find statistics, returns statistics of all monitored caches.
+   *
+   * @return the list of cache statistics
+   */
+  EntityListDto<CacheStatisticsDto> findStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.epam.esm.service;
+
+import com.epam.esm.dto.CertificateBatchItemDto;
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * The interface Certificate batch service. Interface defines bulk operations with GiftCertificates.
+ */
+public interface CertificateBatchService {
+
+  /**
+   * Create certificates with tags, returns result of every received certificate in order of receiving. Certificates
+   * are read from the iterator and written by chunks, so the iterator may stream them from the request body.
+   *
+   * @param certificates the certificates with tags, null elements are treated as unreadable
+   * @param isValid      the predicate of valid certificates, invalid certificates are not written
+   * @return the list of results with ids of created certificates or error codes
+   */
+  EntityListDto<CertificateBatchItemDto> createAll(Iterator<GiftCertificateWithTagsDto> certificates,
+      Predicate<GiftCertificateWithTagsDto> isValid);
+}
\ No newline at end of file
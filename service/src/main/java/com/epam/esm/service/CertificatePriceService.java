@@ -0,0 +1,26 @@
+package com.epam.esm.service;
+
+import com.epam.esm.dto.PriceAdjustmentResultDto;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The interface Certificate price service. Interface defines bulk price operations with GiftCertificates.
+ */
+public interface CertificatePriceService {
+
+  /**
+   * Adjust prices of all certificates matching the search criteria by the amount or by the percent, returns the number
+   * of updated certificates. Certificates whose adjusted price leaves the allowed range are not updated. If the
+   * adjustment fails after some certificates are updated, their number is returned with the error code.
+   *
+   * @param parameters the search parameters, the same as the parameters of certificate search
+   * @param tags       the tag names, null if certificates are not filtered by tags
+   * @param amount     the amount added to the price, null if the price is adjusted by the percent
+   * @param percent    the percent added to the price, null if the price is adjusted by the amount
+   * @return the number of updated certificates and the error code if the adjustment is not completed
+   */
+  PriceAdjustmentResultDto adjustPrices(Map<String, String> parameters, List<String> tags, BigDecimal amount,
+      BigDecimal percent);
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.epam.esm.service;
+
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.model.DeletionTask;
+import java.util.Map;
+
+/**
+ * The interface Deletion service. Interface defines operations with tasks of deferred deletions.
+ */
+public interface DeletionService {
+
+  /**
+   * Find by id deletion task, returns found task with its progress.
+   *
+   * @param id the task id
+   * @return found task
+   */
+  DeletionTask findById(Long id);
+
+  /**
+   * Find all list, returns found tasks, the latest first.
+   *
+   * @param parameters the parameters
+   * @return the list of tasks
+   */
+  EntityListDto<DeletionTask> findAll(Map<String, String> parameters);
+}
\ No newline at end of file
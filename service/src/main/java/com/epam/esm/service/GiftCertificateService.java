@@ -3,6 +3,7 @@ package com.epam.esm.service;
 import com.epam.esm.dto.EntityListDto;
 import com.epam.esm.dto.GiftCertificateUpdateDto;
 import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import com.epam.esm.model.DeletionTask;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -47,22 +48,27 @@ public interface GiftCertificateService {
   EntityListDto<GiftCertificateWithTagsDto> findByUserId(Long userId, Map<String, String> parameters);
 
   /**
-   * Update certificate with passed tags, returns updated certificate with tags.
+   * Update certificate with passed tags, returns updated certificate with tags. If the expected version is passed,
+   * the certificate is updated only if it has this version.
    *
    * @param giftCertificateId        the gift certificate id
    * @param giftCertificateUpdateDto the gift certificate update dto
+   * @param expectedVersion          the expected version of the certificate, null if any version is expected
    * @return updated certificate with tags
    */
-  GiftCertificateWithTagsDto update(Long giftCertificateId, GiftCertificateUpdateDto giftCertificateUpdateDto);
+  GiftCertificateWithTagsDto update(Long giftCertificateId, GiftCertificateUpdateDto giftCertificateUpdateDto,
+      Long expectedVersion);
 
   /**
-   * Update price, returns updated gift certificate with tags .
+   * Update price, returns updated gift certificate with tags. If the expected version is passed, the price is updated
+   * only if the certificate has this version.
    *
-   * @param id    the id
-   * @param price the price
+   * @param id              the id
+   * @param price           the price
+   * @param expectedVersion the expected version of the certificate, null if any version is expected
    * @return the gift certificate with tags dto
    */
-  GiftCertificateWithTagsDto updatePrice(Long id, BigDecimal price);
+  GiftCertificateWithTagsDto updatePrice(Long id, BigDecimal price, Long expectedVersion);
 
   /**
    * Delete certificate by id, returns int number of deleted rows.
@@ -71,4 +77,13 @@ public interface GiftCertificateService {
    * @return the int number of deleted rows
    */
   int delete(Long id);
+
+  /**
+   * Delete certificate deferred, marks the certificate deleted and returns the task removing its tag associations and
+   * purchase references in the background.
+   *
+   * @param id the certificate id
+   * @return the deletion task
+   */
+  DeletionTask deleteDeferred(Long id);
 }
\ No newline at end of file
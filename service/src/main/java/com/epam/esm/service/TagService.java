@@ -1,6 +1,7 @@
 package com.epam.esm.service;
 
 import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.model.Tag;
 import java.util.Map;
 
@@ -47,4 +48,13 @@ public interface TagService {
    * @return the int number of deleted rows.
    */
   int delete(Long id);
+
+  /**
+   * Delete tag deferred, marks the tag deleted and returns the task removing its certificate associations in the
+   * background.
+   *
+   * @param id the tag id
+   * @return the deletion task
+   */
+  DeletionTask deleteDeferred(Long id);
 }
\ No newline at end of file
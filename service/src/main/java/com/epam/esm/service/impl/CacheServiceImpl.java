@@ -0,0 +1,34 @@
+package com.epam.esm.service.impl;
+
+import com.epam.esm.cache.MonitoredCache;
+import com.epam.esm.dto.CacheStatisticsDto;
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.service.CacheService;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The type Cache service.
+ */
+@Service
+public class CacheServiceImpl implements CacheService {
+
+  private final List<MonitoredCache> caches;
+
+  /**
+   * Instantiates a new Cache service.
+   *
+   * @param caches the monitored caches
+   */
+  @Autowired
+  public CacheServiceImpl(List<MonitoredCache> caches) {
+    this.caches = caches;
+  }
+
+  @Override
+  public EntityListDto<CacheStatisticsDto> findStatistics() {
+    return new EntityListDto<>(caches.stream().map(MonitoredCache::getStatistics).collect(Collectors.toList()));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+package com.epam.esm.service.impl;
+
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.dto.CertificateBatchItemDto;
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.index.CertificateTagIndex;
+import com.epam.esm.index.TagDictionary;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.model.GiftCertificate;
+import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
+import com.epam.esm.service.CertificateBatchService;
+import com.epam.esm.util.TransactionUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The type Certificate batch service. Certificates are written by chunks: one JDBC batch of certificate inserts, one
+ * tag resolution and one JDBC batch of tag association inserts per chunk. Every chunk is committed separately unless
+ * the whole batch is configured to be written in one transaction.
+ */
+@Service
+public class CertificateBatchServiceImpl implements CertificateBatchService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CertificateBatchServiceImpl.class);
+  private static final String REQUEST_TRANSACTION = "request";
+  private final BatchExecutor batchExecutor;
+  private final TagDictionary tagDictionary;
+  private final CertificateTagIndex tagIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+  private final boolean isTransactionPerRequest;
+
+  /**
+   * Instantiates a new Certificate batch service.
+   *
+   * @param batchExecutor          the batch executor
+   * @param tagDictionary          the tag dictionary
+   * @param tagIndex               the certificate tag index
+   * @param eventPublisher         the event publisher
+   * @param transactionManager     the transaction manager
+   * @param chunkSize              the number of certificates written by one insert
+   * @param transactionGranularity the transaction granularity, chunk or request
+   */
+  @Autowired
+  public CertificateBatchServiceImpl(BatchExecutor batchExecutor, TagDictionary tagDictionary,
+      CertificateTagIndex tagIndex, ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager, @Value("${certificate.batch.chunk-size:500}") int chunkSize,
+      @Value("${certificate.batch.transaction:chunk}") String transactionGranularity) {
+    this.batchExecutor = batchExecutor;
+    this.tagDictionary = tagDictionary;
+    this.tagIndex = tagIndex;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+    this.isTransactionPerRequest = REQUEST_TRANSACTION.equals(transactionGranularity);
+  }
+
+  @Override
+  public EntityListDto<CertificateBatchItemDto> createAll(Iterator<GiftCertificateWithTagsDto> certificates,
+      Predicate<GiftCertificateWithTagsDto> isValid) {
+    List<CertificateBatchItemDto> results = new ArrayList<>();
+    if (isTransactionPerRequest) {
+      // the whole batch is read before its transaction is opened, so the transaction never waits for the client
+      List<Map<Integer, GiftCertificateWithTagsDto>> chunks = new ArrayList<>();
+      readChunks(certificates, isValid, results, chunks::add);
+      try {
+        results.addAll(writeChunks(chunks));
+      } catch (DataAccessException e) {
+        LOGGER.error("Error creating certificates, the batch is rolled back", e);
+        throw new ServerException(ExceptionType.ERROR_CREATING_ENTITY);
+      }
+    } else {
+      readChunks(certificates, isValid, results, c -> results.addAll(createChunk(c)));
+    }
+    results.sort(Comparator.comparing(CertificateBatchItemDto::getIndex));
+    return new EntityListDto<>(results);
+  }
+
+  private void readChunks(Iterator<GiftCertificateWithTagsDto> certificates,
+      Predicate<GiftCertificateWithTagsDto> isValid, List<CertificateBatchItemDto> results,
+      Consumer<Map<Integer, GiftCertificateWithTagsDto>> chunkConsumer) {
+    Map<Integer, GiftCertificateWithTagsDto> chunk = new LinkedHashMap<>();
+    int index = 0;
+    while (certificates.hasNext()) {
+      GiftCertificateWithTagsDto certificate = certificates.next();
+      if (certificate == null || !isValid.test(certificate)) {
+        results.add(new CertificateBatchItemDto(index, null, ExceptionType.INCORRECT_INPUT_DATA.getServerErrorCode()));
+      } else {
+        chunk.put(index, certificate);
+        if (chunk.size() == chunkSize) {
+          chunkConsumer.accept(chunk);
+          chunk = new LinkedHashMap<>();
+        }
+      }
+      index++;
+    }
+    if (!chunk.isEmpty()) {
+      chunkConsumer.accept(chunk);
+    }
+  }
+
+  private List<CertificateBatchItemDto> createChunk(Map<Integer, GiftCertificateWithTagsDto> chunk) {
+    try {
+      return writeChunks(Collections.singletonList(chunk));
+    } catch (DataAccessException e) {
+      LOGGER.error("Error creating chunk of {} certificates", chunk.size(), e);
+      return reportChunk(chunk, ExceptionType.ERROR_CREATING_ENTITY);
+    } catch (ServerException e) {
+      LOGGER.warn("Chunk of {} certificates is not created: {}", chunk.size(), e.getMessage());
+      return reportChunk(chunk, e.getExceptionType());
+    }
+  }
+
+  // a tag deleted by another instance may still be kept by the dictionary, so on an integrity violation the tag names
+  // are evicted and the chunks are written once more with the names resolved by the database
+  private List<CertificateBatchItemDto> writeChunks(List<Map<Integer, GiftCertificateWithTagsDto>> chunks) {
+    try {
+      return transactionTemplate.execute(status -> doWriteChunks(chunks));
+    } catch (DataIntegrityViolationException e) {
+      LOGGER.warn("Error writing {} chunks, they are written again with tag names resolved by the database",
+          chunks.size(), e);
+      chunks.forEach(c -> tagDictionary.evict(collectTagNames(c)));
+      return transactionTemplate.execute(status -> doWriteChunks(chunks));
+    }
+  }
+
+  private List<CertificateBatchItemDto> doWriteChunks(List<Map<Integer, GiftCertificateWithTagsDto>> chunks) {
+    return chunks.stream().map(this::writeChunk).flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  private List<CertificateBatchItemDto> reportChunk(Map<Integer, GiftCertificateWithTagsDto> chunk,
+      ExceptionType exceptionType) {
+    return chunk.keySet().stream()
+        .map(i -> new CertificateBatchItemDto(i, null, exceptionType.getServerErrorCode()))
+        .collect(Collectors.toList());
+  }
+
+  private List<CertificateBatchItemDto> writeChunk(Map<Integer, GiftCertificateWithTagsDto> chunk) {
+    List<Integer> indexes = new ArrayList<>(chunk.keySet());
+    List<GiftCertificate> certificates = indexes.stream().map(chunk::get)
+        .map(GiftCertificateWithTagsDto::getGiftCertificate).collect(Collectors.toList());
+    batchExecutor.execute(GiftCertificateMapper.class, "insert", certificates, GiftCertificateMapper::insert);
+    Map<String, Tag> tags = tagDictionary.resolve(collectTagNames(chunk));
+    List<TagGiftCertificate> associations = new ArrayList<>();
+    Map<Long, Set<Tag>> tagsByCertificateId = new HashMap<>();
+    List<CertificateBatchItemDto> results = new ArrayList<>();
+    for (int i = 0; i < indexes.size(); i++) {
+      Long certificateId = certificates.get(i).getId();
+      List<Tag> receivedTags = chunk.get(indexes.get(i)).getTags();
+      if (receivedTags != null && !receivedTags.isEmpty()) {
+        Set<Tag> certificateTags = receivedTags.stream().map(t -> tags.get(t.getName()))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        certificateTags.forEach(t -> associations.add(new TagGiftCertificate(certificateId, t.getId(), t.getName())));
+        tagsByCertificateId.put(certificateId, certificateTags);
+      }
+      results.add(new CertificateBatchItemDto(indexes.get(i), certificateId, null));
+    }
+    batchExecutor.execute(GiftCertificateMapper.class, "insertAssociativeRecord", associations,
+        GiftCertificateMapper::insertAssociativeRecord);
+    TransactionUtil.runAfterCommit(() -> tagsByCertificateId.forEach(tagIndex::addTags));
+    TransactionUtil.runAfterCommit(() -> eventPublisher.publishEvent(new CertificatesInsertedEvent(certificates)));
+    return results;
+  }
+
+  private Set<String> collectTagNames(Map<Integer, GiftCertificateWithTagsDto> chunk) {
+    return chunk.values().stream().map(GiftCertificateWithTagsDto::getTags).filter(Objects::nonNull)
+        .flatMap(List::stream).map(Tag::getName).collect(Collectors.toSet());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.epam.esm.service.impl;
+
+import com.epam.esm.cache.CertificateCache;
+import com.epam.esm.cache.CertificateSearchCache;
+import com.epam.esm.count.CertificateCountStrategy;
+import com.epam.esm.dto.PriceAdjustmentResultDto;
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.service.CertificatePriceService;
+import com.epam.esm.util.CollationUtil;
+import com.epam.esm.util.TransactionUtil;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The type Certificate price service. Matching certificates are adjusted by chunks in ascending id order: the ids of a
+ * chunk are found without locks, then locked by primary key, checked against the criteria again, updated and
+ * committed in their own transaction, so row locks are held for one chunk only and only on the updated rows. If a
+ * chunk fails after others are committed, the number of certificates updated before is returned with the error code.
+ * Cached certificates are invalidated after every chunk, search results and counts once after all chunks.
+ */
+@Service
+public class CertificatePriceServiceImpl implements CertificatePriceService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CertificatePriceServiceImpl.class);
+  private static final String SEARCH_VALUE_PARAMETER = "searchValue";
+  private static final String MIN_PRICE_PARAMETER = "minPrice";
+  private static final String MAX_PRICE_PARAMETER = "maxPrice";
+  private static final BigDecimal MIN_CERTIFICATE_PRICE = BigDecimal.ZERO;
+  private static final BigDecimal MAX_CERTIFICATE_PRICE = BigDecimal.valueOf(10000);
+  private final GiftCertificateMapper giftCertificateMapper;
+  private final CertificateCache certificateCache;
+  private final CertificateSearchCache searchCache;
+  private final CertificateCountStrategy countStrategy;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+
+  /**
+   * Instantiates a new Certificate price service.
+   *
+   * @param giftCertificateMapper the gift certificate mapper
+   * @param certificateCache      the certificate cache
+   * @param searchCache           the certificate search cache
+   * @param countStrategy         the certificate count strategy
+   * @param transactionManager    the transaction manager
+   * @param chunkSize             the number of certificates updated in one transaction
+   */
+  @Autowired
+  public CertificatePriceServiceImpl(GiftCertificateMapper giftCertificateMapper, CertificateCache certificateCache,
+      CertificateSearchCache searchCache, CertificateCountStrategy countStrategy,
+      PlatformTransactionManager transactionManager, @Value("${certificate.price.chunk-size:1000}") int chunkSize) {
+    this.giftCertificateMapper = giftCertificateMapper;
+    this.certificateCache = certificateCache;
+    this.searchCache = searchCache;
+    this.countStrategy = countStrategy;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public PriceAdjustmentResultDto adjustPrices(Map<String, String> parameters, List<String> tags, BigDecimal amount,
+      BigDecimal percent) {
+    Map<String, String> criteria = createCriteria(parameters);
+    List<String> tagNames = tags == null || tags.isEmpty() ? null :
+        tags.stream().map(CollationUtil::normalize).distinct().collect(Collectors.toList());
+    AtomicInteger updatedCount = new AtomicInteger();
+    boolean isChunkCommitted = false;
+    try {
+      long afterId = 0;
+      List<Long> ids;
+      do {
+        ids = giftCertificateMapper.selectIdsByCriteria(tagNames, criteria, afterId, chunkSize);
+        if (!ids.isEmpty()) {
+          List<Long> chunkIds = ids;
+          transactionTemplate.execute(status -> {
+            List<Long> lockedIds = giftCertificateMapper.selectIdsByCriteriaForUpdate(tagNames, criteria, chunkIds);
+            if (!lockedIds.isEmpty()) {
+              updatedCount.addAndGet(giftCertificateMapper.adjustPrices(lockedIds, amount, percent,
+                  MIN_CERTIFICATE_PRICE, MAX_CERTIFICATE_PRICE));
+              TransactionUtil.runAfterCommit(() -> certificateCache.invalidateAll(lockedIds));
+            }
+            return null;
+          });
+          isChunkCommitted = true;
+          afterId = ids.get(ids.size() - 1);
+        }
+      } while (ids.size() == chunkSize);
+    } catch (DataAccessException | TransactionException e) {
+      if (!isChunkCommitted) {
+        throw e;
+      }
+      LOGGER.error("Error adjusting prices, {} certificates are updated before the error", updatedCount.get(), e);
+      return new PriceAdjustmentResultDto(updatedCount.get(), ExceptionType.INTERNAL_SERVER_ERROR.getServerErrorCode());
+    } finally {
+      if (updatedCount.get() > 0) {
+        searchCache.invalidateOnPriceUpdate();
+        countStrategy.invalidate();
+      }
+    }
+    return new PriceAdjustmentResultDto(updatedCount.get());
+  }
+
+  private Map<String, String> createCriteria(Map<String, String> parameters) {
+    Map<String, String> criteria = new HashMap<>();
+    if (parameters.get(SEARCH_VALUE_PARAMETER) != null) {
+      criteria.put(SEARCH_VALUE_PARAMETER, parameters.get(SEARCH_VALUE_PARAMETER));
+    }
+    putPriceValue(criteria, MIN_PRICE_PARAMETER, parameters.get(MIN_PRICE_PARAMETER));
+    putPriceValue(criteria, MAX_PRICE_PARAMETER, parameters.get(MAX_PRICE_PARAMETER));
+    return criteria;
+  }
+
+  private void putPriceValue(Map<String, String> criteria, String parameter, String priceValue) {
+    if (priceValue == null) {
+      return;
+    }
+    try {
+      criteria.put(parameter, new BigDecimal(priceValue).toPlainString());
+    } catch (NumberFormatException e) {
+      throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.epam.esm.service.impl;
+
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.mapper.DeletionTaskMapper;
+import com.epam.esm.model.DeletionTask;
+import com.epam.esm.service.DeletionService;
+import com.epam.esm.util.PaginationUtil;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The type Deletion service.
+ */
+@Service
+public class DeletionServiceImpl implements DeletionService {
+
+  private final DeletionTaskMapper deletionTaskMapper;
+
+  /**
+   * Instantiates a new Deletion service.
+   *
+   * @param deletionTaskMapper the deletion task mapper
+   */
+  @Autowired
+  public DeletionServiceImpl(DeletionTaskMapper deletionTaskMapper) {
+    this.deletionTaskMapper = deletionTaskMapper;
+  }
+
+  @Override
+  public DeletionTask findById(Long id) {
+    return deletionTaskMapper.selectById(id).orElseThrow(() -> new ServerException(ExceptionType.RESOURCE_NOT_FOUND));
+  }
+
+  @Override
+  public EntityListDto<DeletionTask> findAll(Map<String, String> parameters) {
+    return new EntityListDto<>(deletionTaskMapper.selectAll(PaginationUtil.createRowBounds(parameters)));
+  }
+}
\ No newline at end of file
@@ -1,24 +1,54 @@
 package com.epam.esm.service.impl;
 
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.cache.CertificateCache;
+import com.epam.esm.cache.CertificateSearchCache;
+import com.epam.esm.cache.CertificateSearchKey;
+import com.epam.esm.cache.CertificateSearchResult;
+import com.epam.esm.cache.SingleFlight;
+import com.epam.esm.count.CertificateCountStrategy;
+import com.epam.esm.count.CountCriteria;
+import com.epam.esm.count.RecordsCount;
 import com.epam.esm.dto.EntityListDto;
 import com.epam.esm.dto.GiftCertificateUpdateDto;
 import com.epam.esm.dto.GiftCertificateWithTagsDto;
 import com.epam.esm.exception.ExceptionType;
 import com.epam.esm.exception.ServerException;
+import com.epam.esm.index.CertificateTagIndex;
+import com.epam.esm.index.CertificateTextIndex;
+import com.epam.esm.index.TagDictionary;
+import com.epam.esm.mapper.DeletionTaskMapper;
 import com.epam.esm.mapper.GiftCertificateMapper;
 import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.CountedGiftCertificate;
+import com.epam.esm.model.DeletionEntityType;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.model.GiftCertificate;
+import com.epam.esm.model.PageCursor;
 import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagNameMatch;
 import com.epam.esm.service.GiftCertificateService;
+import com.epam.esm.util.CollationUtil;
 import com.epam.esm.util.PaginationUtil;
+import com.epam.esm.util.TransactionUtil;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.session.RowBounds;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -30,24 +60,78 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class GiftCertificateServiceImpl implements GiftCertificateService {
 
+  private static final int MAX_CERTIFICATE_ID_LIST_SIZE = 10000;
+  private static final String SORT_FIELD_PARAMETER = "sortField";
+  private static final String SORT_TYPE_PARAMETER = "sortType";
+  private static final String AFTER_PARAMETER = "after";
+  private static final String SEARCH_VALUE_PARAMETER = "searchValue";
+  private static final String NAME_SORT_FIELD = "name";
+  private static final String CREATE_DATE_SORT_FIELD = "create_date";
+  private static final String LAST_UPDATE_DATE_SORT_FIELD = "last_update_date";
+  private static final String SORT_TYPE_ASC = "asc";
+  private static final String SORT_TYPE_DESC = "desc";
+  private static final Set<String> SORT_FIELDS =
+      Set.of(NAME_SORT_FIELD, CREATE_DATE_SORT_FIELD, LAST_UPDATE_DATE_SORT_FIELD);
   private final GiftCertificateMapper giftCertificateMapper;
   private final TagMapper tagMapper;
+  private final CertificateTagIndex tagIndex;
+  private final CertificateTextIndex textIndex;
+  private final CertificateCountStrategy countStrategy;
+  private final CertificateSearchCache searchCache;
+  private final CertificateCache certificateCache;
+  private final TagDictionary tagDictionary;
+  private final DeletionTaskMapper deletionTaskMapper;
+  private final BatchExecutor batchExecutor;
+  private final SingleFlight<CertificateSearchKey, EntityListDto<GiftCertificateWithTagsDto>> findByCriteriaFlight =
+      new SingleFlight<>();
 
   /**
    * Instantiates a new Gift certificate service.
    *
    * @param giftCertificateMapper the gift certificate mapper
    * @param tagMapper             the tag mapper
+   * @param tagIndex              the certificate tag index
+   * @param textIndex             the certificate text index
+   * @param countStrategy         the certificate count strategy
+   * @param searchCache           the certificate search cache
+   * @param certificateCache      the certificate cache
+   * @param tagDictionary         the tag dictionary
+   * @param deletionTaskMapper    the deletion task mapper
+   * @param batchExecutor         the batch executor
    */
   @Autowired
-  public GiftCertificateServiceImpl(GiftCertificateMapper giftCertificateMapper, TagMapper tagMapper) {
+  public GiftCertificateServiceImpl(GiftCertificateMapper giftCertificateMapper, TagMapper tagMapper,
+      CertificateTagIndex tagIndex, CertificateTextIndex textIndex, CertificateCountStrategy countStrategy,
+      CertificateSearchCache searchCache, CertificateCache certificateCache, TagDictionary tagDictionary,
+      DeletionTaskMapper deletionTaskMapper, BatchExecutor batchExecutor) {
     this.giftCertificateMapper = giftCertificateMapper;
     this.tagMapper = tagMapper;
+    this.tagIndex = tagIndex;
+    this.textIndex = textIndex;
+    this.countStrategy = countStrategy;
+    this.searchCache = searchCache;
+    this.certificateCache = certificateCache;
+    this.tagDictionary = tagDictionary;
+    this.deletionTaskMapper = deletionTaskMapper;
+    this.batchExecutor = batchExecutor;
   }
 
   @Override
   public GiftCertificateWithTagsDto findById(Long id) {
-    return doFindById(id, ExceptionType.RESOURCE_NOT_FOUND);
+    if (certificateCache.isMissing(id)) {
+      throw new ServerException(ExceptionType.RESOURCE_NOT_FOUND);
+    }
+    return certificateCache.get(id, this::loadById);
+  }
+
+  private GiftCertificateWithTagsDto loadById(Long id) {
+    long missingVersion = certificateCache.getMissingVersion();
+    Optional<GiftCertificate> giftCertificate = giftCertificateMapper.selectById(id);
+    if (giftCertificate.isEmpty()) {
+      certificateCache.saveMissing(id, missingVersion);
+      throw new ServerException(ExceptionType.RESOURCE_NOT_FOUND);
+    }
+    return new GiftCertificateWithTagsDto(giftCertificate.get(), tagMapper.selectByCertificateId(id));
   }
 
   private GiftCertificateWithTagsDto doFindById(Long id, ExceptionType exceptionType) {
@@ -59,7 +143,39 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
 
   @Override
   public int delete(Long id) {
-    return giftCertificateMapper.delete(id);
+    Optional<GiftCertificate> certificate = giftCertificateMapper.selectById(id);
+    List<Tag> tags = tagMapper.selectByCertificateId(id);
+    int numberOfDeletedRows = giftCertificateMapper.delete(id);
+    if (numberOfDeletedRows > 0) {
+      invalidateDeletedCertificate(id, certificate, tags);
+    }
+    return numberOfDeletedRows;
+  }
+
+  @Transactional
+  @Override
+  public DeletionTask deleteDeferred(Long id) {
+    Optional<GiftCertificate> certificate = giftCertificateMapper.selectByIdForUpdate(id);
+    List<Tag> tags = tagMapper.selectByCertificateId(id);
+    if (giftCertificateMapper.markDeleted(id) < 1) {
+      throw new ServerException(ExceptionType.RESOURCE_NOT_FOUND);
+    }
+    DeletionTask task = new DeletionTask(DeletionEntityType.CERTIFICATE, id,
+        giftCertificateMapper.countReferences(id));
+    deletionTaskMapper.insert(task);
+    invalidateDeletedCertificate(id, certificate, tags);
+    return task;
+  }
+
+  // the certificate and its tags are read before deletion, so only the trigrams of its text and its own tags are
+  // cleared in the indexes
+  private void invalidateDeletedCertificate(Long id, Optional<GiftCertificate> certificate, List<Tag> tags) {
+    List<String> tagNames = tags.stream().map(Tag::getName).collect(Collectors.toList());
+    TransactionUtil.runAfterCommit(() -> tagIndex.removeCertificate(id, tagNames));
+    certificate.ifPresent(c -> TransactionUtil.runAfterCommit(() -> textIndex.removeCertificate(c)));
+    TransactionUtil.runAfterCommit(searchCache::invalidateAll);
+    TransactionUtil.runAfterCommit(() -> certificateCache.invalidate(id));
+    TransactionUtil.runAfterCommit(countStrategy::invalidate);
   }
 
   @Transactional
@@ -67,7 +183,12 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
   public GiftCertificateWithTagsDto create(GiftCertificateWithTagsDto giftCertificateWithTagsDto) {
     Long certificateId = insertCertificate(giftCertificateWithTagsDto);
     addTagsToCertificate(giftCertificateWithTagsDto, certificateId);
-    return doFindById(certificateId, ExceptionType.ERROR_CREATING_ENTITY);
+    GiftCertificateWithTagsDto createdCertificate = doFindById(certificateId, ExceptionType.ERROR_CREATING_ENTITY);
+    TransactionUtil.runAfterCommit(() -> textIndex.addCertificate(createdCertificate.getGiftCertificate()));
+    TransactionUtil.runAfterCommit(searchCache::invalidateAll);
+    TransactionUtil.runAfterCommit(certificateCache::invalidateMissing);
+    TransactionUtil.runAfterCommit(countStrategy::invalidate);
+    return createdCertificate;
   }
 
   private Long insertCertificate(GiftCertificateWithTagsDto giftCertificateWithTagsDto) {
@@ -79,38 +200,118 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
   private void addTagsToCertificate(GiftCertificateWithTagsDto giftCertificateWithTagsDto, Long giftCertificateId) {
     List<Tag> tags = giftCertificateWithTagsDto.getTags();
     if (tags != null && !tags.isEmpty()) {
-      giftCertificateMapper.insertAssociativeRecords(createTagIdSetForReceivedTags(tags), giftCertificateId);
+      Set<Tag> receivedTags = findOrCreateReceivedTags(tags);
+      giftCertificateMapper.insertAssociativeRecords(collectTagIds(receivedTags), giftCertificateId);
+      TransactionUtil.runAfterCommit(() -> tagIndex.addTags(giftCertificateId, receivedTags));
     }
   }
 
+  /**
+   * Update the certificate: the certificate is read, then its tags are read by one query together with the tags
+   * matching the names for deletion by the column collation, and the tag diff is computed against the tag dictionary.
+   * The field update and the association delete and insert are queued in one batch session and flushed together, the
+   * driver sends every distinct statement as one batch, so they cost up to three back to back executions and no reads.
+   * The last update date is set by the update, so the result is built from the diff without re-reading. Every change
+   * increments the version of the certificate; the changes are applied only if the version is unchanged since the
+   * read, otherwise the transaction is rolled back. Without the expected version the certificate is read with a row
+   * lock, so the version check always succeeds.
+   */
   @Transactional
   @Override
-  public GiftCertificateWithTagsDto update(Long id, GiftCertificateUpdateDto giftCertificateUpdateDto) {
+  public GiftCertificateWithTagsDto update(Long id, GiftCertificateUpdateDto giftCertificateUpdateDto,
+      Long expectedVersion) {
     try {
-      updateCertificateFields(id, giftCertificateUpdateDto.getGiftCertificate());
-      updateCertificateTags(id, giftCertificateUpdateDto.getTagsForAdding(),
-          giftCertificateUpdateDto.getTagsForDeletion());
-      return doFindById(id, ExceptionType.RESOURCE_NOT_FOUND);
+      Optional<GiftCertificate> foundCertificate = expectedVersion == null
+          ? giftCertificateMapper.selectByIdForUpdate(id) : giftCertificateMapper.selectById(id);
+      GiftCertificate certificate = foundCertificate
+          .orElseThrow(() -> new ServerException(ExceptionType.RESOURCE_NOT_FOUND));
+      if (expectedVersion != null && !expectedVersion.equals(certificate.getVersion())) {
+        throw new ServerException(ExceptionType.PRECONDITION_FAILED);
+      }
+      List<TagNameMatch> tagMatches = tagMapper.selectByCertificateIdMatchingNames(id,
+          collectTagNames(giftCertificateUpdateDto.getTagsForDeletion()));
+      List<Tag> currentTags = tagMatches.stream().filter(m -> m.getRequestedName() == null)
+          .map(m -> new Tag(m.getTagId(), m.getTagName())).collect(Collectors.toList());
+      Set<Tag> receivedTags = findReceivedTags(giftCertificateUpdateDto.getTagsForAdding());
+      Set<Long> receivedTagIds = collectTagIds(receivedTags);
+      List<Tag> deletedTags = tagMatches.stream().filter(m -> m.getRequestedName() != null)
+          .filter(m -> !receivedTagIds.contains(m.getTagId())).map(m -> new Tag(m.getTagId(), m.getTagName()))
+          .distinct().collect(Collectors.toList());
+      Set<Long> currentTagIds = collectTagIds(currentTags);
+      List<Tag> addedTags = receivedTags.stream().filter(t -> !currentTagIds.contains(t.getId()))
+          .collect(Collectors.toList());
+      GiftCertificate previousCertificate = new GiftCertificate(id, certificate.getName(),
+          certificate.getDescription(), certificate.getPrice(), certificate.getCreateDate(),
+          certificate.getLastUpdateDate(), certificate.getDuration());
+      GiftCertificate changedFields = giftCertificateUpdateDto.getGiftCertificate();
+      changedFields.setId(id);
+      changedFields.setVersion(certificate.getVersion());
+      if (hasFieldsForUpdate(changedFields) || !deletedTags.isEmpty() || !addedTags.isEmpty()) {
+        // the column keeps whole seconds, so the date of the result is the stored one
+        changedFields.setLastUpdateDate(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        // the update is queued first, so its result is the first one
+        List<BatchResult> results = batchExecutor.executeOnce(GiftCertificateMapper.class, mapper -> {
+          mapper.update(changedFields);
+          if (!deletedTags.isEmpty()) {
+            mapper.deleteAssociativeRecordsByTagIds(id, collectTagIds(deletedTags));
+          }
+          if (!addedTags.isEmpty()) {
+            mapper.insertActiveAssociativeRecords(id, collectTagIds(addedTags));
+          }
+        });
+        if (results.get(0).getUpdateCounts()[0] == 0) {
+          throw new ServerException(ExceptionType.PRECONDITION_FAILED);
+        }
+        mergeChangedFields(certificate, changedFields);
+        certificate.setLastUpdateDate(changedFields.getLastUpdateDate());
+        certificate.setVersion(certificate.getVersion() + 1);
+      }
+      List<Tag> tags = new ArrayList<>(currentTags);
+      tags.removeAll(deletedTags);
+      tags.addAll(addedTags);
+      updateTagIndex(id, deletedTags, addedTags);
+      GiftCertificateWithTagsDto updatedCertificate = new GiftCertificateWithTagsDto(certificate, tags);
+      TransactionUtil.runAfterCommit(() -> textIndex.updateCertificate(previousCertificate,
+          updatedCertificate.getGiftCertificate()));
+      TransactionUtil.runAfterCommit(searchCache::invalidateOnCertificateUpdate);
+      TransactionUtil.runAfterCommit(() -> certificateCache.invalidate(id));
+      TransactionUtil.runAfterCommit(countStrategy::invalidate);
+      return updatedCertificate;
     } catch (DataIntegrityViolationException e) {
       throw new ServerException(ExceptionType.RESOURCE_NOT_FOUND);
     }
   }
 
-  private void updateCertificateFields(Long id, GiftCertificate giftCertificate) {
-    giftCertificate.setId(id);
-    if (hasFieldsForUpdate(giftCertificate)) {
-      giftCertificateMapper.update(giftCertificate);
+  private Set<Tag> findReceivedTags(List<Tag> tagsForAdding) {
+    return tagsForAdding == null || tagsForAdding.isEmpty() ? new HashSet<>() : findOrCreateReceivedTags(tagsForAdding);
+  }
+
+  private Set<String> collectTagNames(List<Tag> tags) {
+    return tags == null ? new HashSet<>() : tags.stream().map(Tag::getName).collect(Collectors.toSet());
+  }
+
+  private void mergeChangedFields(GiftCertificate certificate, GiftCertificate changedFields) {
+    if (changedFields.getName() != null) {
+      certificate.setName(changedFields.getName());
+    }
+    if (changedFields.getDescription() != null) {
+      certificate.setDescription(changedFields.getDescription());
+    }
+    if (changedFields.getPrice() != null) {
+      certificate.setPrice(changedFields.getPrice());
+    }
+    if (changedFields.getDuration() != null) {
+      certificate.setDuration(changedFields.getDuration());
     }
   }
 
-  private void updateCertificateTags(Long id, List<Tag> tagsForAdding, List<Tag> tagsForDeletion) {
-    Set<Long> tagIdSet;
-    if (tagsForDeletion != null && !tagsForDeletion.isEmpty()) {
-      giftCertificateMapper.deleteAssociativeRecords(tagsForDeletion, id);
+  private void updateTagIndex(Long id, List<Tag> deletedTags, List<Tag> addedTags) {
+    if (!deletedTags.isEmpty()) {
+      List<String> deletedTagNames = deletedTags.stream().map(Tag::getName).collect(Collectors.toList());
+      TransactionUtil.runAfterCommit(() -> tagIndex.removeTags(id, deletedTagNames));
     }
-    if (tagsForAdding != null && !tagsForAdding.isEmpty() &&
-        !(tagIdSet = removeAlreadyAddedTagIds(createTagIdSetForReceivedTags(tagsForAdding), id)).isEmpty()) {
-      giftCertificateMapper.insertAssociativeRecords(tagIdSet, id);
+    if (!addedTags.isEmpty()) {
+      TransactionUtil.runAfterCommit(() -> tagIndex.addTags(id, addedTags));
     }
   }
 
@@ -119,40 +320,165 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
         giftCertificate.getPrice() != null || giftCertificate.getDuration() != null;
   }
 
-  private Set<Long> createTagIdSetForReceivedTags(List<Tag> tags) {
-    Set<Tag> existingTags =
-        new HashSet<>(tagMapper.selectByNames(tags.stream().map(Tag::getName).collect(Collectors.toList())));
-    Set<Tag> newTags =
-        createNewTags(tags.stream().filter(t -> !containsTagWithTagName(existingTags, t)).collect(Collectors.toSet()));
-    return Stream.concat(existingTags.stream().map(Tag::getId), newTags.stream().map(Tag::getId))
-        .collect(Collectors.toSet());
+  private Set<Tag> findOrCreateReceivedTags(List<Tag> tags) {
+    return new HashSet<>(
+        tagDictionary.resolve(tags.stream().map(Tag::getName).collect(Collectors.toList())).values());
+  }
+
+  private Set<Long> collectTagIds(Collection<Tag> tags) {
+    return tags.stream().map(Tag::getId).collect(Collectors.toSet());
   }
 
-  private Set<Tag> createNewTags(Set<Tag> tags) {
-    if (!tags.isEmpty()) {
-      tagMapper.insertSet(tags);
+  @Override
+  public EntityListDto<GiftCertificateWithTagsDto> findByCriteria(Map<String, String> parameters, List<String> tags) {
+    RowBounds rowBounds = PaginationUtil.createRowBounds(parameters);
+    validatePriceValues(parameters);
+    boolean isKeysetMode = parameters.containsKey(AFTER_PARAMETER);
+    PageCursor after = isKeysetMode ? decodeAfterParameter(parameters) : null;
+    validateSortValues(parameters);
+    List<String> tagNames = tags == null ? null :
+        tags.stream().map(CollationUtil::normalize).distinct().sorted().collect(Collectors.toList());
+    CertificateSearchKey searchKey = new CertificateSearchKey(tagNames, parameters,
+        isKeysetMode ? parameters.get(AFTER_PARAMETER) : null, rowBounds.getOffset(), rowBounds.getLimit());
+    CertificateSearchResult cachedResult = searchCache.find(searchKey);
+    if (cachedResult != null) {
+      return createCertificateList(cachedResult);
     }
-    return tags;
+    return copyCertificateList(findByCriteriaFlight.load(searchKey,
+        k -> searchAndCache(k, parameters, tagNames, isKeysetMode, after, rowBounds)));
   }
 
-  private boolean containsTagWithTagName(Set<Tag> tags, Tag tag) {
-    return tags.stream().map(Tag::getName).collect(Collectors.toSet()).contains(tag.getName());
+  // callers waiting for the same search share the loaded list, so each of them gets its own copy
+  private EntityListDto<GiftCertificateWithTagsDto> copyCertificateList(
+      EntityListDto<GiftCertificateWithTagsDto> certificateList) {
+    EntityListDto<GiftCertificateWithTagsDto> copy = new EntityListDto<>(
+        certificateList.getGiftCertificatesWithTags().stream().map(GiftCertificateWithTagsDto::new)
+            .collect(Collectors.toList()), certificateList.getPagesCount());
+    copy.setApproximate(certificateList.getApproximate());
+    copy.setNext(certificateList.getNext());
+    return copy;
   }
 
-  private Set<Long> removeAlreadyAddedTagIds(Set<Long> tagIdSet, Long certificateId) {
-    tagIdSet.removeAll(tagMapper.selectTagIdListByTagIdSetAndCertificateId(tagIdSet, certificateId));
-    return tagIdSet;
+  private EntityListDto<GiftCertificateWithTagsDto> searchAndCache(CertificateSearchKey searchKey,
+      Map<String, String> parameters, List<String> tagNames, boolean isKeysetMode, PageCursor after,
+      RowBounds rowBounds) {
+    CertificateSearchResult cachedResult = searchCache.find(searchKey);
+    if (cachedResult != null) {
+      return createCertificateList(cachedResult);
+    }
+    long searchCacheVersion = searchCache.getVersion();
+    EntityListDto<GiftCertificateWithTagsDto> certificateList =
+        searchByCriteria(parameters, tagNames, isKeysetMode, after, rowBounds);
+    searchCache.save(searchKey, searchCacheVersion, new CertificateSearchResult(
+        certificateList.getGiftCertificatesWithTags().stream().map(GiftCertificateWithTagsDto::getId)
+            .collect(Collectors.toList()), certificateList.getPagesCount(), certificateList.getApproximate(),
+        certificateList.getNext()));
+    return certificateList;
   }
 
-  @Override
-  public EntityListDto<GiftCertificateWithTagsDto> findByCriteria(Map<String, String> parameters, List<String> tags) {
-    RowBounds rowBounds = PaginationUtil.createRowBounds(parameters);
-    validatePriceValues(parameters);
-    List<GiftCertificate> certificates =
-        giftCertificateMapper.selectByCriteria(tags, parameters, rowBounds);
-    return new EntityListDto<>(findTagsForGiftCertificates(certificates),
-        PaginationUtil.calculatePagesCount(giftCertificateMapper.getCountOfSuitableRecordsOfFindByCriteria(tags,
-            parameters), rowBounds.getLimit()));
+  private EntityListDto<GiftCertificateWithTagsDto> createCertificateList(CertificateSearchResult searchResult) {
+    EntityListDto<GiftCertificateWithTagsDto> certificateList = new EntityListDto<>(
+        certificateCache.getAll(searchResult.getCertificateIds(), this::findCertificatesByIds),
+        searchResult.getPagesCount());
+    certificateList.setApproximate(searchResult.getApproximate());
+    certificateList.setNext(searchResult.getNext());
+    return certificateList;
+  }
+
+  private Map<Long, GiftCertificateWithTagsDto> findCertificatesByIds(List<Long> certificateIds) {
+    return findTagsForGiftCertificates(giftCertificateMapper.selectByIds(certificateIds)).stream()
+        .collect(Collectors.toMap(GiftCertificateWithTagsDto::getId, Function.identity()));
+  }
+
+  private EntityListDto<GiftCertificateWithTagsDto> searchByCriteria(Map<String, String> parameters,
+      List<String> tagNames, boolean isKeysetMode, PageCursor after, RowBounds rowBounds) {
+    List<String> tags = tagNames;
+    List<Long> certificateIds = null;
+    RoaringBitmap taggedCertificateIds = null;
+    RoaringBitmap candidateIds = null;
+    if (tags != null) {
+      if (tagIndex.isReady()) {
+        taggedCertificateIds = tagIndex.findCertificateIds(tags);
+        candidateIds = taggedCertificateIds.clone();
+      }
+    }
+    String searchValue = parameters.get(SEARCH_VALUE_PARAMETER);
+    RoaringBitmap textCandidateIds = searchValue == null ? null : textIndex.findCandidateIds(searchValue);
+    if (textCandidateIds != null) {
+      if (candidateIds == null) {
+        candidateIds = textCandidateIds;
+      } else {
+        candidateIds.and(textCandidateIds);
+      }
+    }
+    if (candidateIds != null) {
+      if (candidateIds.isEmpty()) {
+        return new EntityListDto<>(new ArrayList<>(), 0);
+      }
+      if (candidateIds.getLongCardinality() <= MAX_CERTIFICATE_ID_LIST_SIZE) {
+        certificateIds = Arrays.stream(candidateIds.toArray()).mapToObj(Long::valueOf).collect(Collectors.toList());
+        if (taggedCertificateIds != null) {
+          tags = null;
+        }
+      }
+    }
+    if (isKeysetMode) {
+      return findPageAfterCursor(tags, certificateIds, parameters, after, rowBounds.getLimit());
+    }
+    return findPageByNumber(tags, certificateIds, parameters, rowBounds,
+        new CountCriteria(tagNames, taggedCertificateIds, parameters));
+  }
+
+  private EntityListDto<GiftCertificateWithTagsDto> findPageAfterCursor(List<String> tags,
+      List<Long> certificateIds, Map<String, String> parameters, PageCursor after, int limit) {
+    List<CountedGiftCertificate> certificates =
+        giftCertificateMapper.selectByCriteria(tags, certificateIds, parameters, after, 0, limit, false);
+    EntityListDto<GiftCertificateWithTagsDto> certificateList =
+        new EntityListDto<>(findTagsForGiftCertificates(certificates));
+    if (certificates.size() == limit) {
+      certificateList.setNext(encodeAfterParameter(certificates.get(certificates.size() - 1), parameters));
+    }
+    return certificateList;
+  }
+
+  private EntityListDto<GiftCertificateWithTagsDto> findPageByNumber(List<String> tags, List<Long> certificateIds,
+      Map<String, String> parameters, RowBounds rowBounds, CountCriteria countCriteria) {
+    RecordsCount knownCount = countStrategy.findCount(countCriteria);
+    List<CountedGiftCertificate> certificates = giftCertificateMapper.selectByCriteria(tags, certificateIds,
+        parameters, null, rowBounds.getOffset(), rowBounds.getLimit(), knownCount == null);
+    RecordsCount recordsCount = knownCount;
+    if (recordsCount != null && recordsCount.isApproximate()) {
+      recordsCount = clampEstimate(recordsCount, rowBounds, certificates.size());
+    }
+    if (recordsCount == null) {
+      int count;
+      if (!certificates.isEmpty()) {
+        count = certificates.get(0).getTotalCount();
+      } else if (rowBounds.getOffset() > 0) {
+        count = giftCertificateMapper.getCountOfSuitableRecordsOfFindByCriteria(tags, certificateIds, parameters);
+      } else {
+        count = 0;
+      }
+      countStrategy.saveCount(countCriteria, count);
+      recordsCount = new RecordsCount(count, false);
+    }
+    EntityListDto<GiftCertificateWithTagsDto> certificateList = new EntityListDto<>(
+        findTagsForGiftCertificates(certificates),
+        PaginationUtil.calculatePagesCount(recordsCount.getCount(), rowBounds.getLimit()));
+    if (recordsCount.isApproximate()) {
+      certificateList.setApproximate(true);
+    }
+    return certificateList;
+  }
+
+  // an estimate is never less than the records up to the end of the returned page; an empty page after the first one
+  // may be beyond the last record, so the records are counted exactly
+  private RecordsCount clampEstimate(RecordsCount estimate, RowBounds rowBounds, int pageSize) {
+    if (pageSize == 0 && rowBounds.getOffset() > 0) {
+      return null;
+    }
+    int returnedCount = rowBounds.getOffset() + pageSize;
+    return estimate.getCount() < returnedCount ? new RecordsCount(returnedCount, true) : estimate;
   }
 
   private void validatePriceValues(Map<String, String> parameters) {
@@ -160,6 +486,55 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
     parameters.put("maxPrice", getCorrectPriceValue(parameters.get("maxPrice")));
   }
 
+  private void validateSortValues(Map<String, String> parameters) {
+    String sortField = parameters.get(SORT_FIELD_PARAMETER);
+    String sortType = parameters.get(SORT_TYPE_PARAMETER);
+    if (sortField == null || !SORT_FIELDS.contains(sortField)) {
+      parameters.put(SORT_FIELD_PARAMETER, CREATE_DATE_SORT_FIELD);
+      parameters.put(SORT_TYPE_PARAMETER, SORT_TYPE_DESC);
+    } else if (!SORT_TYPE_ASC.equals(sortType) && !SORT_TYPE_DESC.equals(sortType)) {
+      parameters.put(SORT_TYPE_PARAMETER, SORT_TYPE_ASC);
+    }
+  }
+
+  private PageCursor decodeAfterParameter(Map<String, String> parameters) {
+    String token = parameters.get(AFTER_PARAMETER);
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+    String[] cursorParts = PaginationUtil.decodeCursor(token);
+    String sortField = cursorParts[0];
+    String sortType = cursorParts[1];
+    if (!SORT_FIELDS.contains(sortField) || !SORT_TYPE_ASC.equals(sortType) && !SORT_TYPE_DESC.equals(sortType)) {
+      throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+    }
+    parameters.put(SORT_FIELD_PARAMETER, sortField);
+    parameters.put(SORT_TYPE_PARAMETER, sortType);
+    try {
+      Object sortValue = NAME_SORT_FIELD.equals(sortField) ? cursorParts[3] : LocalDateTime.parse(cursorParts[3]);
+      return new PageCursor(sortValue, Long.valueOf(cursorParts[2]));
+    } catch (DateTimeParseException | NumberFormatException e) {
+      throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+    }
+  }
+
+  private String encodeAfterParameter(GiftCertificate lastCertificate, Map<String, String> parameters) {
+    String sortField = parameters.get(SORT_FIELD_PARAMETER);
+    Object sortValue;
+    switch (sortField) {
+      case NAME_SORT_FIELD:
+        sortValue = lastCertificate.getName();
+        break;
+      case LAST_UPDATE_DATE_SORT_FIELD:
+        sortValue = lastCertificate.getLastUpdateDate();
+        break;
+      default:
+        sortValue = lastCertificate.getCreateDate();
+    }
+    return PaginationUtil.encodeCursor(sortField, parameters.get(SORT_TYPE_PARAMETER), lastCertificate.getId(),
+        String.valueOf(sortValue));
+  }
+
   private String getCorrectPriceValue(String priceValue) {
     try {
       Double.parseDouble(priceValue);
@@ -169,9 +544,17 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
     }
   }
 
-  private List<GiftCertificateWithTagsDto> findTagsForGiftCertificates(List<GiftCertificate> giftCertificates) {
+  private List<GiftCertificateWithTagsDto> findTagsForGiftCertificates(
+      List<? extends GiftCertificate> giftCertificates) {
+    if (giftCertificates.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, List<Tag>> tagsByCertificateId = new HashMap<>();
+    tagMapper.selectByCertificateIds(giftCertificates.stream().map(GiftCertificate::getId).collect(Collectors.toList()))
+        .forEach(t -> tagsByCertificateId.computeIfAbsent(t.getGiftCertificateId(), id -> new ArrayList<>())
+            .add(new Tag(t.getTagId(), t.getTagName())));
     return giftCertificates.stream()
-        .map(g -> new GiftCertificateWithTagsDto(g, tagMapper.selectByCertificateId(g.getId())))
+        .map(g -> new GiftCertificateWithTagsDto(g, tagsByCertificateId.getOrDefault(g.getId(), new ArrayList<>())))
         .collect(Collectors.toList());
   }
 
@@ -183,8 +566,15 @@ public class GiftCertificateServiceImpl implements GiftCertificateService {
   }
 
   @Override
-  public GiftCertificateWithTagsDto updatePrice(Long id, BigDecimal price) {
-    giftCertificateMapper.updatePrice(id, price);
-    return doFindById(id, ExceptionType.RESOURCE_NOT_FOUND);
+  public GiftCertificateWithTagsDto updatePrice(Long id, BigDecimal price, Long expectedVersion) {
+    int numberOfUpdatedRows = giftCertificateMapper.updatePrice(id, price, expectedVersion);
+    TransactionUtil.runAfterCommit(countStrategy::invalidate);
+    TransactionUtil.runAfterCommit(searchCache::invalidateOnPriceUpdate);
+    TransactionUtil.runAfterCommit(() -> certificateCache.invalidate(id));
+    GiftCertificateWithTagsDto updatedCertificate = doFindById(id, ExceptionType.RESOURCE_NOT_FOUND);
+    if (numberOfUpdatedRows == 0 && expectedVersion != null) {
+      throw new ServerException(ExceptionType.PRECONDITION_FAILED);
+    }
+    return updatedCertificate;
   }
 }
\ No newline at end of file
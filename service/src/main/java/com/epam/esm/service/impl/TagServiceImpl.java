@@ -1,16 +1,27 @@
 package com.epam.esm.service.impl;
 
+import com.epam.esm.cache.CertificateCache;
+import com.epam.esm.cache.CertificateSearchCache;
+import com.epam.esm.count.CertificateCountStrategy;
 import com.epam.esm.dto.EntityListDto;
 import com.epam.esm.exception.ExceptionType;
 import com.epam.esm.exception.ServerException;
+import com.epam.esm.index.CertificateTagIndex;
+import com.epam.esm.index.TagDictionary;
+import com.epam.esm.mapper.DeletionTaskMapper;
 import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.DeletionEntityType;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.model.Tag;
 import com.epam.esm.service.TagService;
 import com.epam.esm.util.PaginationUtil;
+import com.epam.esm.util.TransactionUtil;
+import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * The type Tag service.
@@ -19,21 +30,42 @@ import org.springframework.stereotype.Service;
 public class TagServiceImpl implements TagService {
 
   private final TagMapper tagMapper;
+  private final CertificateTagIndex tagIndex;
+  private final CertificateCountStrategy countStrategy;
+  private final CertificateSearchCache searchCache;
+  private final CertificateCache certificateCache;
+  private final TagDictionary tagDictionary;
+  private final DeletionTaskMapper deletionTaskMapper;
 
   /**
    * Instantiates a new Tag service.
    *
-   * @param tagMapper mapper
+   * @param tagMapper     mapper
+   * @param tagIndex      the certificate tag index
+   * @param countStrategy the certificate count strategy
+   * @param searchCache      the certificate search cache
+   * @param certificateCache the certificate cache
+   * @param tagDictionary    the tag dictionary
+   * @param deletionTaskMapper the deletion task mapper
    */
   @Autowired
-  public TagServiceImpl(TagMapper tagMapper) {
+  public TagServiceImpl(TagMapper tagMapper, CertificateTagIndex tagIndex, CertificateCountStrategy countStrategy,
+      CertificateSearchCache searchCache, CertificateCache certificateCache, TagDictionary tagDictionary,
+      DeletionTaskMapper deletionTaskMapper) {
     this.tagMapper = tagMapper;
+    this.tagIndex = tagIndex;
+    this.countStrategy = countStrategy;
+    this.searchCache = searchCache;
+    this.certificateCache = certificateCache;
+    this.tagDictionary = tagDictionary;
+    this.deletionTaskMapper = deletionTaskMapper;
   }
 
   @Override
   public Tag create(Tag tag) {
     try {
       tagMapper.insert(tag);
+      TransactionUtil.runAfterCommit(() -> tagDictionary.add(tag));
       return tag;
     } catch (DataIntegrityViolationException e) {
       throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
@@ -57,6 +89,36 @@ public class TagServiceImpl implements TagService {
 
   @Override
   public int delete(Long id) {
-    return tagMapper.deleteById(id);
+    List<Long> taggedCertificateIds = tagIndex.isReady() ? tagIndex.findCertificateIdsByTagId(id) : null;
+    int numberOfDeletedRows = tagMapper.deleteById(id);
+    if (numberOfDeletedRows > 0) {
+      invalidateDeletedTag(id, taggedCertificateIds);
+    }
+    return numberOfDeletedRows;
+  }
+
+  @Transactional
+  @Override
+  public DeletionTask deleteDeferred(Long id) {
+    List<Long> taggedCertificateIds = tagIndex.isReady() ? tagIndex.findCertificateIdsByTagId(id) : null;
+    if (tagMapper.markDeleted(id) < 1) {
+      throw new ServerException(ExceptionType.RESOURCE_NOT_FOUND);
+    }
+    DeletionTask task = new DeletionTask(DeletionEntityType.TAG, id, tagMapper.countAssociations(id));
+    deletionTaskMapper.insert(task);
+    invalidateDeletedTag(id, taggedCertificateIds);
+    return task;
+  }
+
+  private void invalidateDeletedTag(Long id, List<Long> taggedCertificateIds) {
+    if (taggedCertificateIds != null) {
+      TransactionUtil.runAfterCommit(() -> certificateCache.invalidateAll(taggedCertificateIds));
+    } else {
+      TransactionUtil.runAfterCommit(certificateCache::invalidateAll);
+    }
+    TransactionUtil.runAfterCommit(() -> tagIndex.removeTag(id));
+    TransactionUtil.runAfterCommit(() -> tagDictionary.remove(id));
+    TransactionUtil.runAfterCommit(countStrategy::invalidate);
+    TransactionUtil.runAfterCommit(searchCache::invalidateOnTagDelete);
   }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.epam.esm.util;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class CollationUtil {
+
+  /**
+   * Orders texts by their normalized form and texts with the same normalized form by their characters, so texts
+   * equal by the column collation are adjacent and every transaction sorting the same texts gets the same order.
+   */
+  public static final Comparator<String> COLLATION_ORDER =
+      Comparator.comparing(CollationUtil::normalize).thenComparing(Comparator.naturalOrder());
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+  private CollationUtil() {
+
+  }
+
+  /**
+   * Normalize the text the way the accent and case insensitive column collation compares it: accents are stripped
+   * from the decomposed characters and the text is lower-cased, so texts differing in accents or case have the same
+   * normalized form.
+   *
+   * @param text the text
+   * @return the normalized text or empty string if the text is null
+   */
+  public static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+        .toLowerCase(Locale.ROOT);
+  }
+}
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.epam.esm.util;
 
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
 import org.apache.ibatis.session.RowBounds;
 
@@ -12,6 +16,8 @@ public class PaginationUtil {
   private static final Integer DEFAULT_PER_PAGE_RECORDS = 10;
   private static final Integer MIN_PER_PAGE_RECORDS = 1;
   private static final Integer MAX_PER_PAGE_RECORDS = 50;
+  private static final String CURSOR_PART_SEPARATOR = "|";
+  private static final int CURSOR_PARTS_COUNT = 4;
 
 
   private PaginationUtil() {
@@ -38,4 +44,37 @@ public class PaginationUtil {
   public static Integer calculatePagesCount(int recordsCount, int pageSize) {
     return (int) Math.ceil((double) recordsCount / pageSize);
   }
+
+  /**
+   * Encode cursor, returns opaque token of the position after the last record of a page.
+   *
+   * @param sortField the sort field
+   * @param sortType  the sort type
+   * @param id        the id of the last record
+   * @param sortValue the sort field value of the last record
+   * @return the cursor token
+   */
+  public static String encodeCursor(String sortField, String sortType, Long id, String sortValue) {
+    String cursor = String.join(CURSOR_PART_SEPARATOR, sortField, sortType, id.toString(), sortValue);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode cursor, returns sort field, sort type, id and sort value encoded in the token.
+   *
+   * @param token the cursor token
+   * @return the cursor parts
+   */
+  public static String[] decodeCursor(String token) {
+    try {
+      String cursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = cursor.split("\\" + CURSOR_PART_SEPARATOR, CURSOR_PARTS_COUNT);
+      if (parts.length != CURSOR_PARTS_COUNT) {
+        throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+      }
+      return parts;
+    } catch (IllegalArgumentException e) {
+      throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+    }
+  }
 }
\ No newline at end of file
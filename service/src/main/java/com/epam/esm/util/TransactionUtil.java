@@ -0,0 +1,30 @@
+package com.epam.esm.util;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtil {
+
+  private TransactionUtil() {
+
+  }
+
+  /**
+   * Runs the action after the current transaction is committed, or immediately if there is no active transaction.
+   * Used for keeping in-memory structures in sync with data that is visible to other connections.
+   *
+   * @param action the action
+   */
+  public static void runAfterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.epam.esm.cache;
+
+import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import com.epam.esm.model.GiftCertificate;
+import com.epam.esm.model.Tag;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CertificateCacheTest {
+
+  private CertificateCache certificateCache;
+  private List<List<Long>> loadedIds;
+  private Function<List<Long>, Map<Long, GiftCertificateWithTagsDto>> loader;
+
+  @Before
+  public void setUp() {
+    certificateCache = new CertificateCache(true, 100, 60);
+    loadedIds = new ArrayList<>();
+    loader = ids -> {
+      loadedIds.add(ids);
+      return ids.stream().filter(id -> id > 0).collect(Collectors.toMap(id -> id, this::createCertificate));
+    };
+  }
+
+  private GiftCertificateWithTagsDto createCertificate(Long id) {
+    return new GiftCertificateWithTagsDto(
+        new GiftCertificate(id, "name", "description", BigDecimal.ONE, null, null, 1), new ArrayList<>());
+  }
+
+  @Test
+  public void getTestCachedCertificateIsNotLoadedAgain() {
+    certificateCache.get(1L, this::createCertificate);
+    GiftCertificateWithTagsDto actual = certificateCache.get(1L, id -> {
+      throw new IllegalStateException();
+    });
+    Assert.assertEquals(Long.valueOf(1L), actual.getId());
+    Assert.assertEquals(Long.valueOf(1L), certificateCache.getStatistics().getHitCount());
+  }
+
+  @Test
+  public void getTestChangesOfReturnedCertificateAreNotCached() {
+    certificateCache.get(1L, this::createCertificate).setName("changed");
+    certificateCache.get(1L, this::createCertificate).getTags().add(new Tag(1L, "sport"));
+    GiftCertificateWithTagsDto actual = certificateCache.get(1L, this::createCertificate);
+    Assert.assertEquals("name", actual.getName());
+    Assert.assertTrue(actual.getTags().isEmpty());
+  }
+
+  @Test
+  public void getAllTestChangesOfReturnedCertificatesAreNotCached() {
+    certificateCache.getAll(Collections.singletonList(1L), loader).get(0).setName("changed");
+    Assert.assertEquals("name", certificateCache.getAll(Collections.singletonList(1L), loader).get(0).getName());
+    Assert.assertEquals(1, loadedIds.size());
+  }
+
+  @Test
+  public void getAllTestOnlyMissingCertificatesAreLoadedInOrder() {
+    certificateCache.get(2L, this::createCertificate);
+    List<GiftCertificateWithTagsDto> actual = certificateCache.getAll(Arrays.asList(3L, -1L, 2L, 1L), loader);
+    Assert.assertEquals(Arrays.asList(3L, 2L, 1L),
+        actual.stream().map(GiftCertificateWithTagsDto::getId).collect(Collectors.toList()));
+    Assert.assertEquals(Collections.singletonList(Arrays.asList(3L, -1L, 1L)), loadedIds);
+  }
+
+  @Test
+  public void invalidateTestInvalidatedCertificateIsLoadedAgain() {
+    certificateCache.getAll(Collections.singletonList(1L), loader);
+    certificateCache.invalidate(1L);
+    certificateCache.getAll(Collections.singletonList(1L), loader);
+    Assert.assertEquals(2, loadedIds.size());
+  }
+
+  @Test
+  public void getTestDisabledCacheAlwaysLoads() {
+    certificateCache = new CertificateCache(false, 100, 60);
+    certificateCache.getAll(Collections.singletonList(1L), loader);
+    certificateCache.getAll(Collections.singletonList(1L), loader);
+    Assert.assertEquals(2, loadedIds.size());
+  }
+
+  @Test
+  public void isMissingTestSavedMissingIdIsRemembered() {
+    certificateCache.saveMissing(5L, certificateCache.getMissingVersion());
+    Assert.assertTrue(certificateCache.isMissing(5L));
+    Assert.assertFalse(certificateCache.isMissing(6L));
+  }
+
+  @Test
+  public void saveMissingTestIdIsNotSavedAfterCertificatesAreCreated() {
+    long missingVersion = certificateCache.getMissingVersion();
+    certificateCache.invalidateMissing();
+    certificateCache.saveMissing(5L, missingVersion);
+    Assert.assertFalse(certificateCache.isMissing(5L));
+  }
+
+  @Test
+  public void invalidateMissingTestMissingIdsAreForgotten() {
+    certificateCache.saveMissing(5L, certificateCache.getMissingVersion());
+    certificateCache.onCertificatesInserted();
+    Assert.assertFalse(certificateCache.isMissing(5L));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.epam.esm.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CertificateSearchCacheTest {
+
+  private CertificateSearchCache searchCache;
+  private CertificateSearchKey defaultSearchKey;
+  private CertificateSearchKey priceSearchKey;
+  private CertificateSearchKey tagSearchKey;
+
+  @Before
+  public void setUp() {
+    searchCache = new CertificateSearchCache(100, 60);
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("sortField", "create_date");
+    parameters.put("sortType", "desc");
+    defaultSearchKey = new CertificateSearchKey(null, parameters, null, 0, 10);
+    tagSearchKey = new CertificateSearchKey(Collections.singletonList("tag"), parameters, null, 0, 10);
+    parameters.put("maxPrice", "20");
+    priceSearchKey = new CertificateSearchKey(null, parameters, null, 0, 10);
+    for (CertificateSearchKey key : new CertificateSearchKey[]{defaultSearchKey, priceSearchKey, tagSearchKey}) {
+      searchCache.save(key, searchCache.getVersion(), new CertificateSearchResult(new ArrayList<>(), 0, null, null));
+    }
+  }
+
+  @Test
+  public void invalidateOnPriceUpdateTestOnlyPriceDependentResultIsRemoved() {
+    searchCache.invalidateOnPriceUpdate();
+    Assert.assertNotNull(searchCache.find(defaultSearchKey));
+    Assert.assertNull(searchCache.find(priceSearchKey));
+    Assert.assertNotNull(searchCache.find(tagSearchKey));
+  }
+
+  @Test
+  public void invalidateOnCertificateUpdateTestDefaultSearchResultIsKept() {
+    searchCache.invalidateOnCertificateUpdate();
+    Assert.assertNotNull(searchCache.find(defaultSearchKey));
+    Assert.assertNull(searchCache.find(priceSearchKey));
+    Assert.assertNull(searchCache.find(tagSearchKey));
+  }
+
+  @Test
+  public void invalidateAllTestNoResultIsKept() {
+    searchCache.invalidateAll();
+    Assert.assertNull(searchCache.find(defaultSearchKey));
+    Assert.assertEquals(Long.valueOf(0), searchCache.getStatistics().getHitCount());
+  }
+
+  @Test
+  public void saveTestResultSearchedBeforeInvalidationIsNotSaved() {
+    long version = searchCache.getVersion();
+    searchCache.invalidateAll();
+    searchCache.save(defaultSearchKey, version, new CertificateSearchResult(new ArrayList<>(), 0, null, null));
+    Assert.assertNull(searchCache.find(defaultSearchKey));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.epam.esm.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+  private static final int CALLERS_COUNT = 8;
+  private SingleFlight<Long, String> singleFlight;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    singleFlight = new SingleFlight<>();
+    executorService = Executors.newFixedThreadPool(CALLERS_COUNT);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void loadTestConcurrentCallersShareOneLoad() throws Exception {
+    AtomicInteger loadsCount = new AtomicInteger();
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch releaseLoad = new CountDownLatch(1);
+    Future<String> leader = executorService.submit(() -> singleFlight.load(1L, k -> {
+      loadsCount.incrementAndGet();
+      loadStarted.countDown();
+      await(releaseLoad);
+      return "value";
+    }));
+    Assert.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+    List<Future<String>> followers = new ArrayList<>();
+    List<Thread> followerThreads = new CopyOnWriteArrayList<>();
+    for (int i = 1; i < CALLERS_COUNT; i++) {
+      followers.add(executorService.submit(() -> {
+        followerThreads.add(Thread.currentThread());
+        return singleFlight.load(1L, k -> {
+          loadsCount.incrementAndGet();
+          return "other value";
+        });
+      }));
+    }
+    awaitWaiting(followerThreads, CALLERS_COUNT - 1);
+    releaseLoad.countDown();
+    Assert.assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+    for (Future<String> follower : followers) {
+      Assert.assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+    }
+    Assert.assertEquals(1, loadsCount.get());
+    Assert.assertEquals(0, singleFlight.getInFlightCount());
+  }
+
+  @Test
+  public void loadTestFailedLoadIsNotRemembered() {
+    try {
+      singleFlight.load(1L, k -> {
+        throw new IllegalStateException();
+      });
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("value", singleFlight.load(1L, k -> "value"));
+    }
+  }
+
+  @Test
+  public void loadTestDifferentKeysAreLoadedSeparately() {
+    Assert.assertEquals("1", singleFlight.load(1L, String::valueOf));
+    Assert.assertEquals("2", singleFlight.load(2L, String::valueOf));
+  }
+
+  private void awaitWaiting(List<Thread> threads, int threadsCount) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (threads.size() < threadsCount || threads.stream().anyMatch(t -> t.getState() != Thread.State.WAITING)) {
+      Assert.assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.epam.esm.count;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachedCertificateCountStrategyTest {
+
+  private CachedCertificateCountStrategy countStrategy;
+  private Map<String, String> parameters;
+
+  @Before
+  public void setUp() {
+    countStrategy = new CachedCertificateCountStrategy(60);
+    parameters = new HashMap<>();
+    parameters.put("searchValue", "value");
+  }
+
+  @Test
+  public void findCountTestSavedCountIsFoundForSameCriteria() {
+    countStrategy.findCount(new CountCriteria(Arrays.asList("b", "a"), null, parameters));
+    countStrategy.saveCount(new CountCriteria(Arrays.asList("b", "a"), null, parameters), 7);
+    RecordsCount actual = countStrategy.findCount(new CountCriteria(Arrays.asList("a", "b"), null, parameters));
+    Assert.assertEquals(7, actual.getCount());
+    Assert.assertFalse(actual.isApproximate());
+  }
+
+  @Test
+  public void findCountTestInvalidatedCountIsNotFound() {
+    CountCriteria criteria = new CountCriteria(null, null, parameters);
+    countStrategy.findCount(criteria);
+    countStrategy.saveCount(criteria, 7);
+    countStrategy.invalidate();
+    Assert.assertNull(countStrategy.findCount(new CountCriteria(null, null, parameters)));
+  }
+
+  @Test
+  public void saveCountTestCountCountedBeforeInvalidationIsNotSaved() {
+    CountCriteria criteria = new CountCriteria(null, null, parameters);
+    countStrategy.findCount(criteria);
+    countStrategy.invalidate();
+    countStrategy.saveCount(criteria, 7);
+    Assert.assertNull(countStrategy.findCount(new CountCriteria(null, null, parameters)));
+  }
+
+  @Test
+  public void findCountTestExpiredCountIsNotFound() {
+    countStrategy = new CachedCertificateCountStrategy(0);
+    CountCriteria criteria = new CountCriteria(null, null, parameters);
+    countStrategy.findCount(criteria);
+    countStrategy.saveCount(criteria, 7);
+    Assert.assertNull(countStrategy.findCount(new CountCriteria(null, null, parameters)));
+  }
+}
\ No newline at end of file
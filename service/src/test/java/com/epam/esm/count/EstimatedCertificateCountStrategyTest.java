@@ -0,0 +1,40 @@
+package com.epam.esm.count;
+
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.mapper.GiftCertificateMapper;
+import java.util.HashMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EstimatedCertificateCountStrategyTest {
+
+  @Mock
+  private GiftCertificateMapper certificateMapper;
+  private EstimatedCertificateCountStrategy countStrategy;
+
+  @Before
+  public void setUp() {
+    countStrategy = new EstimatedCertificateCountStrategy(certificateMapper);
+  }
+
+  @Test
+  public void findCountTestTableStatisticsAreApproximate() {
+    when(certificateMapper.selectEstimatedCount()).thenReturn(120);
+    RecordsCount actual = countStrategy.findCount(new CountCriteria(null, null, new HashMap<>()));
+    Assert.assertEquals(120, actual.getCount());
+    Assert.assertTrue(actual.isApproximate());
+  }
+
+  @Test
+  public void findCountTestMissingTableStatisticsAreCountedExactly() {
+    when(certificateMapper.selectEstimatedCount()).thenReturn(null, 0);
+    Assert.assertNull(countStrategy.findCount(new CountCriteria(null, null, new HashMap<>())));
+    Assert.assertNull(countStrategy.findCount(new CountCriteria(null, null, new HashMap<>())));
+  }
+}
\ No newline at end of file
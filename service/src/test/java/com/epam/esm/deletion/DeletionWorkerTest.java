@@ -0,0 +1,111 @@
+package com.epam.esm.deletion;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.mapper.DeletionTaskMapper;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.DeletionEntityType;
+import com.epam.esm.model.DeletionTask;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DeletionWorkerTest {
+
+  private static final int CHUNK_SIZE = 2;
+  @Mock
+  private DeletionTaskMapper deletionTaskMapper;
+  @Mock
+  private TagMapper tagMapper;
+  @Mock
+  private GiftCertificateMapper certificateMapper;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  private DeletionWorker deletionWorker;
+
+  @Before
+  public void setUp() {
+    deletionWorker = new DeletionWorker(deletionTaskMapper, tagMapper, certificateMapper, transactionManager,
+        CHUNK_SIZE, 0, 1000);
+  }
+
+  private DeletionTask createTask(DeletionEntityType entityType) {
+    DeletionTask task = new DeletionTask(entityType, 5L, 3);
+    task.setId(1L);
+    when(deletionTaskMapper.selectPending()).thenReturn(Collections.singletonList(task));
+    return task;
+  }
+
+  @Test
+  public void processPendingTasksTestTagAssociationsAreDeletedByChunks() {
+    createTask(DeletionEntityType.TAG);
+    when(deletionTaskMapper.lockPending(1L)).thenReturn(true);
+    when(tagMapper.deleteAssociativeRecords(5L, CHUNK_SIZE)).thenReturn(2, 1, 0);
+    deletionWorker.processPendingTasks();
+    InOrder inOrder = inOrder(deletionTaskMapper, tagMapper);
+    inOrder.verify(deletionTaskMapper).addProcessedCount(1L, 2);
+    inOrder.verify(deletionTaskMapper).addProcessedCount(1L, 1);
+    inOrder.verify(tagMapper).deleteMarked(5L);
+    inOrder.verify(deletionTaskMapper).complete(1L);
+  }
+
+  @Test
+  public void processPendingTasksTestPurchasesAreDetachedBeforeAssociationsAreDeleted() {
+    createTask(DeletionEntityType.CERTIFICATE);
+    when(deletionTaskMapper.lockPending(1L)).thenReturn(true);
+    when(certificateMapper.detachPurchases(5L, CHUNK_SIZE)).thenReturn(2, 0);
+    when(certificateMapper.deleteAssociativeRecords(5L, CHUNK_SIZE)).thenReturn(1, 0);
+    deletionWorker.processPendingTasks();
+    InOrder inOrder = inOrder(deletionTaskMapper, certificateMapper);
+    inOrder.verify(certificateMapper).detachPurchases(5L, CHUNK_SIZE);
+    inOrder.verify(deletionTaskMapper).addProcessedCount(1L, 2);
+    inOrder.verify(certificateMapper).deleteAssociativeRecords(5L, CHUNK_SIZE);
+    inOrder.verify(deletionTaskMapper).addProcessedCount(1L, 1);
+    inOrder.verify(certificateMapper).deleteMarked(5L);
+    inOrder.verify(deletionTaskMapper).complete(1L);
+  }
+
+  @Test
+  public void processPendingTasksTestTaskCompletedByAnotherWorkerIsSkipped() {
+    createTask(DeletionEntityType.TAG);
+    when(deletionTaskMapper.lockPending(1L)).thenReturn(false);
+    deletionWorker.processPendingTasks();
+    verify(tagMapper, never()).deleteAssociativeRecords(anyLong(), anyInt());
+    verify(deletionTaskMapper, never()).complete(1L);
+  }
+
+  @Test
+  public void processPendingTasksTestFailedTaskDoesNotStopOtherTasks() {
+    DeletionTask failedTask = new DeletionTask(DeletionEntityType.TAG, 4L, 1);
+    failedTask.setId(2L);
+    DeletionTask task = new DeletionTask(DeletionEntityType.TAG, 5L, 1);
+    task.setId(1L);
+    when(deletionTaskMapper.selectPending()).thenReturn(Arrays.asList(failedTask, task));
+    when(deletionTaskMapper.lockPending(2L)).thenThrow(new CannotCreateTransactionException("connection is lost"));
+    when(deletionTaskMapper.lockPending(1L)).thenReturn(true);
+    deletionWorker.processPendingTasks();
+    verify(tagMapper).deleteMarked(5L);
+    verify(deletionTaskMapper).complete(1L);
+  }
+
+  @Test
+  public void processPendingTasksTestUnexpectedExceptionIsNotThrown() {
+    when(deletionTaskMapper.selectPending()).thenThrow(new IllegalStateException());
+    deletionWorker.processPendingTasks();
+    verify(deletionTaskMapper, never()).lockPending(anyLong());
+  }
+}
\ No newline at end of file
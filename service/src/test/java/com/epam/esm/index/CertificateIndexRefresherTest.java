@@ -0,0 +1,76 @@
+package com.epam.esm.index;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.mapper.GiftCertificateMapper;
+import java.time.LocalDateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.QueryTimeoutException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CertificateIndexRefresherTest {
+
+  private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 5, 1, 10, 0);
+  private static final long LAG = 60;
+  @Mock
+  private GiftCertificateMapper giftCertificateMapper;
+  @Mock
+  private CertificateTagIndex tagIndex;
+  @Mock
+  private CertificateTextIndex textIndex;
+  private CertificateIndexRefresher refresher;
+
+  @Before
+  public void setUp() {
+    refresher = new CertificateIndexRefresher(giftCertificateMapper, tagIndex, textIndex, 3_600_000, LAG);
+    when(giftCertificateMapper.selectCurrentDate()).thenReturn(START_DATE, START_DATE.plusSeconds(10),
+        START_DATE.plusSeconds(20));
+    refresher.start();
+  }
+
+  @After
+  public void tearDown() {
+    refresher.stop();
+  }
+
+  @Test
+  public void refreshTestChangesSincePreviousRefreshMinusLagAreRefreshed() {
+    refresher.refresh();
+    verify(tagIndex).refresh(START_DATE.minusSeconds(LAG));
+    verify(textIndex).refresh(START_DATE.minusSeconds(LAG));
+    refresher.refresh();
+    verify(tagIndex).refresh(START_DATE.plusSeconds(10).minusSeconds(LAG));
+    verify(textIndex).refresh(START_DATE.plusSeconds(10).minusSeconds(LAG));
+  }
+
+  @Test
+  public void refreshTestFailedRefreshIsRepeatedFromSameDate() {
+    doThrow(new QueryTimeoutException("timeout")).doNothing().when(tagIndex).refresh(any());
+    refresher.refresh();
+    refresher.refresh();
+    verify(tagIndex, times(2)).refresh(START_DATE.minusSeconds(LAG));
+  }
+
+  @Test
+  public void refreshTestIndexesAreNotRefreshedWithoutStartDate() {
+    refresher.stop();
+    refresher = new CertificateIndexRefresher(giftCertificateMapper, tagIndex, textIndex, 3_600_000, LAG);
+    when(giftCertificateMapper.selectCurrentDate()).thenThrow(new QueryTimeoutException("timeout"))
+        .thenReturn(START_DATE);
+    refresher.start();
+    refresher.refresh();
+    verify(tagIndex, never()).refresh(any());
+    refresher.refresh();
+    verify(tagIndex).refresh(START_DATE.minusSeconds(LAG));
+  }
+}
\ No newline at end of file
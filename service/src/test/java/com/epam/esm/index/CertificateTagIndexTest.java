@@ -0,0 +1,113 @@
+package com.epam.esm.index;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.dao.QueryTimeoutException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CertificateTagIndexTest {
+
+  private static final LocalDateTime SINCE = LocalDateTime.of(2020, 5, 1, 10, 0);
+  @Mock
+  private TagMapper tagMapper;
+  private CertificateTagIndex tagIndex;
+
+  @Before
+  public void setUp() {
+    tagIndex = new CertificateTagIndex(tagMapper);
+    tagIndex.rebuild();
+    tagIndex.addTags(1L, Arrays.asList(new Tag(1L, "Sport"), new Tag(2L, "food")));
+    tagIndex.addTags(2L, Collections.singletonList(new Tag(1L, "Sport")));
+  }
+
+  @Test
+  public void findCertificateIdsTestCertificatesWithEveryTagAreFound() {
+    Assert.assertEquals(RoaringBitmap.bitmapOf(1), tagIndex.findCertificateIds(Arrays.asList("sport", "FOOD")));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(1, 2), tagIndex.findCertificateIds(Collections.singletonList("sport")));
+  }
+
+  @Test
+  public void findCertificateIdsTestUnknownTagIsNotFound() {
+    Assert.assertTrue(tagIndex.findCertificateIds(Arrays.asList("sport", "travel")).isEmpty());
+  }
+
+  @Test
+  public void findCertificateIdsTestTagIsFoundIgnoringAccents() {
+    tagIndex.addTags(3L, Collections.singletonList(new Tag(3L, "Caf\u00e9")));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(3), tagIndex.findCertificateIds(Collections.singletonList("cafe")));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(3), tagIndex.findCertificateIds(Collections.singletonList("CAF\u00c9")));
+  }
+
+  @Test
+  public void removeCertificateTestOnlyCertificateTagsAreCleared() {
+    tagIndex.removeCertificate(1L, Arrays.asList("Sport", "food"));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(2), tagIndex.findCertificateIds(Collections.singletonList("sport")));
+    Assert.assertTrue(tagIndex.findCertificateIds(Collections.singletonList("food")).isEmpty());
+  }
+
+  @Test
+  public void findCertificateIdsByTagIdTestRemovedTagIsNotFound() {
+    Assert.assertEquals(Arrays.asList(1L, 2L), tagIndex.findCertificateIdsByTagId(1L));
+    tagIndex.removeTag(1L);
+    Assert.assertTrue(tagIndex.findCertificateIdsByTagId(1L).isEmpty());
+  }
+
+  private void mockChangedAssociations(TagGiftCertificate... associations) {
+    doAnswer(invocation -> {
+      ResultHandler<TagGiftCertificate> resultHandler = invocation.getArgument(1);
+      DefaultResultContext<TagGiftCertificate> resultContext = new DefaultResultContext<>();
+      for (TagGiftCertificate association : associations) {
+        resultContext.nextResultObject(association);
+        resultHandler.handleResult(resultContext);
+      }
+      return null;
+    }).when(tagMapper).selectAssociationsChangedSince(eq(SINCE), any());
+  }
+
+  @Test
+  public void refreshTestTagsOfChangedCertificatesAreReplaced() {
+    when(tagMapper.selectActiveIds()).thenReturn(Arrays.asList(1L, 2L, 3L));
+    mockChangedAssociations(new TagGiftCertificate(1L, 2L, "food"), new TagGiftCertificate(1L, 3L, "travel"),
+        new TagGiftCertificate(2L, null, null));
+    tagIndex.refresh(SINCE);
+    Assert.assertTrue(tagIndex.findCertificateIds(Collections.singletonList("sport")).isEmpty());
+    Assert.assertEquals(RoaringBitmap.bitmapOf(1), tagIndex.findCertificateIds(Arrays.asList("food", "travel")));
+  }
+
+  @Test
+  public void refreshTestTagDeletedByAnotherInstanceIsRemoved() {
+    when(tagMapper.selectActiveIds()).thenReturn(Collections.singletonList(2L));
+    tagIndex.refresh(SINCE);
+    Assert.assertTrue(tagIndex.findCertificateIds(Collections.singletonList("sport")).isEmpty());
+    Assert.assertEquals(RoaringBitmap.bitmapOf(1), tagIndex.findCertificateIds(Collections.singletonList("food")));
+  }
+
+  @Test
+  public void refreshTestIndexNotBuiltIsNotRefreshed() {
+    doThrow(new QueryTimeoutException("timeout")).when(tagMapper).selectAllAssociations(any());
+    tagIndex.rebuild();
+    tagIndex.refresh(SINCE);
+    verify(tagMapper, never()).selectAssociationsChangedSince(any(), any());
+  }
+}
\ No newline at end of file
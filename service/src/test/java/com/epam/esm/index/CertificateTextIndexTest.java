@@ -0,0 +1,148 @@
+package com.epam.esm.index;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.model.GiftCertificate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.roaringbitmap.RoaringBitmap;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CertificateTextIndexTest {
+
+  private static final LocalDateTime SINCE = LocalDateTime.of(2020, 5, 1, 10, 0);
+  @Mock
+  private GiftCertificateMapper certificateMapper;
+  private CertificateTextIndex textIndex;
+
+  @Before
+  public void setUp() {
+    textIndex = new CertificateTextIndex(certificateMapper);
+    textIndex.rebuild();
+    textIndex.addCertificate(createCertificate(1L, "Caf\u00e9 Spa", "Relaxing day"));
+    textIndex.addCertificate(createCertificate(2L, "Karting", "Three laps on a track"));
+  }
+
+  private GiftCertificate createCertificate(Long id, String name, String description) {
+    return new GiftCertificate(id, name, description, BigDecimal.ONE, null, null, 1);
+  }
+
+  private GiftCertificate createCertificate(Long id, String name, String description, long version) {
+    GiftCertificate certificate = createCertificate(id, name, description);
+    certificate.setVersion(version);
+    return certificate;
+  }
+
+  private void mockChangedTexts(GiftCertificate... certificates) {
+    doAnswer(invocation -> {
+      ResultHandler<GiftCertificate> resultHandler = invocation.getArgument(1);
+      DefaultResultContext<GiftCertificate> resultContext = new DefaultResultContext<>();
+      for (GiftCertificate certificate : certificates) {
+        resultContext.nextResultObject(certificate);
+        resultHandler.handleResult(resultContext);
+      }
+      return null;
+    }).when(certificateMapper).selectTextsChangedSince(eq(SINCE), any());
+  }
+
+  @Test
+  public void findCandidateIdsTestSearchIsCaseAndAccentInsensitive() {
+    Assert.assertEquals(RoaringBitmap.bitmapOf(1), textIndex.findCandidateIds("CAFE"));
+  }
+
+  @Test
+  public void findCandidateIdsTestDescriptionIsIndexed() {
+    Assert.assertEquals(RoaringBitmap.bitmapOf(2), textIndex.findCandidateIds("laps"));
+  }
+
+  @Test
+  public void findCandidateIdsTestShortOrPatternValueIsNotNarrowed() {
+    Assert.assertNull(textIndex.findCandidateIds("sp"));
+    Assert.assertNull(textIndex.findCandidateIds("caf%"));
+  }
+
+  @Test
+  public void updateCertificateTestOldTextIsNotFound() {
+    textIndex.updateCertificate(createCertificate(2L, "Karting", "Three laps on a track"),
+        createCertificate(2L, "Diving", "One hour under water"));
+    Assert.assertTrue(textIndex.findCandidateIds("karting").isEmpty());
+    Assert.assertEquals(RoaringBitmap.bitmapOf(2), textIndex.findCandidateIds("diving"));
+  }
+
+  @Test
+  public void removeCertificateTestRemovedCertificateIsNotFound() {
+    textIndex.removeCertificate(createCertificate(1L, "Caf\u00e9 Spa", "Relaxing day"));
+    Assert.assertTrue(textIndex.findCandidateIds("cafe").isEmpty());
+  }
+
+  @Test
+  public void removeCertificateTestOtherCertificatesWithSameTrigramsAreFound() {
+    textIndex.addCertificate(createCertificate(3L, "Spa weekend", "Relaxing days"));
+    textIndex.removeCertificate(createCertificate(1L, "Caf\u00e9 Spa", "Relaxing day"));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(3), textIndex.findCandidateIds("relaxing"));
+  }
+
+  @Test
+  public void onCertificatesInsertedTestInsertedCertificatesAreIndexed() {
+    textIndex.onCertificatesInserted(
+        new CertificatesInsertedEvent(Collections.singletonList(createCertificate(3L, "Parachute", "Jump"))));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(3), textIndex.findCandidateIds("chute"));
+  }
+
+  @Test
+  public void updateCertificateTestUpdateArrivingAfterLaterUpdateIsSkipped() {
+    textIndex.updateCertificate(createCertificate(2L, "Diving", "Three laps on a track"),
+        createCertificate(2L, "Karting club", "Three laps on a track", 2));
+    textIndex.updateCertificate(createCertificate(2L, "Karting", "Three laps on a track"),
+        createCertificate(2L, "Diving", "Three laps on a track", 1));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(2), textIndex.findCandidateIds("karting club"));
+  }
+
+  @Test
+  public void updateCertificateTestUpdateArrivingAfterRemovalIsSkipped() {
+    textIndex.removeCertificate(createCertificate(1L, "Caf\u00e9 Spa", "Relaxing day"));
+    textIndex.updateCertificate(createCertificate(1L, "Caf\u00e9 Spa", "Relaxing day"),
+        createCertificate(1L, "Spa weekend", "Relaxing day", 5));
+    Assert.assertTrue(textIndex.findCandidateIds("weekend").isEmpty());
+  }
+
+  @Test
+  public void refreshTestCertificatesChangedByOtherInstancesAreAdded() {
+    mockChangedTexts(createCertificate(3L, "Yoga retreat", "Morning classes", 0));
+    textIndex.refresh(SINCE);
+    Assert.assertEquals(RoaringBitmap.bitmapOf(3), textIndex.findCandidateIds("yoga"));
+  }
+
+  @Test
+  public void refreshTestCertificateWithLaterAppliedVersionIsNotAdded() {
+    textIndex.updateCertificate(createCertificate(2L, "Karting", "Three laps on a track"),
+        createCertificate(2L, "Diving", "Three laps on a track", 3));
+    mockChangedTexts(createCertificate(2L, "Sailing", "Three laps on a track", 2));
+    textIndex.refresh(SINCE);
+    Assert.assertTrue(textIndex.findCandidateIds("sailing").isEmpty());
+  }
+
+  @Test
+  public void refreshTestVersionsAppliedBeforePreviousRefreshAreDropped() {
+    textIndex.updateCertificate(createCertificate(2L, "Karting", "Three laps on a track"),
+        createCertificate(2L, "Diving", "Three laps on a track", 3));
+    textIndex.refresh(SINCE);
+    textIndex.refresh(SINCE);
+    textIndex.updateCertificate(createCertificate(2L, "Diving", "Three laps on a track"),
+        createCertificate(2L, "Sailing", "Three laps on a track", 2));
+    Assert.assertEquals(RoaringBitmap.bitmapOf(2), textIndex.findCandidateIds("sailing"));
+  }
+}
\ No newline at end of file
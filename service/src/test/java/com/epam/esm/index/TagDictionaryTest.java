@@ -0,0 +1,139 @@
+package com.epam.esm.index;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagNameMatch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TagDictionaryTest {
+
+  @Mock
+  private TagMapper tagMapper;
+  private TagDictionary tagDictionary;
+
+  @Before
+  public void setUp() {
+    tagDictionary = new TagDictionary(tagMapper);
+  }
+
+  @Test
+  public void findTestLoadedTagIsFoundIgnoringCase() {
+    when(tagMapper.selectAll(any())).thenReturn(Arrays.asList(new Tag(1L, "Sport"), new Tag(2L, "food")));
+    tagDictionary.load();
+    Assert.assertEquals(new Tag(1L, "Sport"), tagDictionary.find("sPORT"));
+    Assert.assertNull(tagDictionary.find("travel"));
+  }
+
+  @Test
+  public void findTestTagIsFoundIgnoringAccents() {
+    tagDictionary.add(new Tag(3L, "Caf\u00e9"));
+    Assert.assertEquals(new Tag(3L, "Caf\u00e9"), tagDictionary.find("cafe"));
+  }
+
+  @Test
+  public void findTestRemovedTagIsNotFound() {
+    tagDictionary.addAll(Collections.singletonList(new Tag(1L, "sport")));
+    tagDictionary.remove(1L);
+    Assert.assertNull(tagDictionary.find("sport"));
+  }
+
+  @Test
+  public void addTestTagWithoutIdIsNotAdded() {
+    tagDictionary.add(new Tag(null, "sport"));
+    Assert.assertNull(tagDictionary.find("sport"));
+  }
+
+  @Test
+  public void resolveTestKnownTagIsNotQueried() {
+    tagDictionary.add(new Tag(1L, "sport"));
+    when(tagMapper.selectActiveIdsForShare(Collections.singleton(1L))).thenReturn(Collections.singletonList(1L));
+    Map<String, Tag> actual = tagDictionary.resolve(Collections.singletonList("Sport"));
+    Assert.assertEquals(new Tag(1L, "sport"), actual.get("Sport"));
+    verify(tagMapper, never()).insertMissing(any());
+    verify(tagMapper, never()).selectByNamesForShare(any());
+  }
+
+  @Test
+  public void resolveTestUnknownTagNamesAreCreatedOnce() {
+    when(tagMapper.selectByNamesForShare(any())).thenReturn(Arrays.asList(
+        new TagNameMatch("food", 2L, "food"), new TagNameMatch("FOOD", 2L, "food")));
+    Map<String, Tag> actual = tagDictionary.resolve(Arrays.asList("food", "FOOD"));
+    Assert.assertEquals(new Tag(2L, "food"), actual.get("FOOD"));
+    verify(tagMapper).insertMissing(new LinkedHashSet<>(Arrays.asList("food", "FOOD")));
+    Assert.assertEquals(new Tag(2L, "food"), tagDictionary.find("food"));
+  }
+
+  @Test
+  public void resolveTestUnknownTagNamesAreLockedInCollationOrder() {
+    List<String> names = Arrays.asList("yoga", "cafe", "Art", "Caf\u00e9");
+    when(tagMapper.selectByNamesForShare(any())).thenAnswer(invocation -> {
+      Collection<String> requestedNames = invocation.getArgument(0);
+      return requestedNames.stream().map(n -> new TagNameMatch(n, 1L, n)).collect(Collectors.toList());
+    });
+    tagDictionary.resolve(names);
+    tagDictionary.resolve(Arrays.asList("Caf\u00e9", "yoga", "Art", "cafe"));
+    ArgumentCaptor<Collection<String>> insertedNamesCaptor = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<Collection<String>> selectedNamesCaptor = ArgumentCaptor.forClass(Collection.class);
+    verify(tagMapper, times(2)).insertMissing(insertedNamesCaptor.capture());
+    verify(tagMapper, times(2)).selectByNamesForShare(selectedNamesCaptor.capture());
+    List<String> expected = Arrays.asList("Art", "Caf\u00e9", "cafe", "yoga");
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(expected, new ArrayList<>(insertedNamesCaptor.getAllValues().get(i)));
+      Assert.assertEquals(expected, new ArrayList<>(selectedNamesCaptor.getAllValues().get(i)));
+    }
+  }
+
+  @Test
+  public void resolveTestNameDifferingInAccentsResolvesToStoredTag() {
+    when(tagMapper.selectByNamesForShare(any()))
+        .thenReturn(Collections.singletonList(new TagNameMatch("cafe", 3L, "caf\u00e9")));
+    Map<String, Tag> actual = tagDictionary.resolve(Collections.singletonList("cafe"));
+    Assert.assertEquals(new Tag(3L, "caf\u00e9"), actual.get("cafe"));
+  }
+
+  @Test(expected = ServerException.class)
+  public void resolveTestUnmatchedNameIsConflict() {
+    when(tagMapper.selectByNamesForShare(any())).thenReturn(Collections.emptyList());
+    tagDictionary.resolve(Collections.singletonList("food"));
+  }
+
+  @Test
+  public void resolveTestDeletedTagIsEvictedAndResolvedAgain() {
+    tagDictionary.add(new Tag(1L, "sport"));
+    when(tagMapper.selectActiveIdsForShare(Collections.singleton(1L))).thenReturn(Collections.emptyList());
+    when(tagMapper.selectByNamesForShare(Collections.singleton("sport")))
+        .thenReturn(Collections.singletonList(new TagNameMatch("sport", 4L, "sport")));
+    Map<String, Tag> actual = tagDictionary.resolve(Collections.singletonList("sport"));
+    Assert.assertEquals(new Tag(4L, "sport"), actual.get("sport"));
+    verify(tagMapper).insertMissing(Collections.singleton("sport"));
+  }
+
+  @Test
+  public void evictTestEvictedTagIsNotFound() {
+    tagDictionary.add(new Tag(1L, "sport"));
+    tagDictionary.evict(Collections.singletonList("SPORT"));
+    Assert.assertNull(tagDictionary.find("sport"));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.epam.esm.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.dto.CertificateBatchItemDto;
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import com.epam.esm.event.CertificatesInsertedEvent;
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.index.CertificateTagIndex;
+import com.epam.esm.index.TagDictionary;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.model.GiftCertificate;
+import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
+import com.epam.esm.service.impl.CertificateBatchServiceImpl;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CertificateBatchServiceTest {
+
+  private static final int CHUNK_SIZE = 2;
+  @Mock
+  private BatchExecutor batchExecutor;
+  @Mock
+  private GiftCertificateMapper certificateMapper;
+  @Mock
+  private TagDictionary tagDictionary;
+  @Mock
+  private CertificateTagIndex tagIndex;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  private CertificateBatchService batchService;
+  private final AtomicLong lastCertificateId = new AtomicLong();
+
+  @Before
+  public void setUp() {
+    batchService = createBatchService("chunk");
+    doAnswer(invocation -> {
+      List<Object> items = invocation.getArgument(2);
+      BiConsumer<GiftCertificateMapper, Object> statement = invocation.getArgument(3);
+      items.forEach(i -> statement.accept(certificateMapper, i));
+      return null;
+    }).when(batchExecutor).execute(any(), any(), any(), any());
+  }
+
+  private CertificateBatchService createBatchService(String transactionGranularity) {
+    return new CertificateBatchServiceImpl(batchExecutor, tagDictionary, tagIndex, eventPublisher,
+        transactionManager, CHUNK_SIZE, transactionGranularity);
+  }
+
+  private void generateCertificateIds() {
+    doAnswer(invocation -> {
+      GiftCertificate certificate = invocation.getArgument(0);
+      certificate.setId(lastCertificateId.incrementAndGet());
+      return null;
+    }).when(certificateMapper).insert(any());
+  }
+
+  private GiftCertificateWithTagsDto createCertificate(Tag... tags) {
+    return new GiftCertificateWithTagsDto(
+        new GiftCertificate(null, "name", "description", BigDecimal.ONE, null, null, 1), Arrays.asList(tags));
+  }
+
+  @Test
+  public void createAllTestCertificatesAreWrittenByChunks() {
+    generateCertificateIds();
+    EntityListDto<CertificateBatchItemDto> actual = batchService.createAll(
+        Arrays.asList(createCertificate(), createCertificate(), createCertificate()).iterator(), c -> true);
+    Assert.assertEquals(Arrays.asList(1L, 2L, 3L), actual.getGiftCertificatesWithTags().stream()
+        .map(CertificateBatchItemDto::getId).collect(Collectors.toList()));
+    verify(certificateMapper, times(3)).insert(any());
+    verify(eventPublisher, times(2)).publishEvent(any(CertificatesInsertedEvent.class));
+  }
+
+  @Test
+  public void createAllTestIncorrectCertificatesAreReportedInOrder() {
+    generateCertificateIds();
+    GiftCertificateWithTagsDto incorrectCertificate = createCertificate();
+    EntityListDto<CertificateBatchItemDto> actual = batchService.createAll(
+        Arrays.asList(null, createCertificate(), incorrectCertificate).iterator(), c -> c != incorrectCertificate);
+    List<CertificateBatchItemDto> results = actual.getGiftCertificatesWithTags();
+    Assert.assertEquals(Arrays.asList(0, 1, 2),
+        results.stream().map(CertificateBatchItemDto::getIndex).collect(Collectors.toList()));
+    Assert.assertEquals(Arrays.asList(40003, null, 40003),
+        results.stream().map(CertificateBatchItemDto::getErrorCode).collect(Collectors.toList()));
+    Assert.assertEquals(Long.valueOf(1L), results.get(1).getId());
+  }
+
+  @Test
+  public void createAllTestTagsAreAssociatedByOneBatchPerChunk() {
+    generateCertificateIds();
+    Tag sport = new Tag(5L, "sport");
+    Tag food = new Tag(6L, "food");
+    when(tagDictionary.resolve(any())).thenReturn(Map.of("sport", sport, "food", food));
+    batchService.createAll(Arrays.asList(createCertificate(new Tag(null, "sport")),
+        createCertificate(new Tag(null, "sport"), new Tag(null, "food"))).iterator(), c -> true);
+    verify(batchExecutor).execute(any(), eq("insertAssociativeRecord"), eq(Arrays.asList(
+        new TagGiftCertificate(1L, 5L, "sport"), new TagGiftCertificate(2L, 5L, "sport"),
+        new TagGiftCertificate(2L, 6L, "food"))), any());
+    verify(tagIndex).addTags(2L, new LinkedHashSet<>(Arrays.asList(sport, food)));
+  }
+
+  @Test
+  public void createAllTestFailedChunkIsReportedAndOtherChunksAreWritten() {
+    doThrow(QueryTimeoutException.class).doAnswer(invocation -> {
+      GiftCertificate certificate = invocation.getArgument(0);
+      certificate.setId(lastCertificateId.incrementAndGet());
+      return null;
+    }).when(certificateMapper).insert(any());
+    EntityListDto<CertificateBatchItemDto> actual = batchService.createAll(
+        Arrays.asList(createCertificate(), createCertificate(), createCertificate()).iterator(), c -> true);
+    Assert.assertEquals(Arrays.asList(50002, 50002, null), actual.getGiftCertificatesWithTags().stream()
+        .map(CertificateBatchItemDto::getErrorCode).collect(Collectors.toList()));
+    Assert.assertEquals(1, actual.getGiftCertificatesWithTags().stream()
+        .map(CertificateBatchItemDto::getId).filter(Objects::nonNull).count());
+  }
+
+  @Test(expected = ServerException.class)
+  public void createAllTestFailedChunkRollsBackRequestTransaction() {
+    batchService = createBatchService("request");
+    doThrow(DataIntegrityViolationException.class).when(certificateMapper).insert(any());
+    batchService.createAll(Collections.singletonList(createCertificate()).iterator(), c -> true);
+  }
+
+  @Test
+  public void createAllTestTagNamesAreAssociatedByRequestedNames() {
+    generateCertificateIds();
+    Tag cafe = new Tag(7L, "Caf\u00e9");
+    when(tagDictionary.resolve(any())).thenReturn(Map.of("cafe", cafe));
+    batchService.createAll(Collections.singletonList(createCertificate(new Tag(null, "cafe"))).iterator(), c -> true);
+    verify(batchExecutor).execute(any(), eq("insertAssociativeRecord"),
+        eq(Collections.singletonList(new TagGiftCertificate(1L, 7L, "Caf\u00e9"))), any());
+  }
+
+  @Test
+  public void createAllTestConflictingChunkIsReported() {
+    generateCertificateIds();
+    when(tagDictionary.resolve(any())).thenThrow(new ServerException(ExceptionType.RESOURCE_CONFLICT));
+    EntityListDto<CertificateBatchItemDto> actual = batchService.createAll(
+        Collections.singletonList(createCertificate(new Tag(null, "sport"))).iterator(), c -> true);
+    Assert.assertEquals(Integer.valueOf(40901), actual.getGiftCertificatesWithTags().get(0).getErrorCode());
+  }
+
+  @Test
+  public void createAllTestRequestIsReadBeforeTransactionIsOpened() {
+    batchService = createBatchService("request");
+    generateCertificateIds();
+    Iterator<GiftCertificateWithTagsDto> certificates = Arrays.asList(createCertificate(), createCertificate(),
+        createCertificate()).iterator();
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+      Assert.assertFalse(certificates.hasNext());
+      return new SimpleTransactionStatus();
+    });
+    EntityListDto<CertificateBatchItemDto> actual = batchService.createAll(certificates, c -> true);
+    Assert.assertEquals(3, actual.getGiftCertificatesWithTags().size());
+    verify(transactionManager).getTransaction(any());
+  }
+
+  @Test
+  public void createAllTestChunkIsWrittenAgainWithEvictedTagNames() {
+    generateCertificateIds();
+    when(tagDictionary.resolve(any())).thenReturn(Map.of("sport", new Tag(5L, "sport")));
+    doThrow(DataIntegrityViolationException.class).doNothing().when(batchExecutor).execute(
+        eq(GiftCertificateMapper.class), eq("insertAssociativeRecord"),
+        eq(Collections.singletonList(new TagGiftCertificate(1L, 5L, "sport"))), any());
+    EntityListDto<CertificateBatchItemDto> actual = batchService.createAll(
+        Collections.singletonList(createCertificate(new Tag(null, "sport"))).iterator(), c -> true);
+    Assert.assertNull(actual.getGiftCertificatesWithTags().get(0).getErrorCode());
+    verify(tagDictionary).evict(Collections.singleton("sport"));
+    verify(tagDictionary, times(2)).resolve(any());
+  }
+}
\ No newline at end of file
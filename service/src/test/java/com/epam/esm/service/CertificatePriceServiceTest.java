@@ -0,0 +1,129 @@
+package com.epam.esm.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.esm.cache.CertificateCache;
+import com.epam.esm.cache.CertificateSearchCache;
+import com.epam.esm.count.CertificateCountStrategy;
+import com.epam.esm.dto.PriceAdjustmentResultDto;
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.mapper.GiftCertificateMapper;
+import com.epam.esm.service.impl.CertificatePriceServiceImpl;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CertificatePriceServiceTest {
+
+  private static final int CHUNK_SIZE = 2;
+  @Mock
+  private GiftCertificateMapper certificateMapper;
+  @Mock
+  private CertificateCache certificateCache;
+  @Mock
+  private CertificateSearchCache searchCache;
+  @Mock
+  private CertificateCountStrategy countStrategy;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  private CertificatePriceService priceService;
+
+  @Before
+  public void setUp() {
+    priceService = new CertificatePriceServiceImpl(certificateMapper, certificateCache, searchCache, countStrategy,
+        transactionManager, CHUNK_SIZE);
+  }
+
+  @Test
+  public void adjustPricesTestCertificatesAreUpdatedByChunks() {
+    when(certificateMapper.selectIdsByCriteria(any(), any(), eq(0L), eq(CHUNK_SIZE)))
+        .thenReturn(Arrays.asList(1L, 3L));
+    when(certificateMapper.selectIdsByCriteria(any(), any(), eq(3L), eq(CHUNK_SIZE)))
+        .thenReturn(Collections.singletonList(5L));
+    when(certificateMapper.selectIdsByCriteriaForUpdate(any(), any(), eq(Arrays.asList(1L, 3L))))
+        .thenReturn(Arrays.asList(1L, 3L));
+    when(certificateMapper.selectIdsByCriteriaForUpdate(any(), any(), eq(Collections.singletonList(5L))))
+        .thenReturn(Collections.singletonList(5L));
+    when(certificateMapper.adjustPrices(Arrays.asList(1L, 3L), BigDecimal.TEN, null, BigDecimal.ZERO,
+        BigDecimal.valueOf(10000))).thenReturn(2);
+    when(certificateMapper.adjustPrices(Collections.singletonList(5L), BigDecimal.TEN, null, BigDecimal.ZERO,
+        BigDecimal.valueOf(10000))).thenReturn(0);
+    PriceAdjustmentResultDto actual = priceService.adjustPrices(Collections.emptyMap(), null, BigDecimal.TEN, null);
+    Assert.assertEquals(Integer.valueOf(2), actual.getUpdatedCount());
+    Assert.assertNull(actual.getErrorCode());
+    verify(certificateCache).invalidateAll(Arrays.asList(1L, 3L));
+    verify(certificateCache).invalidateAll(Collections.singletonList(5L));
+    verify(searchCache).invalidateOnPriceUpdate();
+    verify(countStrategy).invalidate();
+  }
+
+  @Test
+  public void adjustPricesTestCriteriaAreNormalized() {
+    when(certificateMapper.selectIdsByCriteria(any(), any(), anyLong(), anyInt()))
+        .thenReturn(Collections.emptyList());
+    PriceAdjustmentResultDto actual = priceService.adjustPrices(Map.of("minPrice", "10", "sort", "name"),
+        Arrays.asList("Sport", "sport"), null, BigDecimal.ONE);
+    Assert.assertEquals(Integer.valueOf(0), actual.getUpdatedCount());
+    verify(certificateMapper).selectIdsByCriteria(eq(Collections.singletonList("sport")),
+        eq(Map.of("minPrice", "10")), eq(0L), eq(CHUNK_SIZE));
+    verify(searchCache, never()).invalidateOnPriceUpdate();
+  }
+
+  @Test
+  public void adjustPricesTestChangedCertificatesAreNotUpdated() {
+    when(certificateMapper.selectIdsByCriteria(any(), any(), eq(0L), eq(CHUNK_SIZE)))
+        .thenReturn(Collections.singletonList(1L));
+    when(certificateMapper.selectIdsByCriteriaForUpdate(any(), any(), eq(Collections.singletonList(1L))))
+        .thenReturn(Collections.emptyList());
+    PriceAdjustmentResultDto actual = priceService.adjustPrices(Collections.emptyMap(), null, BigDecimal.TEN, null);
+    Assert.assertEquals(Integer.valueOf(0), actual.getUpdatedCount());
+    verify(certificateMapper, never()).adjustPrices(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void adjustPricesTestFailedChunkReturnsCountOfEarlierChunks() {
+    when(certificateMapper.selectIdsByCriteria(any(), any(), eq(0L), eq(CHUNK_SIZE)))
+        .thenReturn(Arrays.asList(1L, 3L));
+    when(certificateMapper.selectIdsByCriteria(any(), any(), eq(3L), eq(CHUNK_SIZE)))
+        .thenThrow(new QueryTimeoutException("timeout"));
+    when(certificateMapper.selectIdsByCriteriaForUpdate(any(), any(), eq(Arrays.asList(1L, 3L))))
+        .thenReturn(Arrays.asList(1L, 3L));
+    when(certificateMapper.adjustPrices(Arrays.asList(1L, 3L), BigDecimal.TEN, null, BigDecimal.ZERO,
+        BigDecimal.valueOf(10000))).thenReturn(2);
+    PriceAdjustmentResultDto actual = priceService.adjustPrices(Collections.emptyMap(), null, BigDecimal.TEN, null);
+    Assert.assertEquals(Integer.valueOf(2), actual.getUpdatedCount());
+    Assert.assertEquals(Integer.valueOf(ExceptionType.INTERNAL_SERVER_ERROR.getServerErrorCode()),
+        actual.getErrorCode());
+    verify(searchCache).invalidateOnPriceUpdate();
+    verify(countStrategy).invalidate();
+  }
+
+  @Test(expected = QueryTimeoutException.class)
+  public void adjustPricesTestFailedFirstChunkThrowsException() {
+    when(certificateMapper.selectIdsByCriteria(any(), any(), eq(0L), eq(CHUNK_SIZE)))
+        .thenThrow(new QueryTimeoutException("timeout"));
+    priceService.adjustPrices(Collections.emptyMap(), null, BigDecimal.TEN, null);
+  }
+
+  @Test(expected = ServerException.class)
+  public void adjustPricesTestIncorrectPriceCriteriaThrowsException() {
+    priceService.adjustPrices(Map.of("maxPrice", "ten"), null, BigDecimal.ONE, null);
+  }
+}
\ No newline at end of file
@@ -1,20 +1,41 @@
 package com.epam.esm.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.epam.esm.batch.BatchExecutor;
+import com.epam.esm.cache.CertificateCache;
+import com.epam.esm.cache.CertificateSearchCache;
+import com.epam.esm.cache.CertificateSearchResult;
+import com.epam.esm.count.CertificateCountStrategy;
+import com.epam.esm.count.RecordsCount;
 import com.epam.esm.dto.EntityListDto;
 import com.epam.esm.dto.GiftCertificateUpdateDto;
 import com.epam.esm.dto.GiftCertificateWithTagsDto;
 import com.epam.esm.exception.ServerException;
+import com.epam.esm.index.CertificateTagIndex;
+import com.epam.esm.index.CertificateTextIndex;
+import com.epam.esm.index.TagDictionary;
+import com.epam.esm.mapper.DeletionTaskMapper;
 import com.epam.esm.mapper.GiftCertificateMapper;
 import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.CountedGiftCertificate;
+import com.epam.esm.model.DeletionEntityType;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.model.GiftCertificate;
 import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
+import com.epam.esm.model.TagNameMatch;
 import com.epam.esm.service.impl.GiftCertificateServiceImpl;
+import com.epam.esm.util.PaginationUtil;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,14 +43,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.ibatis.executor.BatchResult;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.internal.matchers.apachecommons.ReflectionEquals;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.dao.DataIntegrityViolationException;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -38,8 +65,10 @@ public class GiftCertificateServiceTest {
   private static final long id = 1L;
   private static GiftCertificate certificate;
   private static List<GiftCertificate> certificates;
+  private static List<CountedGiftCertificate> countedCertificates;
   private static Tag tag;
   private static List<Tag> tags;
+  private static List<TagGiftCertificate> tagGiftCertificates;
   private static GiftCertificateWithTagsDto giftCertificateWithTags;
   private static GiftCertificateUpdateDto giftCertificateUpdateDto;
 
@@ -47,6 +76,22 @@ public class GiftCertificateServiceTest {
   private TagMapper tagMapper;
   @Mock
   private GiftCertificateMapper certificateMapper;
+  @Mock
+  private CertificateTagIndex tagIndex;
+  @Mock
+  private CertificateTextIndex textIndex;
+  @Mock
+  private CertificateCountStrategy countStrategy;
+  @Mock
+  private CertificateSearchCache searchCache;
+  @Mock
+  private TagDictionary tagDictionary;
+  @Mock
+  private DeletionTaskMapper deletionTaskMapper;
+  @Mock
+  private BatchExecutor batchExecutor;
+  @Spy
+  private CertificateCache certificateCache = new CertificateCache(false, 0, 0);
   @InjectMocks
   private GiftCertificateServiceImpl certificateService;
 
@@ -54,9 +99,14 @@ public class GiftCertificateServiceTest {
   public static void beforeClass() {
     certificate = new GiftCertificate(id, "name", "description", BigDecimal.valueOf(5),
         null, null, 4);
+    certificate.setVersion(1L);
     certificates = Collections.singletonList(certificate);
+    countedCertificates = Collections.singletonList(new CountedGiftCertificate(id, "name", "description",
+        BigDecimal.valueOf(5), null, null, 4, 1));
+    countedCertificates.get(0).setVersion(1L);
     tag = new Tag(id, "tagName");
     tags = Collections.singletonList(tag);
+    tagGiftCertificates = Collections.singletonList(new TagGiftCertificate(id, id, "tagName"));
     giftCertificateWithTags = new GiftCertificateWithTagsDto(certificate, tags);
     giftCertificateUpdateDto = new GiftCertificateUpdateDto("name", "description",
         BigDecimal.valueOf(5), 4, tags, tags);
@@ -83,9 +133,27 @@ public class GiftCertificateServiceTest {
     verify(certificateMapper).delete(1L);
   }
 
+  @Test
+  public void deleteDeferredTestMarksCertificateAndCreatesTask() {
+    when(certificateMapper.selectByIdForUpdate(1L)).thenReturn(Optional.of(certificate));
+    when(tagMapper.selectByCertificateId(1L)).thenReturn(Collections.singletonList(tag));
+    when(certificateMapper.markDeleted(1L)).thenReturn(1);
+    when(certificateMapper.countReferences(1L)).thenReturn(7);
+    DeletionTask actual = certificateService.deleteDeferred(1L);
+    Assert.assertEquals(new DeletionTask(DeletionEntityType.CERTIFICATE, 1L, 7), actual);
+    verify(deletionTaskMapper).insert(actual);
+    verify(textIndex).removeCertificate(certificate);
+    verify(tagIndex).removeCertificate(1L, Collections.singletonList(tag.getName()));
+  }
+
+  @Test(expected = ServerException.class)
+  public void deleteDeferredTestMissingCertificateThrowsException() {
+    certificateService.deleteDeferred(1L);
+  }
+
   @Test
   public void createTestCreateCertificateAddExistedTagReturnsCertificatesWithTags() {
-    when(tagMapper.selectByNames(any())).thenReturn(tags);
+    when(tagDictionary.resolve(any())).thenReturn(Map.of(tag.getName(), tag));
     when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
     when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
     GiftCertificateWithTagsDto actual = certificateService.create(giftCertificateWithTags);
@@ -94,11 +162,12 @@ public class GiftCertificateServiceTest {
 
   @Test
   public void createTestCreateCertificateInsertNewTagReturnsCertificatesWithTags() {
-    when(tagMapper.selectByNames(any())).thenReturn(new ArrayList<>());
+    when(tagDictionary.resolve(any())).thenReturn(Map.of(tag.getName(), tag));
     when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
     when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
     GiftCertificateWithTagsDto actual = certificateService.create(giftCertificateWithTags);
     Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    verify(certificateMapper).insertAssociativeRecords(Collections.singleton(id), id);
   }
 
   @Test
@@ -128,94 +197,205 @@ public class GiftCertificateServiceTest {
     certificateService.create(giftCertificateWithTags);
   }
 
+  private static GiftCertificate copyCertificate() {
+    GiftCertificate copy = new GiftCertificate(id, "name", "description", BigDecimal.valueOf(5), null, null, 4);
+    copy.setVersion(1L);
+    return copy;
+  }
+
+  private static List<TagNameMatch> createMatches(String requestedName, List<Tag> tags) {
+    return tags.stream().map(t -> new TagNameMatch(requestedName, t.getId(), t.getName()))
+        .collect(Collectors.toList());
+  }
+
+  private void mockBatch(int updatedCount) {
+    when(batchExecutor.executeOnce(eq(GiftCertificateMapper.class), any())).thenAnswer(invocation -> {
+      Consumer<GiftCertificateMapper> statements = invocation.getArgument(1);
+      statements.accept(certificateMapper);
+      BatchResult result = new BatchResult(null, null);
+      result.setUpdateCounts(new int[] {updatedCount});
+      return List.of(result);
+    });
+  }
+
+  private static GiftCertificateWithTagsDto createUpdatedCertificate(String name, String description,
+      BigDecimal price, Integer duration, LocalDateTime lastUpdateDate, List<Tag> tags) {
+    GiftCertificate updatedCertificate = new GiftCertificate(id, name, description, price, null, lastUpdateDate,
+        duration);
+    updatedCertificate.setVersion(2L);
+    return new GiftCertificateWithTagsDto(updatedCertificate, tags);
+  }
+
   @Test(expected = ServerException.class)
   public void updateTestErrorAddingTagToNotExistingCertificateThrowsException() {
-    doThrow(DataIntegrityViolationException.class).when(certificateMapper).insertAssociativeRecords(any(), any());
-    certificateService.update(id, giftCertificateUpdateDto);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagDictionary.resolve(any())).thenReturn(Map.of(tag.getName(), tag));
+    mockBatch(1);
+    doThrow(DataIntegrityViolationException.class).when(certificateMapper).insertActiveAssociativeRecords(any(), any());
+    certificateService.update(id, giftCertificateUpdateDto, null);
   }
 
   @Test(expected = ServerException.class)
   public void updateTestErrorFindingNotExistedCertificateIdThrowsException() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.empty());
-    certificateService.update(id, new GiftCertificateUpdateDto());
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.empty());
+    certificateService.update(id, new GiftCertificateUpdateDto(), null);
   }
 
   @Test
   public void updateTestUpdateNoFieldsForUpdateCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
     GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
-    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate);
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
     Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    verify(certificateMapper, never()).update(any());
   }
 
   @Test
   public void updateTestUpdateNameReturnsCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
+    mockBatch(1);
     GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
-    certificate.setName("name");
-    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate);
-    Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    certificate.setName("newName");
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
+    LocalDateTime lastUpdateDate = actual.getGiftCertificate().getLastUpdateDate();
+    Assert.assertNotNull(lastUpdateDate);
+    Assert.assertTrue(new ReflectionEquals(actual).matches(createUpdatedCertificate("newName", "description",
+        BigDecimal.valueOf(5), 4, lastUpdateDate, tags)));
   }
 
   @Test
   public void updateTestUpdateDescriptionReturnsCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
+    mockBatch(1);
     GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
-    certificate.setDescription("description");
-    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate);
-    Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    certificate.setDescription("newDescription");
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
+    LocalDateTime lastUpdateDate = actual.getGiftCertificate().getLastUpdateDate();
+    Assert.assertNotNull(lastUpdateDate);
+    Assert.assertTrue(new ReflectionEquals(actual).matches(createUpdatedCertificate("name", "newDescription",
+        BigDecimal.valueOf(5), 4, lastUpdateDate, tags)));
   }
 
   @Test
   public void updateTestUpdateDurationReturnsCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
+    mockBatch(1);
     GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
-    certificate.setDuration(4);
-    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate);
-    Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    certificate.setDuration(7);
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
+    LocalDateTime lastUpdateDate = actual.getGiftCertificate().getLastUpdateDate();
+    Assert.assertNotNull(lastUpdateDate);
+    Assert.assertTrue(new ReflectionEquals(actual).matches(createUpdatedCertificate("name", "description",
+        BigDecimal.valueOf(5), 7, lastUpdateDate, tags)));
   }
 
   @Test
   public void updateTestUpdatePriceReturnsCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
+    mockBatch(1);
     GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
     certificate.setPrice(BigDecimal.valueOf(10));
-    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate);
-    Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
+    LocalDateTime lastUpdateDate = actual.getGiftCertificate().getLastUpdateDate();
+    Assert.assertNotNull(lastUpdateDate);
+    Assert.assertTrue(new ReflectionEquals(actual).matches(createUpdatedCertificate("name", "description",
+        BigDecimal.valueOf(10), 4, lastUpdateDate, tags)));
   }
 
   @Test
   public void updateTestUpdateEmptyTagsForUpdateCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
     GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
     certificate.setTagsForDeletion(new ArrayList<>());
     certificate.setTagsForAdding(new ArrayList<>());
-    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate);
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
     Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
   }
 
   @Test
   public void updateTestUpdateReceivedExistedTagsForUpdateCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
-    when(tagMapper.selectTagIdListByTagIdSetAndCertificateId(any(), any())).thenReturn(Collections.singletonList(id));
-    GiftCertificateWithTagsDto actual = certificateService.update(id, giftCertificateUpdateDto);
-    Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    mockBatch(1);
+    when(tagMapper.selectByCertificateIdMatchingNames(eq(id), any())).thenReturn(createMatches(null, tags));
+    when(tagDictionary.resolve(any())).thenReturn(Map.of(tag.getName(), tag));
+    GiftCertificateWithTagsDto actual = certificateService.update(id, giftCertificateUpdateDto, null);
+    Assert.assertEquals(tags, actual.getTags());
+    verify(certificateMapper, never()).deleteAssociativeRecordsByTagIds(any(), any());
+    verify(certificateMapper, never()).insertActiveAssociativeRecords(any(), any());
   }
 
   @Test
   public void updateTestUpdateReceivedNewTagsForUpdateCertificateWithTags() {
-    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
-    when(tagMapper.selectTagIdListByTagIdSetAndCertificateId(any(), any())).thenReturn(new ArrayList<>());
-    GiftCertificateWithTagsDto actual = certificateService.update(id, giftCertificateUpdateDto);
-    Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    mockBatch(1);
+    when(tagDictionary.resolve(any())).thenReturn(Map.of(tag.getName(), tag));
+    GiftCertificateWithTagsDto actual = certificateService.update(id, giftCertificateUpdateDto, null);
+    Assert.assertEquals(tags, actual.getTags());
+    verify(certificateMapper).insertActiveAssociativeRecords(id, Collections.singleton(id));
+    verify(tagIndex).addTags(id, tags);
+  }
+
+  @Test(expected = ServerException.class)
+  public void updateTestExpectedVersionDiffersThrowsException() {
+    when(certificateMapper.selectById(any())).thenReturn(Optional.of(copyCertificate()));
+    GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
+    certificate.setName("newName");
+    certificateService.update(id, certificate, 2L);
+  }
+
+  @Test(expected = ServerException.class)
+  public void updateTestCertificateChangedAfterReadThrowsException() {
+    when(certificateMapper.selectById(any())).thenReturn(Optional.of(copyCertificate()));
+    mockBatch(0);
+    GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
+    certificate.setName("newName");
+    certificateService.update(id, certificate, 1L);
+  }
+
+  @Test
+  public void updateTestExpectedVersionIsPassedToUpdate() {
+    when(certificateMapper.selectById(any())).thenReturn(Optional.of(copyCertificate()));
+    mockBatch(1);
+    GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
+    certificate.setName("newName");
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, 1L);
+    Assert.assertEquals(Long.valueOf(2L), actual.getGiftCertificate().getVersion());
+    verify(certificateMapper, never()).selectByIdForUpdate(any());
+  }
+
+  @Test
+  public void updateTestDeletedTagIsFoundByDatabase() {
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    mockBatch(1);
+    List<TagNameMatch> tagMatches = new ArrayList<>(createMatches(null, tags));
+    tagMatches.addAll(createMatches("TAGNAME", tags));
+    when(tagMapper.selectByCertificateIdMatchingNames(id, Collections.singleton("TAGNAME"))).thenReturn(tagMatches);
+    GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
+    certificate.setTagsForDeletion(Collections.singletonList(new Tag(null, "TAGNAME")));
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
+    Assert.assertTrue(actual.getTags().isEmpty());
+    verify(certificateMapper).deleteAssociativeRecordsByTagIds(id, Collections.singleton(id));
+    verify(tagIndex).removeTags(id, Collections.singletonList("tagName"));
+  }
+
+  @Test
+  public void updateTestLastUpdateDateIsSetByUpdate() {
+    when(certificateMapper.selectByIdForUpdate(any())).thenReturn(Optional.of(copyCertificate()));
+    mockBatch(1);
+    GiftCertificateUpdateDto certificate = new GiftCertificateUpdateDto();
+    certificate.setName("newName");
+    GiftCertificateWithTagsDto actual = certificateService.update(id, certificate, null);
+    ArgumentCaptor<GiftCertificate> certificateCaptor = ArgumentCaptor.forClass(GiftCertificate.class);
+    verify(certificateMapper).update(certificateCaptor.capture());
+    Assert.assertNotNull(certificateCaptor.getValue().getLastUpdateDate());
+    Assert.assertEquals(certificateCaptor.getValue().getLastUpdateDate(),
+        actual.getGiftCertificate().getLastUpdateDate());
   }
 
   @Test
@@ -226,9 +406,12 @@ public class GiftCertificateServiceTest {
     parameters.put("description", "description");
     parameters.put("maxPrice", "20");
     parameters.put("minPrice", "asf");
-    when(certificateMapper.selectByCriteria(any(), any(), any())).thenReturn(certificates);
-    when(certificateMapper.getCountOfSuitableRecordsOfFindByCriteria(any(), any())).thenReturn(1);
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    RoaringBitmap taggedCertificateIds = RoaringBitmap.bitmapOf((int) id);
+    when(tagIndex.isReady()).thenReturn(true);
+    when(tagIndex.findCertificateIds(any())).thenReturn(taggedCertificateIds);
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
+        .thenReturn(countedCertificates);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
     EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(parameters, tagList);
     EntityListDto<GiftCertificateWithTagsDto> expected =
         new EntityListDto<>(Collections.singletonList(giftCertificateWithTags), 1);
@@ -245,9 +428,9 @@ public class GiftCertificateServiceTest {
     List<String> tagList = Arrays.asList("tag", "names");
     parameters.put("name", "value");
     parameters.put("description", "description");
-    when(certificateMapper.selectByCriteria(any(), any(), any())).thenReturn(certificates);
-    when(certificateMapper.getCountOfSuitableRecordsOfFindByCriteria(any(), any())).thenReturn(1);
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
+        .thenReturn(countedCertificates);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
     EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(parameters, tagList);
     EntityListDto<GiftCertificateWithTagsDto> expected =
         new EntityListDto<>(Collections.singletonList(giftCertificateWithTags), 1);
@@ -257,10 +440,132 @@ public class GiftCertificateServiceTest {
         .matches(expected.getGiftCertificatesWithTags().get(0)));
   }
 
+  @Test
+  public void findByCriteriaTestPageBeyondLastFallsBackToCountQuery() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("page", "3");
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
+        .thenReturn(new ArrayList<>());
+    when(certificateMapper.getCountOfSuitableRecordsOfFindByCriteria(any(), any(), any())).thenReturn(11);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(parameters, null);
+    Assert.assertEquals(Integer.valueOf(2), actual.getPagesCount());
+    Assert.assertTrue(actual.getGiftCertificatesWithTags().isEmpty());
+  }
+
+  @Test
+  public void findByCriteriaTestKnownCountSkipsCounting() {
+    when(countStrategy.findCount(any())).thenReturn(new RecordsCount(25, true));
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), eq(false)))
+        .thenReturn(countedCertificates);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(new HashMap<>(), null);
+    Assert.assertEquals(Integer.valueOf(3), actual.getPagesCount());
+    Assert.assertTrue(actual.getApproximate());
+    verify(countStrategy, never()).saveCount(any(), anyInt());
+  }
+
+  @Test
+  public void findByCriteriaTestEstimateIsNotLessThanReturnedRecords() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("page", "3");
+    when(countStrategy.findCount(any())).thenReturn(new RecordsCount(5, true));
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), eq(false)))
+        .thenReturn(countedCertificates);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(parameters, null);
+    Assert.assertEquals(Integer.valueOf(3), actual.getPagesCount());
+    Assert.assertTrue(actual.getApproximate());
+  }
+
+  @Test
+  public void findByCriteriaTestEmptyPageAfterEstimateIsCountedExactly() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("page", "3");
+    when(countStrategy.findCount(any())).thenReturn(new RecordsCount(40, true));
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), eq(false)))
+        .thenReturn(new ArrayList<>());
+    when(certificateMapper.getCountOfSuitableRecordsOfFindByCriteria(any(), any(), any())).thenReturn(11);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(parameters, null);
+    Assert.assertEquals(Integer.valueOf(2), actual.getPagesCount());
+    Assert.assertNull(actual.getApproximate());
+  }
+
+  @Test
+  public void findByCriteriaTestCountedRecordsAreSavedByStrategy() {
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), eq(true)))
+        .thenReturn(countedCertificates);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(new HashMap<>(), null);
+    Assert.assertNull(actual.getApproximate());
+    verify(countStrategy).saveCount(any(), eq(1));
+  }
+
+  @Test
+  public void findByCriteriaTestTextCandidatesAreIntersectedWithTaggedCertificates() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("searchValue", "value");
+    RoaringBitmap taggedCertificateIds = RoaringBitmap.bitmapOf(1);
+    RoaringBitmap textCandidateIds = RoaringBitmap.bitmapOf(2);
+    when(tagIndex.isReady()).thenReturn(true);
+    when(tagIndex.findCertificateIds(any())).thenReturn(taggedCertificateIds);
+    when(textIndex.findCandidateIds("value")).thenReturn(textCandidateIds);
+    EntityListDto<GiftCertificateWithTagsDto> actual =
+        certificateService.findByCriteria(parameters, Collections.singletonList("tag"));
+    Assert.assertTrue(actual.getGiftCertificatesWithTags().isEmpty());
+    verify(certificateMapper, never()).selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean());
+  }
+
+  @Test
+  public void findByCriteriaTestCachedResultIsLoadedByIds() {
+    when(searchCache.find(any())).thenReturn(new CertificateSearchResult(Arrays.asList(2L, id), 3, null, null));
+    GiftCertificate secondCertificate = new GiftCertificate(2L, "second", "description", BigDecimal.valueOf(5),
+        null, null, 4);
+    when(certificateMapper.selectByIds(any())).thenReturn(Arrays.asList(certificate, secondCertificate));
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(new HashMap<>(), null);
+    Assert.assertEquals(Integer.valueOf(3), actual.getPagesCount());
+    Assert.assertEquals(Long.valueOf(2L), actual.getGiftCertificatesWithTags().get(0).getId());
+    Assert.assertEquals(Long.valueOf(id), actual.getGiftCertificatesWithTags().get(1).getId());
+    verify(certificateMapper, never()).selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean());
+  }
+
+  @Test
+  public void findByCriteriaTestNoCertificatesWithAllTagNamesReturnsEmptyList() {
+    when(tagIndex.isReady()).thenReturn(true);
+    when(tagIndex.findCertificateIds(any())).thenReturn(new RoaringBitmap());
+    EntityListDto<GiftCertificateWithTagsDto> actual =
+        certificateService.findByCriteria(new HashMap<>(), Arrays.asList("tag", "names"));
+    Assert.assertEquals(Integer.valueOf(0), actual.getPagesCount());
+    Assert.assertTrue(actual.getGiftCertificatesWithTags().isEmpty());
+    verify(certificateMapper, never()).selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean());
+  }
+
+  @Test
+  public void findByCriteriaTestKeysetModeReturnsNextCursorWithoutCounting() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("after", "");
+    parameters.put("perPage", "1");
+    parameters.put("sortField", "name");
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
+        .thenReturn(countedCertificates);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByCriteria(parameters, null);
+    Assert.assertNull(actual.getPagesCount());
+    Assert.assertArrayEquals(new String[]{"name", "asc", "1", "name"}, PaginationUtil.decodeCursor(actual.getNext()));
+    verify(certificateMapper, never()).getCountOfSuitableRecordsOfFindByCriteria(any(), any(), any());
+  }
+
+  @Test(expected = ServerException.class)
+  public void findByCriteriaTestIncorrectCursorThrowsException() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("after", PaginationUtil.encodeCursor("price", "asc", id, "5"));
+    certificateService.findByCriteria(parameters, null);
+  }
+
   @Test
   public void findByUserIdTestFoundCertificatesWithTags() {
     when(certificateMapper.selectByUserId(any(), any())).thenReturn(certificates);
-    when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(tagGiftCertificates);
     EntityListDto<GiftCertificateWithTagsDto> expected =
         new EntityListDto<>(Collections.singletonList(giftCertificateWithTags));
     EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByUserId(1L, new HashMap<>());
@@ -269,18 +574,39 @@ public class GiftCertificateServiceTest {
         .matches(expected.getGiftCertificatesWithTags().get(0)));
   }
 
+  @Test
+  public void findByUserIdTestTagsAreGroupedByCertificate() {
+    GiftCertificate secondCertificate = new GiftCertificate(2L, "second", "description", BigDecimal.valueOf(5),
+        null, null, 4);
+    when(certificateMapper.selectByUserId(any(), any())).thenReturn(Arrays.asList(certificate, secondCertificate));
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(Arrays.asList(new TagGiftCertificate(2L, 1L, "first"),
+        new TagGiftCertificate(2L, 2L, "second")));
+    EntityListDto<GiftCertificateWithTagsDto> actual = certificateService.findByUserId(1L, new HashMap<>());
+    Assert.assertTrue(actual.getGiftCertificatesWithTags().get(0).getTags().isEmpty());
+    Assert.assertEquals(Arrays.asList(new Tag(1L, "first"), new Tag(2L, "second")),
+        actual.getGiftCertificatesWithTags().get(1).getTags());
+    verify(tagMapper, never()).selectByCertificateId(any());
+  }
+
   @Test(expected = ServerException.class)
   public void updatePriceTestNotExistedCertificateThrowsException() {
     when(certificateMapper.selectById(any())).thenReturn(Optional.empty());
-    certificateService.updatePrice(1L, BigDecimal.valueOf(10.5));
+    certificateService.updatePrice(1L, BigDecimal.valueOf(10.5), null);
+  }
+
+  @Test(expected = ServerException.class)
+  public void updatePriceTestExpectedVersionDiffersThrowsException() {
+    when(certificateMapper.updatePrice(any(), any(), any())).thenReturn(0);
+    when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
+    certificateService.updatePrice(1L, BigDecimal.valueOf(10.5), 2L);
   }
 
   @Test
   public void updatePriceTestCorrectPriceUpdate() {
     when(certificateMapper.selectById(any())).thenReturn(Optional.of(certificate));
     when(tagMapper.selectByCertificateId(any())).thenReturn(tags);
-    certificateService.updatePrice(1L, BigDecimal.valueOf(10.5));
-    GiftCertificateWithTagsDto actual = certificateService.updatePrice(1L, BigDecimal.valueOf(10.5));
+    certificateService.updatePrice(1L, BigDecimal.valueOf(10.5), null);
+    GiftCertificateWithTagsDto actual = certificateService.updatePrice(1L, BigDecimal.valueOf(10.5), null);
     Assert.assertTrue(new ReflectionEquals(actual).matches(giftCertificateWithTags));
   }
 }
\ No newline at end of file
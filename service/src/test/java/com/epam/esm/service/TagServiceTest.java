@@ -6,13 +6,23 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.epam.esm.cache.CertificateCache;
+import com.epam.esm.cache.CertificateSearchCache;
+import com.epam.esm.count.CertificateCountStrategy;
 import com.epam.esm.dto.EntityListDto;
 import com.epam.esm.exception.ServerException;
+import com.epam.esm.index.CertificateTagIndex;
+import com.epam.esm.index.TagDictionary;
+import com.epam.esm.mapper.DeletionTaskMapper;
 import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.DeletionEntityType;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.model.Tag;
 import com.epam.esm.service.impl.TagServiceImpl;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -29,6 +39,18 @@ public class TagServiceTest {
   private static Tag tag;
   @Mock
   private TagMapper tagMapper;
+  @Mock
+  private CertificateTagIndex tagIndex;
+  @Mock
+  private CertificateCountStrategy countStrategy;
+  @Mock
+  private CertificateSearchCache searchCache;
+  @Mock
+  private CertificateCache certificateCache;
+  @Mock
+  private TagDictionary tagDictionary;
+  @Mock
+  private DeletionTaskMapper deletionTaskMapper;
   @InjectMocks
   private TagServiceImpl tagService;
 
@@ -43,6 +65,12 @@ public class TagServiceTest {
     Assert.assertEquals(tag, actual);
   }
 
+  @Test
+  public void createTestAddsCreatedTagToDictionary() {
+    tagService.create(tag);
+    verify(tagDictionary).add(tag);
+  }
+
   @Test(expected = ServerException.class)
   public void createTestInsertNewTagThrowsException() {
     doThrow(DataIntegrityViolationException.class).when(tagMapper).insert(any());
@@ -82,4 +110,47 @@ public class TagServiceTest {
     tagService.delete(tagId);
     verify(tagMapper).deleteById(tagId);
   }
+
+  @Test
+  public void deleteTestRemovesDeletedTagFromIndex() {
+    long tagId = 1L;
+    when(tagMapper.deleteById(tagId)).thenReturn(1);
+    tagService.delete(tagId);
+    verify(tagIndex).removeTag(tagId);
+  }
+
+  @Test
+  public void deleteTestInvalidatesCachedCertificatesMarkedWithTag() {
+    long tagId = 1L;
+    List<Long> taggedCertificateIds = Arrays.asList(3L, 5L);
+    when(tagIndex.isReady()).thenReturn(true);
+    when(tagIndex.findCertificateIdsByTagId(tagId)).thenReturn(taggedCertificateIds);
+    when(tagMapper.deleteById(tagId)).thenReturn(1);
+    tagService.delete(tagId);
+    verify(certificateCache).invalidateAll(taggedCertificateIds);
+  }
+
+  @Test
+  public void deleteTestRemovesDeletedTagFromDictionary() {
+    long tagId = 1L;
+    when(tagMapper.deleteById(tagId)).thenReturn(1);
+    tagService.delete(tagId);
+    verify(tagDictionary).remove(tagId);
+  }
+
+  @Test
+  public void deleteDeferredTestMarksTagAndCreatesTask() {
+    long tagId = 1L;
+    when(tagMapper.markDeleted(tagId)).thenReturn(1);
+    when(tagMapper.countAssociations(tagId)).thenReturn(3);
+    DeletionTask actual = tagService.deleteDeferred(tagId);
+    Assert.assertEquals(new DeletionTask(DeletionEntityType.TAG, tagId, 3), actual);
+    verify(deletionTaskMapper).insert(actual);
+    verify(tagDictionary).remove(tagId);
+  }
+
+  @Test(expected = ServerException.class)
+  public void deleteDeferredTestMissingTagThrowsException() {
+    tagService.deleteDeferred(1L);
+  }
 }
\ No newline at end of file
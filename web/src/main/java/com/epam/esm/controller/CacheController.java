@@ -0,0 +1,44 @@
+package com.epam.esm.controller;
+
+import com.epam.esm.dto.CacheStatisticsDto;
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.service.CacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The type Cache controller. The class used for processing cache monitoring requests.
+ */
+@RestController
+@RequestMapping(value = "/api/caches", produces = MediaType.APPLICATION_JSON_VALUE)
+public class CacheController {
+
+  private final CacheService cacheService;
+
+  /**
+   * Instantiates a new Cache controller.
+   *
+   * @param cacheService the cache service
+   */
+  @Autowired
+  public CacheController(CacheService cacheService) {
+    this.cacheService = cacheService;
+  }
+
+  /**
+   * Find cache statistics returns response.
+   *
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @GetMapping()
+  public ResponseEntity<EntityListDto<CacheStatisticsDto>> findCacheStatistics() {
+    return ResponseEntity.status(HttpStatus.OK.value()).body(cacheService.findStatistics());
+  }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.epam.esm.controller;
+
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.model.DeletionTask;
+import com.epam.esm.service.DeletionService;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The type Deletion controller. The class used for processing requests for progress of deferred deletions.
+ */
+@RestController
+@RequestMapping(value = "/api/deletions", produces = MediaType.APPLICATION_JSON_VALUE)
+public class DeletionController {
+
+  private final DeletionService deletionService;
+
+  /**
+   * Instantiates a new Deletion controller.
+   *
+   * @param deletionService the deletion service
+   */
+  @Autowired
+  public DeletionController(DeletionService deletionService) {
+    this.deletionService = deletionService;
+  }
+
+  /**
+   * Find deletion task by id returns response.
+   *
+   * @param id the task id
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @GetMapping(value = "/{id}")
+  public ResponseEntity<DeletionTask> findDeletionById(@PathVariable Long id) {
+    return ResponseEntity.status(HttpStatus.OK.value()).body(deletionService.findById(id));
+  }
+
+  /**
+   * Find all deletion tasks returns response.
+   *
+   * @param parameters the parameters
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @GetMapping()
+  public ResponseEntity<EntityListDto<DeletionTask>> findAllDeletions(@RequestParam Map<String, String> parameters) {
+    return ResponseEntity.status(HttpStatus.OK.value()).body(deletionService.findAll(parameters));
+  }
+}
\ No newline at end of file
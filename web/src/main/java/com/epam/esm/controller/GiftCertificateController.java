@@ -1,20 +1,34 @@
 package com.epam.esm.controller;
 
+import com.epam.esm.dto.CertificateBatchItemDto;
 import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.dto.GiftCertificatePriceAdjustmentDto;
 import com.epam.esm.dto.GiftCertificatePriceDto;
 import com.epam.esm.dto.GiftCertificateUpdateDto;
 import com.epam.esm.dto.GiftCertificateWithTagsDto;
+import com.epam.esm.dto.PriceAdjustmentResultDto;
 import com.epam.esm.exception.ExceptionType;
 import com.epam.esm.exception.ServerException;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.security.SecurityUserDetails;
+import com.epam.esm.service.CertificateBatchService;
+import com.epam.esm.service.CertificatePriceService;
 import com.epam.esm.service.GiftCertificateService;
 import com.epam.esm.validation.GiftCertificateValidator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -24,6 +38,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -35,16 +50,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/api/certificates", produces = MediaType.APPLICATION_JSON_VALUE)
 public class GiftCertificateController {
 
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+  private static final String ANY_ENTITY_TAG = "*";
+  private static final Pattern ENTITY_TAG_PATTERN = Pattern.compile("\"(\\d{1,18})\"");
   private final GiftCertificateService certificateService;
+  private final CertificateBatchService batchService;
+  private final CertificatePriceService priceService;
+  private final ObjectReader certificateReader = Jackson2ObjectMapperBuilder.json().failOnUnknownProperties(true)
+      .build().readerFor(GiftCertificateWithTagsDto.class);
 
   /**
    * Instantiates a new Gift certificate controller.
    *
    * @param certificateService the certificate service
+   * @param batchService       the certificate batch service
+   * @param priceService       the certificate price service
    */
   @Autowired
-  public GiftCertificateController(GiftCertificateService certificateService) {
+  public GiftCertificateController(GiftCertificateService certificateService, CertificateBatchService batchService,
+      CertificatePriceService priceService) {
     this.certificateService = certificateService;
+    this.batchService = batchService;
+    this.priceService = priceService;
   }
 
   /**
@@ -65,6 +92,51 @@ public class GiftCertificateController {
         .body(certificateService.create(giftCertificateWithTagsDto));
   }
 
+  /**
+   * Create gift certificates with tags returns results of creating every certificate.
+   *
+   * @param certificates the certificates with tags
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<EntityListDto<CertificateBatchItemDto>> createCertificates(
+      @RequestBody List<GiftCertificateWithTagsDto> certificates) {
+    return ResponseEntity
+        .status(HttpStatus.OK.value())
+        .body(batchService.createAll(certificates.iterator(),
+            GiftCertificateValidator::isValidGiftCertificateValuesForCreate));
+  }
+
+  /**
+   * Create gift certificates with tags from the stream of certificates separated by new lines returns results of
+   * creating every certificate. The stream is read while certificates are written, unreadable lines are reported as
+   * incorrect certificates.
+   *
+   * @param request the request
+   * @return the service response
+   * @throws IOException if the request body can not be read
+   */
+  @Secured("ROLE_ADMIN")
+  @PostMapping(value = "/batch", consumes = NDJSON_MEDIA_TYPE)
+  public ResponseEntity<EntityListDto<CertificateBatchItemDto>> createCertificatesFromStream(
+      HttpServletRequest request) throws IOException {
+    try (BufferedReader reader = request.getReader()) {
+      return ResponseEntity
+          .status(HttpStatus.OK.value())
+          .body(batchService.createAll(reader.lines().filter(l -> !l.isBlank()).map(this::readCertificate).iterator(),
+              GiftCertificateValidator::isValidGiftCertificateValuesForCreate));
+    }
+  }
+
+  private GiftCertificateWithTagsDto readCertificate(String line) {
+    try {
+      return certificateReader.readValue(line);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
   /**
    * Find by id service returns response.
    *
@@ -73,9 +145,7 @@ public class GiftCertificateController {
    */
   @GetMapping(value = "/{id}")
   public ResponseEntity<GiftCertificateWithTagsDto> findCertificateById(@PathVariable Long id) {
-    return ResponseEntity
-        .status(HttpStatus.OK.value())
-        .body(certificateService.findById(id));
+    return createVersionedResponse(certificateService.findById(id));
   }
 
   /**
@@ -124,37 +194,87 @@ public class GiftCertificateController {
   }
 
   /**
-   * Update certificate with tags returns service response.
+   * Update certificate with tags returns service response. If the If-Match header is passed, the certificate is
+   * updated only if its ETag matches.
    *
    * @param id                       the id of updating resource
+   * @param ifMatch                  the If-Match header
    * @param giftCertificateUpdateDto the gift certificate update dto
    * @return the service response
    */
   @Secured("ROLE_ADMIN")
   @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<GiftCertificateWithTagsDto> updateCertificate(@PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @RequestBody GiftCertificateUpdateDto giftCertificateUpdateDto) {
     if (!GiftCertificateValidator.isValidGiftCertificateValuesForUpdate(giftCertificateUpdateDto)) {
       throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
     }
-    return ResponseEntity.status(HttpStatus.OK).body(certificateService.update(id, giftCertificateUpdateDto));
+    return createVersionedResponse(
+        certificateService.update(id, giftCertificateUpdateDto, parseExpectedVersion(ifMatch)));
   }
 
   /**
-   * Update price response entity.
+   * Update price response entity. If the If-Match header is passed, the price is updated only if the ETag of the
+   * certificate matches.
    *
-   * @param id    the id
-   * @param price the price
+   * @param id      the id
+   * @param ifMatch the If-Match header
+   * @param price   the price
    * @return the response entity
    */
   @Secured("ROLE_ADMIN")
   @PutMapping(value = "/{id}", params = "price", consumes = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<GiftCertificateWithTagsDto> updatePrice(@PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @RequestBody GiftCertificatePriceDto price) {
     if (price.getPrice() == null || !GiftCertificateValidator.isValidCertificatePrice(price.getPrice())) {
       throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
     }
-    return ResponseEntity.status(HttpStatus.OK.value()).body(certificateService.updatePrice(id, price.getPrice()));
+    return createVersionedResponse(
+        certificateService.updatePrice(id, price.getPrice(), parseExpectedVersion(ifMatch)));
+  }
+
+  /**
+   * Adjust prices of all certificates matching the search criteria by the amount or by the percent returns the number
+   * of updated certificates. Certificates whose adjusted price would be out of the allowed range are not updated.
+   *
+   * @param parameters the search parameters
+   * @param tags       the tags
+   * @param adjustment the price adjustment
+   * @return the response entity
+   */
+  @Secured("ROLE_ADMIN")
+  @PostMapping(value = "/prices", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<PriceAdjustmentResultDto> adjustPrices(@RequestParam Map<String, String> parameters,
+      @RequestParam(value = "tag", required = false) List<String> tags,
+      @RequestBody GiftCertificatePriceAdjustmentDto adjustment) {
+    if (!GiftCertificateValidator.isValidPriceAdjustment(adjustment)) {
+      throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+    }
+    return ResponseEntity
+        .status(HttpStatus.OK.value())
+        .body(priceService.adjustPrices(parameters, tags, adjustment.getAmount(), adjustment.getPercent()));
+  }
+
+  private Long parseExpectedVersion(String ifMatch) {
+    if (ifMatch == null || ANY_ENTITY_TAG.equals(ifMatch.trim())) {
+      return null;
+    }
+    Matcher matcher = ENTITY_TAG_PATTERN.matcher(ifMatch.trim());
+    if (!matcher.matches()) {
+      throw new ServerException(ExceptionType.PRECONDITION_FAILED);
+    }
+    return Long.valueOf(matcher.group(1));
+  }
+
+  private ResponseEntity<GiftCertificateWithTagsDto> createVersionedResponse(GiftCertificateWithTagsDto certificate) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK.value());
+    Long version = certificate.getGiftCertificate().getVersion();
+    if (version != null) {
+      response.eTag(version.toString());
+    }
+    return response.body(certificate);
   }
 
   /**
@@ -172,4 +292,17 @@ public class GiftCertificateController {
     }
     return ResponseEntity.status(HttpStatus.OK).build();
   }
+
+  /**
+   * Delete certificate deferred returns the deletion task. The certificate is hidden at once, its tag associations
+   * and purchase references are removed in the background.
+   *
+   * @param id the id of deleting resource
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @DeleteMapping(value = "/{id}", params = "deferred")
+  public ResponseEntity<DeletionTask> deleteCertificateDeferred(@PathVariable Long id) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED.value()).body(certificateService.deleteDeferred(id));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.epam.esm.controller;
+
+import com.epam.esm.dto.EntityListDto;
+import com.epam.esm.dto.StageStatisticsDto;
+import com.epam.esm.dto.StageThreadCountDto;
+import com.epam.esm.exception.ExceptionType;
+import com.epam.esm.exception.ServerException;
+import com.epam.esm.processor.IngestionPipeline;
+import com.epam.esm.validation.StageValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The type Ingestion controller. The class used for processing file ingestion monitoring and stage resizing
+ * requests.
+ */
+@RestController
+@RequestMapping(value = "/api/ingestion", produces = MediaType.APPLICATION_JSON_VALUE)
+public class IngestionController {
+
+  private final IngestionPipeline ingestionPipeline;
+
+  /**
+   * Instantiates a new Ingestion controller.
+   *
+   * @param ingestionPipeline the ingestion pipeline
+   */
+  @Autowired
+  public IngestionController(IngestionPipeline ingestionPipeline) {
+    this.ingestionPipeline = ingestionPipeline;
+  }
+
+  /**
+   * Find ingestion stage statistics returns response.
+   *
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @GetMapping(value = "/stages")
+  public ResponseEntity<EntityListDto<StageStatisticsDto>> findStageStatistics() {
+    return ResponseEntity.status(HttpStatus.OK.value())
+        .body(new EntityListDto<>(ingestionPipeline.findStatistics()));
+  }
+
+  /**
+   * Change the number of workers of the ingestion stage returns the stage statistics.
+   *
+   * @param name        the stage name
+   * @param threadCount the new number of workers
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @PutMapping(value = "/stages/{name}", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StageStatisticsDto> resizeStage(@PathVariable String name,
+      @RequestBody StageThreadCountDto threadCount) {
+    if (!StageValidator.isValidThreadCount(threadCount.getThreadCount())) {
+      throw new ServerException(ExceptionType.INCORRECT_INPUT_DATA);
+    }
+    return ResponseEntity.status(HttpStatus.OK.value())
+        .body(ingestionPipeline.resize(name, threadCount.getThreadCount())
+            .orElseThrow(() -> new ServerException(ExceptionType.RESOURCE_NOT_FOUND)));
+  }
+}
\ No newline at end of file
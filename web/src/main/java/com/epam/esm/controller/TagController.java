@@ -3,6 +3,7 @@ package com.epam.esm.controller;
 import com.epam.esm.dto.EntityListDto;
 import com.epam.esm.exception.ExceptionType;
 import com.epam.esm.exception.ServerException;
+import com.epam.esm.model.DeletionTask;
 import com.epam.esm.model.Tag;
 import com.epam.esm.service.TagService;
 import com.epam.esm.validation.TagValidator;
@@ -105,4 +106,17 @@ public class TagController {
     }
     return ResponseEntity.status(HttpStatus.OK).build();
   }
+
+  /**
+   * Delete tag deferred returns the deletion task. The tag is hidden at once, its certificate associations are
+   * removed in the background.
+   *
+   * @param id the id of deleting entity
+   * @return the service response
+   */
+  @Secured("ROLE_ADMIN")
+  @DeleteMapping(value = "/{id}", params = "deferred")
+  public ResponseEntity<DeletionTask> deleteTagDeferred(@PathVariable Long id) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED.value()).body(tagService.deleteDeferred(id));
+  }
 }
\ No newline at end of file
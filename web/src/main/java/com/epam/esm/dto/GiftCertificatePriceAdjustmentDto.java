@@ -0,0 +1,34 @@
+package com.epam.esm.dto;
+
+import java.math.BigDecimal;
+
+
+public class GiftCertificatePriceAdjustmentDto {
+
+  private BigDecimal amount;
+  private BigDecimal percent;
+
+  public GiftCertificatePriceAdjustmentDto() {
+  }
+
+  public GiftCertificatePriceAdjustmentDto(BigDecimal amount, BigDecimal percent) {
+    this.amount = amount;
+    this.percent = percent;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  public void setAmount(BigDecimal amount) {
+    this.amount = amount;
+  }
+
+  public BigDecimal getPercent() {
+    return percent;
+  }
+
+  public void setPercent(BigDecimal percent) {
+    this.percent = percent;
+  }
+}
\ No newline at end of file
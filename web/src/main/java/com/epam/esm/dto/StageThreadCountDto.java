@@ -0,0 +1,22 @@
+package com.epam.esm.dto;
+
+
+public class StageThreadCountDto {
+
+  private Integer threadCount;
+
+  public StageThreadCountDto() {
+  }
+
+  public StageThreadCountDto(Integer threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  public Integer getThreadCount() {
+    return threadCount;
+  }
+
+  public void setThreadCount(Integer threadCount) {
+    this.threadCount = threadCount;
+  }
+}
\ No newline at end of file
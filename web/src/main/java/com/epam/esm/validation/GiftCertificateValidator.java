@@ -1,5 +1,6 @@
 package com.epam.esm.validation;
 
+import com.epam.esm.dto.GiftCertificatePriceAdjustmentDto;
 import com.epam.esm.dto.GiftCertificateUpdateDto;
 import com.epam.esm.dto.GiftCertificateWithTagsDto;
 import com.epam.esm.model.Tag;
@@ -15,6 +16,8 @@ public class GiftCertificateValidator {
   private static final int MIN_CERTIFICATE_DESCRIPTION_LENGTH = 12;
   private static final double MIN_CERTIFICATE_PRICE = 0;
   private static final double MAX_CERTIFICATE_PRICE = 10000;
+  private static final double MIN_PRICE_ADJUSTMENT_PERCENT = -100;
+  private static final double MAX_PRICE_ADJUSTMENT_PERCENT = 1000;
   private static final int MIN_CERTIFICATE_DURATION = 0;
   private static final int MAX_CERTIFICATE_DURATION = 10000;
 
@@ -53,6 +56,15 @@ public class GiftCertificateValidator {
     return price.doubleValue() >= MIN_CERTIFICATE_PRICE && price.doubleValue() <= MAX_CERTIFICATE_PRICE;
   }
 
+  public static boolean isValidPriceAdjustment(GiftCertificatePriceAdjustmentDto adjustment) {
+    if (adjustment.getAmount() != null) {
+      return adjustment.getPercent() == null
+          && Math.abs(adjustment.getAmount().doubleValue()) <= MAX_CERTIFICATE_PRICE;
+    }
+    return adjustment.getPercent() != null && adjustment.getPercent().doubleValue() > MIN_PRICE_ADJUSTMENT_PERCENT
+        && adjustment.getPercent().doubleValue() <= MAX_PRICE_ADJUSTMENT_PERCENT;
+  }
+
   public static boolean isValidCertificateDuration(Integer duration) {
     return duration >= MIN_CERTIFICATE_DURATION && duration <= MAX_CERTIFICATE_DURATION;
   }
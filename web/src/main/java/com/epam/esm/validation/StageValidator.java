@@ -0,0 +1,16 @@
+package com.epam.esm.validation;
+
+public class StageValidator {
+
+  // a stage without workers stops the pipeline, its producers wait on the full queue
+  private static final int MIN_THREAD_COUNT = 1;
+  private static final int MAX_THREAD_COUNT = 64;
+
+  private StageValidator() {
+
+  }
+
+  public static boolean isValidThreadCount(Integer threadCount) {
+    return threadCount != null && threadCount >= MIN_THREAD_COUNT && threadCount <= MAX_THREAD_COUNT;
+  }
+}
\ No newline at end of file
@@ -18,9 +18,52 @@ USE `gift_certificates_test`;
 /*!40111 SET @OLD_SQL_NOTES=@@SQL_NOTES, SQL_NOTES=0 */;
 
 --
--- Table structure for table `gift_certificate`
+-- Table structure for table `deletion_task`
 --
 SET FOREIGN_KEY_CHECKS=0;
+DROP TABLE IF EXISTS `deletion_task`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `deletion_task` (
+  `deletion_task_id` int(11) NOT NULL AUTO_INCREMENT,
+  `entity_type` enum('TAG','CERTIFICATE') NOT NULL,
+  `entity_id` int(11) NOT NULL,
+  `status` enum('PENDING','COMPLETED') NOT NULL DEFAULT 'PENDING',
+  `total_count` int(11) NOT NULL DEFAULT '0',
+  `processed_count` int(11) NOT NULL DEFAULT '0',
+  `create_date` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `last_update_date` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`deletion_task_id`),
+  KEY `idx_deletion_task_status` (`status`) USING BTREE
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `file_lease`
+--
+
+DROP TABLE IF EXISTS `file_lease`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `file_lease` (
+  `path_hash` binary(32) NOT NULL,
+  `path` varchar(1024) NOT NULL,
+  `owner` varchar(255) NOT NULL,
+  `expiry_date` timestamp(3) NOT NULL,
+  `heartbeat_date` timestamp(3) NOT NULL,
+  `checkpoint_record_count` bigint DEFAULT NULL,
+  `checkpoint_byte_offset` bigint DEFAULT NULL,
+  `content_hash` binary(32) DEFAULT NULL,
+  PRIMARY KEY (`path_hash`),
+  KEY `idx_file_lease_owner` (`owner`) USING BTREE,
+  KEY `idx_file_lease_expiry_date` (`expiry_date`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `gift_certificate`
+--
+
 DROP TABLE IF EXISTS `gift_certificate`;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!50503 SET character_set_client = utf8mb4 */;
@@ -32,22 +75,27 @@ CREATE TABLE `gift_certificate` (
   `create_date` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `last_update_date` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `duration` int(5) NOT NULL,
+  `version` int(11) NOT NULL DEFAULT '0',
+  `deleted` tinyint(1) NOT NULL DEFAULT '0',
   PRIMARY KEY (`gift_certificate_id`),
-  KEY `idx_gift_certififcate_name` (`name`) USING BTREE
+  KEY `idx_gift_certififcate_name` (`name`) USING BTREE,
+  KEY `idx_gift_certificate_create_date` (`create_date`) USING BTREE,
+  KEY `idx_gift_certificate_last_update_date` (`last_update_date`) USING BTREE
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
 --
--- Table structure for table `processing_file`
+-- Table structure for table `ingestion_fingerprint`
 --
 
-DROP TABLE IF EXISTS `processing_file`;
+DROP TABLE IF EXISTS `ingestion_fingerprint`;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!50503 SET character_set_client = utf8mb4 */;
-CREATE TABLE `processing_file` (
-                                   `processing_file_path` varchar(1024) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
-                                   PRIMARY KEY (`processing_file_path`),
-                                   UNIQUE KEY `processing_file_path_UNIQUE` (`processing_file_path`)
+CREATE TABLE `ingestion_fingerprint` (
+  `fingerprint` binary(16) NOT NULL,
+  `created_date` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`fingerprint`),
+  KEY `idx_ingestion_fingerprint_created_date` (`created_date`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -82,8 +130,10 @@ DROP TABLE IF EXISTS `tag`;
 CREATE TABLE `tag` (
   `tag_id` int(11) NOT NULL AUTO_INCREMENT,
   `name` varchar(50) NOT NULL,
+  `deleted` tinyint(1) NOT NULL DEFAULT '0',
+  `active_name` varchar(50) GENERATED ALWAYS AS (if((`deleted` = 0),`name`,NULL)) STORED,
   PRIMARY KEY (`tag_id`),
-  UNIQUE KEY `name_UNIQUE` (`name`)
+  UNIQUE KEY `name_UNIQUE` (`active_name`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1255 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
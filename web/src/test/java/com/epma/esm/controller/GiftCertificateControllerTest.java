@@ -3,7 +3,11 @@ package com.epma.esm.controller;
 
 import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
 import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
@@ -11,14 +15,17 @@ import com.epam.esm.config.RepositoryConfig;
 import com.epam.esm.config.SecurityConfig;
 import com.epam.esm.config.ServiceConfig;
 import com.epam.esm.config.WebConfig;
+import com.epam.esm.dto.GiftCertificatePriceAdjustmentDto;
 import com.epam.esm.dto.GiftCertificatePriceDto;
 import com.epam.esm.dto.GiftCertificateUpdateDto;
 import com.epam.esm.dto.GiftCertificateWithTagsDto;
 import com.epam.esm.mapper.GiftCertificateMapper;
 import com.epam.esm.mapper.TagMapper;
+import com.epam.esm.model.CountedGiftCertificate;
 import com.epam.esm.model.GiftCertificate;
 import com.epam.esm.model.Role;
 import com.epam.esm.model.Tag;
+import com.epam.esm.model.TagGiftCertificate;
 import com.epam.esm.model.User;
 import com.epam.esm.security.AuthenticationFilter;
 import com.epam.esm.security.TokenService;
@@ -38,6 +45,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -54,6 +62,8 @@ public class GiftCertificateControllerTest {
       "validation/certificate/certificate-list-validation-schema.json";
   private static final String CERTIFICATE_OBJECT_SCHEMA_NAME =
       "validation/certificate/certificate-object-validation-schema.json";
+  private static final String CERTIFICATE_BATCH_SCHEMA_NAME =
+      "validation/certificate/certificate-batch-validation-schema.json";
   private static final String EXCEPTION_OBJECT_SCHEMA_NAME =
       "validation/exception/exception-object-validation-schema.json";
   private static final String AUTHORIZATION_HEADER_NAME = "Authorization";
@@ -104,10 +114,12 @@ public class GiftCertificateControllerTest {
 
   @Test
   public void findAllCertificatesTest() {
-    when(certificateMapper.selectByCriteria(any(), any(), any()))
-        .thenReturn(Collections.singletonList(giftCertificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(Collections.singletonList(tag));
-    when(certificateMapper.getCountOfSuitableRecordsOfFindByCriteria(any(), any())).thenReturn(1);
+    when(certificateMapper.selectByCriteria(any(), any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
+        .thenReturn(Collections.singletonList(new CountedGiftCertificate(giftCertificate.getId(),
+            giftCertificate.getName(), giftCertificate.getDescription(), giftCertificate.getPrice(),
+            giftCertificate.getCreateDate(), giftCertificate.getLastUpdateDate(), giftCertificate.getDuration(), 1)));
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(Collections.singletonList(
+        new TagGiftCertificate(giftCertificate.getId(), tag.getId(), tag.getName())));
     given().when().get(ALL_CERTIFICATES_ENDPOINT)
         .then()
         .statusCode(HttpStatus.OK.value())
@@ -126,6 +138,18 @@ public class GiftCertificateControllerTest {
         .body(matchesJsonSchemaInClasspath(CERTIFICATE_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
   }
 
+  @Test
+  public void findCertificateByIdTestReturnsEntityTag() {
+    giftCertificate.setVersion(3L);
+    when(certificateMapper.selectById(any())).thenReturn(Optional.of(giftCertificate));
+    when(tagMapper.selectByCertificateId(any())).thenReturn(Collections.singletonList(tag));
+    given()
+        .when().get(ALL_CERTIFICATES_ENDPOINT + "/48")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .header(HttpHeaders.ETAG, "\"3\"");
+  }
+
   @Test
   public void findCertificateByIdTestReturnsExceptionObject() {
     when(certificateMapper.selectById(any())).thenReturn(Optional.empty());
@@ -199,10 +223,60 @@ public class GiftCertificateControllerTest {
         .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
   }
 
+  @Test
+  public void createCertificatesIncorrectDataReturnsErrorCodes() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    GiftCertificateWithTagsDto incorrectCertificate = new GiftCertificateWithTagsDto(
+        new GiftCertificate(null, "name", "description", BigDecimal.valueOf(-1), null, null, 5), null);
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .contentType(ContentType.JSON)
+        .body(objectMapper.writeValueAsString(Collections.singletonList(incorrectCertificate)))
+        .when()
+        .post(ALL_CERTIFICATES_ENDPOINT + "/batch")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .body("data[0].index", equalTo(0))
+        .body("data[0].errorCode", equalTo(40003))
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(CERTIFICATE_BATCH_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void createCertificatesFromStreamUnreadableLineReturnsErrorCode() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .contentType("application/x-ndjson")
+        .body("{\"name\":\n\n{\"unknown\":1}")
+        .when()
+        .post(ALL_CERTIFICATES_ENDPOINT + "/batch")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .body("data.errorCode", contains(40003, 40003))
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(CERTIFICATE_BATCH_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void createCertificatesForbiddenReturnsExceptionObject() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, userToken)
+        .contentType(ContentType.JSON)
+        .body(objectMapper.writeValueAsString(Collections.singletonList(giftCertificateWithTagsDto)))
+        .when()
+        .post(ALL_CERTIFICATES_ENDPOINT + "/batch")
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
   @Test
   public void findUserCertificatesCorrectRequestReturnsCertificates() {
     when(certificateMapper.selectByUserId(any(), any())).thenReturn(Collections.singletonList(giftCertificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(Collections.singletonList(tag));
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(Collections.singletonList(
+        new TagGiftCertificate(giftCertificate.getId(), tag.getId(), tag.getName())));
     given()
         .header(AUTHORIZATION_HEADER_NAME, adminToken)
         .when()
@@ -228,7 +302,8 @@ public class GiftCertificateControllerTest {
   @Test
   public void findAnyUserCertificatesCorrectRequestExceptionObject() {
     when(certificateMapper.selectByUserId(any(), any())).thenReturn(Collections.singletonList(giftCertificate));
-    when(tagMapper.selectByCertificateId(any())).thenReturn(Collections.singletonList(tag));
+    when(tagMapper.selectByCertificateIds(any())).thenReturn(Collections.singletonList(
+        new TagGiftCertificate(giftCertificate.getId(), tag.getId(), tag.getName())));
     given()
         .header(AUTHORIZATION_HEADER_NAME, adminToken)
         .when()
@@ -399,6 +474,44 @@ public class GiftCertificateControllerTest {
         .body(matchesJsonSchemaInClasspath(CERTIFICATE_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
   }
 
+  @Test
+  public void updatePriceChangedVersionReturnsExceptionObject() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    giftCertificate.setVersion(3L);
+    when(certificateMapper.selectById(any())).thenReturn(Optional.of(giftCertificate));
+    when(tagMapper.selectByCertificateId(any())).thenReturn(Collections.singletonList(tag));
+    GiftCertificatePriceDto giftCertificatePriceDto = new GiftCertificatePriceDto(BigDecimal.valueOf(5));
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .header(HttpHeaders.IF_MATCH, "\"2\"")
+        .contentType(ContentType.JSON)
+        .body(objectMapper.writeValueAsString(giftCertificatePriceDto))
+        .when()
+        .put(ALL_CERTIFICATES_ENDPOINT + "/47?price")
+        .then()
+        .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void updateCertificateWeakEntityTagReturnsExceptionObject() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    GiftCertificateUpdateDto priceUpdateDto = new GiftCertificateUpdateDto();
+    priceUpdateDto.setPrice(BigDecimal.valueOf(5));
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+        .contentType(ContentType.JSON)
+        .body(objectMapper.writeValueAsString(priceUpdateDto))
+        .when()
+        .patch(ALL_CERTIFICATES_ENDPOINT + "/47")
+        .then()
+        .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
   @Test
   public void deleteCertificateUnauthorizedReturnsExceptionObject() {
     given()
@@ -448,4 +561,37 @@ public class GiftCertificateControllerTest {
         .then()
         .statusCode(HttpStatus.NOT_FOUND.value());
   }
+
+  @Test
+  public void adjustPricesIncorrectAdjustmentReturnsExceptionObject() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    GiftCertificatePriceAdjustmentDto adjustmentDto =
+        new GiftCertificatePriceAdjustmentDto(BigDecimal.ONE, BigDecimal.TEN);
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .contentType(ContentType.JSON)
+        .body(objectMapper.writeValueAsString(adjustmentDto))
+        .when()
+        .post(ALL_CERTIFICATES_ENDPOINT + "/prices?tag=sport")
+        .then()
+        .statusCode(HttpStatus.BAD_REQUEST.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void adjustPricesForbiddenReturnsExceptionObject() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    GiftCertificatePriceAdjustmentDto adjustmentDto = new GiftCertificatePriceAdjustmentDto(null, BigDecimal.TEN);
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, userToken)
+        .contentType(ContentType.JSON)
+        .body(objectMapper.writeValueAsString(adjustmentDto))
+        .when()
+        .post(ALL_CERTIFICATES_ENDPOINT + "/prices")
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.epma.esm.controller;
+
+import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.epam.esm.config.RepositoryConfig;
+import com.epam.esm.config.SecurityConfig;
+import com.epam.esm.config.ServiceConfig;
+import com.epam.esm.config.WebConfig;
+import com.epam.esm.model.Role;
+import com.epam.esm.model.User;
+import com.epam.esm.security.AuthenticationFilter;
+import com.epam.esm.security.TokenService;
+import com.github.fge.jsonschema.SchemaVersion;
+import com.github.fge.jsonschema.cfg.ValidationConfiguration;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = {SecurityConfig.class, WebConfig.class, ServiceConfig.class,
+    RepositoryConfig.class})
+public class IngestionControllerTest {
+
+  private static final String ALL_STAGES_ENDPOINT = "/api/ingestion/stages";
+  private static final String STAGE_ENDPOINT = "/api/ingestion/stages/{name}";
+  private static final String STAGE_OBJECT_SCHEMA_NAME =
+      "validation/ingestion/stage-object-validation-schema.json";
+  private static final String STAGE_LIST_SCHEMA_NAME =
+      "validation/ingestion/stage-list-validation-schema.json";
+  private static final String EXCEPTION_OBJECT_SCHEMA_NAME =
+      "validation/exception/exception-object-validation-schema.json";
+  private static final String AUTHORIZATION_HEADER_NAME = "Authorization";
+
+  @Autowired
+  private WebApplicationContext webApplicationContext;
+  @Autowired
+  private AuthenticationFilter authenticationFilter;
+  @Autowired
+  private TokenService tokenService;
+  private JsonSchemaFactory jsonSchemaFactory;
+  private String adminToken;
+  private String userToken;
+
+  @Before
+  public void initializeRestAssuredMockMvcWebApplicationContext() {
+    MockMvc mockMvc =
+        MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(authenticationFilter).build();
+    RestAssuredMockMvc.mockMvc(mockMvc);
+    adminToken = tokenService.createTokenForUser(new User(47L, "username2", "password", Role.ADMIN)).getToken();
+    userToken = tokenService.createTokenForUser(new User(1L, "username", "password", Role.USER)).getToken();
+    jsonSchemaFactory = JsonSchemaFactory
+        .newBuilder().setValidationConfiguration(ValidationConfiguration
+            .newBuilder().setDefaultVersion(SchemaVersion.DRAFTV4)
+            .freeze())
+        .freeze();
+  }
+
+  @Test
+  public void findStageStatisticsReturnsStatistics() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .when()
+        .get(ALL_STAGES_ENDPOINT)
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(STAGE_LIST_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void findStageStatisticsForbiddenReturnsExceptionObject() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, userToken)
+        .when()
+        .get(ALL_STAGES_ENDPOINT)
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void resizeStageCorrectThreadCountReturnsStageStatistics() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .contentType(ContentType.JSON)
+        .body("{\"threadCount\": 2}")
+        .when()
+        .put(STAGE_ENDPOINT, "validate")
+        .then()
+        .statusCode(HttpStatus.OK.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(STAGE_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory))
+        .body("name", Matchers.equalTo("validate"));
+  }
+
+  @Test
+  public void resizeStageIncorrectThreadCountReturnsExceptionObject() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .contentType(ContentType.JSON)
+        .body("{\"threadCount\": 0}")
+        .when()
+        .put(STAGE_ENDPOINT, "validate")
+        .then()
+        .statusCode(HttpStatus.BAD_REQUEST.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void resizeStageUnknownStageReturnsExceptionObject() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, adminToken)
+        .contentType(ContentType.JSON)
+        .body("{\"threadCount\": 2}")
+        .when()
+        .put(STAGE_ENDPOINT, "unknown")
+        .then()
+        .statusCode(HttpStatus.NOT_FOUND.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+
+  @Test
+  public void resizeStageForbiddenReturnsExceptionObject() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, userToken)
+        .contentType(ContentType.JSON)
+        .body("{\"threadCount\": 2}")
+        .when()
+        .put(STAGE_ENDPOINT, "validate")
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
+}
\ No newline at end of file
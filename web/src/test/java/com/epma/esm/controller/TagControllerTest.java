@@ -258,4 +258,17 @@ public class TagControllerTest {
         .then()
         .statusCode(HttpStatus.NOT_FOUND.value());
   }
+
+  @Test
+  public void deleteTagDeferredForbiddenReturnsExceptionObject() {
+    given()
+        .header(AUTHORIZATION_HEADER_NAME, userToken)
+        .contentType(ContentType.JSON)
+        .when()
+        .delete(ALL_TAGS_ENDPOINT + "/9?deferred")
+        .then()
+        .statusCode(HttpStatus.FORBIDDEN.value())
+        .assertThat()
+        .body(matchesJsonSchemaInClasspath(EXCEPTION_OBJECT_SCHEMA_NAME).using(jsonSchemaFactory));
+  }
 }
\ No newline at end of file